@@ -0,0 +1,74 @@
+package benchmark;
+
+import model.DataModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import solver.ClassicMoveCursor;
+import solver.Move;
+import solver.MoveSource;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the model operations that run on every drag and drop: building the disks, checking
+ * whether a drop is allowed, checking whether the game is finished and moving a disk between towers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+    @Param({"3", "8", "16"})
+    int disks;
+
+    private DataModel model;
+
+    @Setup
+    public void setUp() {
+        model = new DataModel();
+        model.createDiskList(disks);
+
+        // Move all the disks to the right tower and bring the smallest one back to the left tower,
+        // so that a drop on the right tower has to be checked against a full tower
+        ClassicMoveCursor cursor = new ClassicMoveCursor(disks, 0, 2);
+        int move;
+        while ((move = cursor.poll()) != MoveSource.NO_MOVE) {
+            model.moveTop(Move.from(move), Move.to(move));
+        }
+        model.moveTop(2, 0);
+    }
+
+    @Benchmark
+    public DataModel createDiskList() {
+        DataModel newModel = new DataModel();
+        newModel.createDiskList(disks);
+        return newModel;
+    }
+
+    @Benchmark
+    public boolean isMoveAllowed() {
+        return model.isMoveAllowed(0, 2);
+    }
+
+    @Benchmark
+    public boolean isGameFinished() {
+        return model.isGameFinished();
+    }
+
+    @Benchmark
+    public boolean moveTop() {
+        // Move the smallest disk there and back, so that the state is the same for every invocation
+        return model.moveTop(0, 1) & model.moveTop(1, 0);
+    }
+}
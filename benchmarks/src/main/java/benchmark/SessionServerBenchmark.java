@@ -0,0 +1,78 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import server.GameSessionManager;
+import server.MoveResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmarks the throughput of the session server: several client threads send moves to random
+ * sessions out of thousands of concurrent sessions. Every client owns its own share of the
+ * sessions; every operation moves the smallest disk back and forth between the first two pegs
+ * with two moves, so every move is legal, and waits for the result of the second one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(SessionServerBenchmark.CLIENTS)
+@Fork(1)
+public class SessionServerBenchmark {
+    static final int CLIENTS = 8;
+
+    @Param({"1000", "10000"})
+    int sessions;
+
+    private GameSessionManager manager;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = new GameSessionManager(1, TimeUnit.HOURS);
+        ids = new long[sessions];
+        for (int i = 0; i < sessions; i++) {
+            ids[i] = manager.createSession(8, 3);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        manager.close();
+    }
+
+    /**
+     * The share of the sessions of a client thread: every 8th session, starting at its index.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+        private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+        final int index = NEXT_INDEX.getAndIncrement() % CLIENTS;
+    }
+
+    @Benchmark
+    public MoveResult moveRoundTrip(Client client) {
+        int share = sessions / CLIENTS;
+        long id = ids[ThreadLocalRandom.current().nextInt(share) * CLIENTS + client.index];
+        manager.move(id, 0, 1);
+        CompletableFuture<MoveResult> back = manager.move(id, 1, 0);
+        return back.join();
+    }
+}
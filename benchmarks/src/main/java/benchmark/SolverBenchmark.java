@@ -0,0 +1,100 @@
+package benchmark;
+
+import model.DataModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import solver.ClassicMoveCursor;
+import solver.HanoiSolver;
+import solver.Move;
+import solver.MoveQuery;
+import solver.MoveSource;
+import solver.PegState;
+import view.automatic.NodeTowerRenderer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a full solve as the automatic mode plays it back (the moves of the classic cursor
+ * applied to the state of the game and to the JavaFX model by the node renderer, without drawing
+ * the disks) and with the headless solver.
+ *
+ * The models are created once per iteration: a solve of 8 disks takes microseconds, which a setup
+ * per invocation would dwarf. Every solve starts from the tower the previous one finished on
+ * instead, so no reset is needed between two invocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    @Param({"8", "12", "16"})
+    int disks;
+
+    private DataModel model;
+    private PegState modelState;            // The state of the game that the model follows
+    private NodeTowerRenderer renderer;
+    private int modelSource;                // The tower that holds all the disks of the model
+    private PegState state;
+    private int source;                     // The peg that holds all the disks of the headless solver
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        model = new DataModel();
+        model.createDiskList(disks);
+        modelState = new PegState(3, disks, 0);
+        renderer = new NodeTowerRenderer(model, modelState, () -> 0);
+        modelSource = 0;
+        state = new PegState(3, disks, 0);
+        source = 0;
+    }
+
+    @Benchmark
+    public DataModel automaticMode() {
+        // Move the disks back and forth between the left and the right towers, checking every
+        // move against the state of the game like AutomaticModeController.applyMove
+        int destination = 2 - modelSource;
+        MoveSource moves = new ClassicMoveCursor(disks, modelSource, destination);
+        int move;
+        while ((move = moves.poll()) != MoveSource.NO_MOVE) {
+            int from = Move.from(move);
+            int to = Move.to(move);
+            if (!modelState.canMove(from, to)) {
+                throw new IllegalStateException("Illegal move " + Move.toString(move));
+            }
+            modelState.move(from, to);
+            renderer.applyMove(Move.disk(move), from, to);
+        }
+        modelSource = destination;
+        return model;
+    }
+
+    @Benchmark
+    public long bitboardSolver(Blackhole blackhole) {
+        // Move the disks back and forth between the left and the right pegs
+        int destination = 2 - source;
+        long nrOfMoves = HanoiSolver.solve(state, source, destination, (moveIndex, disk, from, to) -> blackhole.consume(to));
+        source = destination;
+        return nrOfMoves;
+    }
+
+    @Benchmark
+    public void moveQuery(Blackhole blackhole) {
+        long nrOfMoves = HanoiSolver.moveCount(disks);
+        for (long k = 1; k <= nrOfMoves; k++) {
+            blackhole.consume(MoveQuery.move(disks, 0, 2, k));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package application;
+
+import cli.HanoiCli;
+
+/**
+ * The main class of the application. Without arguments it starts the JavaFX application; with
+ * arguments it runs the command line batch mode, which doesn't load any JavaFX class, so it also
+ * works on machines without a display.
+ */
+public class Launcher {
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            TowersOfHanoi.main(args);
+        } else {
+            System.exit(HanoiCli.run(args));
+        }
+    }
+}
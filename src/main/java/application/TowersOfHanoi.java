@@ -1,22 +1,21 @@
 package application;
 
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.stage.Stage;
+import view.SceneManager;
 
 public class TowersOfHanoi extends Application {
 
     @Override
     public void start(Stage primaryStage) throws Exception {
-        FXMLLoader menuViewLoader = new FXMLLoader(getClass().getResource("/fxml/menuView.fxml"));
-
-        Parent root = menuViewLoader.load();
+        // Shows the menu and preloads the views of the game modes
+        SceneManager.initialize(primaryStage);
+    }
 
-        primaryStage.setTitle("Towers of Hanoi");
-        primaryStage.setScene(new Scene(root, 500, 260));
-        primaryStage.show();
+    @Override
+    public void stop() {
+        // Stops the solver thread of the automatic mode
+        SceneManager.getInstance().shutdown();
     }
 
     public static void main(String[] args) {
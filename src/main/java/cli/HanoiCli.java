@@ -0,0 +1,316 @@
+package cli;
+
+import solver.FrameStewart;
+import solver.Move;
+import solver.MoveLog;
+import solver.MoveLogReader;
+import solver.MoveLogWriter;
+import solver.MoveSource;
+import solver.MoveValidator;
+import solver.ParallelMoveGenerator;
+import solver.PegState;
+import solver.SolutionCache;
+import solver.ValidationResult;
+import solver.Variant;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The command line batch mode: solves the puzzle for one or more numbers of disks and writes the
+ * moves, or only the number of moves and the checksum of the solution. It only uses the solver
+ * package, so it starts without the JavaFX toolkit.
+ *
+ * Usage: --validate FILE [--variant V]
+ *        --disks N|N-M [--pegs P] [--from S] [--to T] [--variant V] [--count | --checksum] [--out FILE [--binary]] [--cache DIR]
+ *
+ * With --validate FILE the moves of a move log are checked instead (see MoveValidator), and the exit
+ * code tells whether they are legal and solve the puzzle.
+ *
+ * With --cache the moves are taken from a SolutionCache whose file tier is kept in the given
+ * directory, so repeated runs with the same parameters don't solve the puzzle again.
+ */
+public final class HanoiCli {
+    static final int EXIT_OK = 0;
+    static final int EXIT_FAILURE = 1;
+    static final int EXIT_USAGE = 2;
+    static final int EXIT_INVALID = 3;
+    private static final long CACHE_SIZE = 256L << 20;     // The budget of the memory tier of the cache, 256 MiB
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: --disks N|N-M [--pegs P] [--from S] [--to T] [--variant V] [--count | --checksum] [--out FILE [--binary]] [--cache DIR]",
+            "       --validate FILE [--variant V]",
+            "  --disks     the number of disks, or a range of numbers of disks (1 to " + PegState.MAX_DISKS + ")",
+            "  --pegs      the number of pegs (3 to " + FrameStewart.MAX_PEGS + ", default 3)",
+            "  --from      the peg on which the disks are placed (default 0)",
+            "  --to        the peg on which the disks have to be gathered (default: the last peg)",
+            "  --variant   classic, adjacent (moves to and from the middle peg only) or cyclic (clockwise",
+            "              moves only); the restricted variants are played with 3 pegs (default classic)",
+            "  --count     only print the number of moves",
+            "  --checksum  print the number of moves and the checksum of the solution",
+            "  --out       write the moves to a file instead of the standard output",
+            "  --binary    write the moves as a binary move log (a single number of disks only)",
+            "  --cache     keep the solutions in the given directory and reuse them in later runs",
+            "  --validate  check that the moves of a binary move log are legal and solve the puzzle");
+
+    private enum Output { MOVES, COUNT, CHECKSUM }
+
+    private int minDisks;
+    private int maxDisks;
+    private int nrOfPegs = 3;
+    private int source = 0;
+    private int destination;                // The last peg unless --to is given
+    private Variant variant = Variant.CLASSIC;
+    private Output output = Output.MOVES;
+    private Path outputFile;
+    private boolean binary;
+    private SolutionCache cache;            // null unless --cache is given
+    private Path logToValidate;             // null unless --validate is given
+    private final Set<String> options = new HashSet<>();    // The options that were given
+
+    private HanoiCli() {
+    }
+
+    /**
+     * Runs the batch mode.
+     *
+     * @param args the command line arguments
+     * @return the exit code: 0 on success, 1 if the output can't be written or the log can't be
+     *         read, 2 for invalid arguments, 3 if the validated log is illegal or doesn't solve the puzzle
+     */
+    public static int run(String[] args) {
+        HanoiCli cli = new HanoiCli();
+        try {
+            cli.parse(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        }
+
+        if (cli.logToValidate != null) {
+            return cli.validate();
+        }
+
+        try {
+            cli.execute();
+            return EXIT_OK;
+        } catch (IOException ex) {
+            System.err.println("Could not write the output: " + ex.getMessage());
+            return EXIT_FAILURE;
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            return EXIT_USAGE;
+        }
+    }
+
+    /**
+     * Parses and validates the arguments.
+     */
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            options.add(option);
+            switch (option) {
+                case "--disks":
+                    String disks = value(args, ++i, option);
+                    int dash = disks.indexOf('-', 1);
+                    minDisks = number(dash < 0 ? disks : disks.substring(0, dash), option);
+                    maxDisks = dash < 0 ? minDisks : number(disks.substring(dash + 1), option);
+                    break;
+                case "--pegs":
+                    nrOfPegs = number(value(args, ++i, option), option);
+                    break;
+                case "--from":
+                    source = number(value(args, ++i, option), option);
+                    break;
+                case "--to":
+                    destination = number(value(args, ++i, option), option);
+                    break;
+                case "--variant":
+                    variant = Variant.fromDisplayName(value(args, ++i, option));
+                    break;
+                case "--count":
+                    output = Output.COUNT;
+                    break;
+                case "--checksum":
+                    output = Output.CHECKSUM;
+                    break;
+                case "--out":
+                    outputFile = Paths.get(value(args, ++i, option));
+                    break;
+                case "--binary":
+                    binary = true;
+                    break;
+                case "--validate":
+                    logToValidate = Paths.get(value(args, ++i, option));
+                    break;
+                case "--cache":
+                    cache = new SolutionCache(CACHE_SIZE, Paths.get(value(args, ++i, option)));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+
+        if (logToValidate != null) {
+            options.remove("--validate");
+            options.remove("--variant");
+            if (!options.isEmpty()) {
+                throw new IllegalArgumentException("--validate only accepts --variant");
+            }
+            return;
+        }
+        if (!options.contains("--disks")) {
+            throw new IllegalArgumentException("The number of disks is required");
+        }
+        if (minDisks < 1 || maxDisks > variant.getMaxDisks() || minDisks > maxDisks) {
+            throw new IllegalArgumentException("The number of disks must be between 1 and " + variant.getMaxDisks());
+        }
+        if (nrOfPegs < 3 || nrOfPegs > FrameStewart.MAX_PEGS) {
+            throw new IllegalArgumentException("The number of pegs must be between 3 and " + FrameStewart.MAX_PEGS);
+        }
+        if (!variant.supportsPegs(nrOfPegs)) {
+            throw new IllegalArgumentException("The " + variant.getDisplayName() + " variant is played with 3 pegs");
+        }
+        if (!options.contains("--to")) {
+            destination = nrOfPegs - 1;
+        }
+        if (source < 0 || destination < 0 || source >= nrOfPegs || destination >= nrOfPegs || source == destination) {
+            throw new IllegalArgumentException("The source and destination must be different pegs between 0 and " + (nrOfPegs - 1));
+        }
+        if (binary && (outputFile == null || output != Output.MOVES || minDisks != maxDisks)) {
+            throw new IllegalArgumentException("A binary move log needs --out and a single number of disks");
+        }
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    private static int number(String value, String option) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+        }
+    }
+
+    /**
+     * Validates the move log and prints the result.
+     *
+     * @return the exit code
+     */
+    private int validate() {
+        ValidationResult result;
+        try (MoveLogReader reader = new MoveLogReader(logToValidate)) {
+            if (!variant.supportsPegs(reader.getNrOfPegs())) {
+                System.err.println("The " + variant.getDisplayName() + " variant is played with 3 pegs");
+                return EXIT_USAGE;
+            }
+            result = new MoveValidator().validate(reader, variant);
+        } catch (IOException ex) {
+            System.err.println("Could not read the move log: " + ex.getMessage());
+            return EXIT_FAILURE;
+        }
+
+        System.out.println(result);
+        return result.isValid() ? EXIT_OK : EXIT_INVALID;
+    }
+
+    private void execute() throws IOException {
+        if (binary) {
+            writeMoveLog(minDisks);
+            return;
+        }
+
+        // The moves are written straight to the file descriptor, not through System.out
+        try (FileChannel channel = outputFile != null
+                ? FileChannel.open(outputFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+                : new FileOutputStream(FileDescriptor.out).getChannel();
+             MoveTextWriter writer = new MoveTextWriter(channel)) {
+            for (int nrOfDisks = minDisks; nrOfDisks <= maxDisks; nrOfDisks++) {
+                switch (output) {
+                    case COUNT:
+                        writer.writeLine(nrOfDisks + " disks: " + Long.toUnsignedString(moveCount(nrOfDisks)) + " moves");
+                        break;
+                    case CHECKSUM:
+                        writer.writeLine(nrOfDisks + " disks: " + Long.toUnsignedString(moveCount(nrOfDisks)) + " moves, checksum "
+                                + Long.toHexString(checksum(nrOfDisks)));
+                        break;
+                    default:
+                        if (minDisks != maxDisks) {
+                            writer.writeLine("# " + nrOfDisks + " disks");
+                        }
+                        writeMoves(nrOfDisks, writer);
+                }
+            }
+        }
+    }
+
+    private long moveCount(int nrOfDisks) {
+        return variant.moveCount(nrOfDisks, nrOfPegs, source, destination);
+    }
+
+    /**
+     * The checksum of the classic solution is computed in parallel; the Frame-Stewart solution and
+     * the solutions of the restricted variants are enumerated sequentially.
+     */
+    private long checksum(int nrOfDisks) {
+        if (nrOfPegs == 3 && variant == Variant.CLASSIC) {
+            return new ParallelMoveGenerator().statistics(nrOfDisks, source, destination).getChecksum();
+        }
+
+        MoveSource moves = createMoveSource(nrOfDisks);
+        long checksum = 0;
+        long moveIndex = 0;
+        int move;
+        while ((move = moves.poll()) != MoveSource.NO_MOVE) {
+            checksum += Move.hash(++moveIndex, move);
+        }
+        return checksum;
+    }
+
+    private void writeMoves(int nrOfDisks, MoveTextWriter writer) throws IOException {
+        MoveSource moves = createMoveSource(nrOfDisks);
+        int move;
+        while ((move = moves.poll()) != MoveSource.NO_MOVE) {
+            writer.write(move);
+        }
+    }
+
+    private void writeMoveLog(int nrOfDisks) throws IOException {
+        int encoding = nrOfPegs == 3 ? MoveLog.ENCODING_PAIR : MoveLog.ENCODING_DIRECTED;
+        try (MoveLogWriter writer = new MoveLogWriter(outputFile, encoding, nrOfDisks, nrOfPegs, source, destination)) {
+            MoveSource moves = createMoveSource(nrOfDisks);
+            int move;
+            while ((move = moves.poll()) != MoveSource.NO_MOVE) {
+                writer.append(Move.from(move), Move.to(move));
+            }
+        }
+    }
+
+    /**
+     * The moves are taken from the cache if there is one and the solution fits in it; larger
+     * solutions are always enumerated.
+     */
+    private MoveSource createMoveSource(int nrOfDisks) {
+        if (cache != null) {
+            SolutionCache.Key key = new SolutionCache.Key(nrOfDisks, nrOfPegs, source, destination, variant);
+            if (cache.fits(key)) {
+                return cache.get(key).moveSource();
+            }
+        }
+        return variant.createMoveSource(nrOfDisks, nrOfPegs, source, destination);
+    }
+}
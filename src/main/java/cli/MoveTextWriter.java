@@ -0,0 +1,85 @@
+package cli;
+
+import solver.Move;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes moves as text, one move per line: "disk from to", the disk numbered from 0 for the
+ * smallest one. The lines are encoded directly into a direct buffer that is written to the
+ * channel when it is full, so no strings are created per move.
+ */
+public class MoveTextWriter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_LINE_LENGTH = 9;       // "dd pp pp\n"
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    public MoveTextWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * @param move the encoded move
+     */
+    public void write(int move) throws IOException {
+        if (buffer.remaining() < MAX_LINE_LENGTH) {
+            flush();
+        }
+        putNumber(Move.disk(move));
+        buffer.put((byte) ' ');
+        putNumber(Move.from(move));
+        buffer.put((byte) ' ');
+        putNumber(Move.to(move));
+        buffer.put((byte) '\n');
+    }
+
+    /**
+     * Writes a line of text, e.g. a comment that separates the solutions of several puzzles.
+     */
+    public void writeLine(String line) throws IOException {
+        flush();
+        for (int i = 0; i < line.length(); i++) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) line.charAt(i));
+        }
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put((byte) '\n');
+    }
+
+    /**
+     * Writes the buffered lines to the channel.
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Flushes the buffered lines; the channel is not closed.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    /**
+     * Writes a number below 100: disks and pegs never have more than 2 digits.
+     */
+    private void putNumber(int number) {
+        if (number >= 10) {
+            buffer.put((byte) ('0' + number / 10));
+        }
+        buffer.put((byte) ('0' + number % 10));
+    }
+}
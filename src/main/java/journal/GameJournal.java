@@ -0,0 +1,430 @@
+package journal;
+
+import solver.Move;
+import solver.PegState;
+import solver.Variant;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+
+/**
+ * A write-ahead journal of the moves of a manual game, so that a game can be resumed after the
+ * application died. It consists of two files:
+ *
+ * - a snapshot of the game: the pegs, the number of moves and the time of the game, replaced
+ *   atomically (written to a temporary file that is renamed) every SNAPSHOT_INTERVAL moves;
+ * - the journal of the moves made since the snapshot: a 16 byte header followed by one byte per
+ *   move (see Move.packPegs). A zero byte, which is never a move, is followed by the elapsed
+ *   time of the game in nanoseconds (8 bytes, little endian).
+ *
+ * Every move is written to the file right after it is made, so it survives a crash of the
+ * application; the file is forced to the disk (fsync) once per FORCE_BATCH moves or FORCE_INTERVAL,
+ * together with a time mark, which bounds what an operating system crash can lose. Both files carry
+ * the generation of the snapshot: a journal of another generation was left behind by a crash right
+ * after a snapshot, and its moves are already part of the snapshot. A game is recovered from the
+ * snapshot and the moves of the journal that are complete and legal, so it takes at most
+ * SNAPSHOT_INTERVAL moves to replay, however long the game.
+ *
+ * The files are written by a single background thread, shared by all the journals, so that the
+ * game never waits for the disk: begin, append and discard only queue their work. The methods that
+ * read the files or close the journal wait until the queued work is done, so they see every move
+ * that was appended before. A write that fails ends the journaling of the game; the failure is
+ * reported by the next call to append or close.
+ */
+public class GameJournal {
+    public static final int SNAPSHOT_INTERVAL = 4096;
+    private static final int FORCE_BATCH = 32;                          // Moves written between two fsyncs at most
+    private static final long FORCE_INTERVAL = 1_000_000_000L;          // Nanoseconds between two fsyncs at most
+    private static final int JOURNAL_MAGIC = 0x4C4A4E48;                // "HNJL" read as a little endian int
+    private static final int SNAPSHOT_MAGIC = 0x4E534E48;               // "HNSN" read as a little endian int
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int SNAPSHOT_HEADER_SIZE = 40;
+    private static final byte TIME_MARK = 0;
+
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "towers-of-hanoi-journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path snapshotPath;
+    private final Path journalPath;
+    // The fields below are only used on the thread that calls the journal
+    private boolean journaling;                     // Set by begin and cleared by close and discard
+    private AtomicReference<IOException> failure = new AtomicReference<>();     // The first failed write of the game;
+                                                                                // every game gets its own
+
+    // The fields below are only used on the writer thread
+    private FileChannel channel;                    // The open journal, null if no game is being journaled
+    private PegState state;                         // The state after the journaled moves
+    private Variant variant;
+    private long startMillis;
+    private long generation;                        // The generation of the current snapshot
+    private long nrOfMoves;                         // The number of moves of the game
+    private int movesSinceSnapshot;
+    private int movesSinceForce;
+    private long lastForce;                         // The System.nanoTime of the last fsync
+    private final ByteBuffer record = ByteBuffer.allocate(2 + Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * @param directory the directory of the journal and the snapshot
+     */
+    public GameJournal(Path directory) {
+        this.snapshotPath = directory.resolve("game.snapshot");
+        this.journalPath = directory.resolve("game.journal");
+    }
+
+    /**
+     * @return the journal in the directory of the application in the home folder of the user
+     */
+    public static GameJournal getDefault() {
+        return new GameJournal(Paths.get(System.getProperty("user.home"), ".towers-of-hanoi"));
+    }
+
+    /**
+     * @return true if a game that wasn't finished can be recovered
+     */
+    public boolean hasSavedGame() {
+        try {
+            return await(() -> Files.exists(snapshotPath));
+        } catch (IOException ex) {
+            // Interrupted while the queued work was done: tell from the files as they are
+            return Files.exists(snapshotPath);
+        }
+    }
+
+    /**
+     * Starts journaling a game, replacing any saved game. The files are written in the background.
+     *
+     * @param initialState the state of the game; it is copied
+     * @param variant the rules of the game
+     * @param nrOfMoves the number of moves already made, 0 for a new game
+     * @param elapsedNanos the duration of the game so far
+     * @param startMillis the start of the game, in milliseconds since the epoch
+     */
+    public void begin(PegState initialState, Variant variant, long nrOfMoves, long elapsedNanos, long startMillis) {
+        if (initialState.getNrOfPegs() > 16) {
+            throw new IllegalArgumentException("The journal supports at most 16 pegs");
+        }
+
+        PegState copy = new PegState(initialState.getNrOfPegs());
+        copy.copyFrom(initialState);
+        journaling = true;
+        failure = new AtomicReference<>();
+        submit(() -> {
+            closeChannel();
+            this.state = copy;
+            this.variant = variant;
+            this.nrOfMoves = nrOfMoves;
+            this.startMillis = startMillis;
+
+            // A random generation, so that the journal of a previous game is never taken for this one
+            Files.createDirectories(snapshotPath.toAbsolutePath().getParent());
+            channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            snapshot(ThreadLocalRandom.current().nextLong(), elapsedNanos);
+        });
+    }
+
+    /**
+     * Appends a move that has been made. The move is not validated, since the game already did.
+     * It is written in the background.
+     *
+     * @param from the source peg
+     * @param to the destination peg
+     * @param elapsedNanos the duration of the game after the move
+     * @throws IOException if an earlier write of the journal failed
+     */
+    public void append(int from, int to, long elapsedNanos) throws IOException {
+        if (!journaling) {
+            throw new IllegalStateException("No game is being journaled");
+        }
+        IOException failure = this.failure.get();
+        if (failure != null) {
+            throw failure;
+        }
+        submit(() -> write(from, to, elapsedNanos));
+    }
+
+    /**
+     * Writes a move to the journal, on the writer thread.
+     */
+    private void write(int from, int to, long elapsedNanos) throws IOException {
+        state.move(from, to);
+        nrOfMoves++;
+
+        record.clear();
+        record.put(Move.packPegs(from, to));
+        movesSinceForce++;
+        long now = System.nanoTime();
+        boolean force = movesSinceForce >= FORCE_BATCH || now - lastForce >= FORCE_INTERVAL;
+        if (force) {
+            record.put(TIME_MARK).putLong(elapsedNanos);
+        }
+        record.flip();
+        write(record);
+
+        if (++movesSinceSnapshot >= SNAPSHOT_INTERVAL) {
+            snapshot(generation + 1, elapsedNanos);
+        } else if (force) {
+            channel.force(false);
+            movesSinceForce = 0;
+            lastForce = now;
+        }
+    }
+
+    /**
+     * Replaces the snapshot with the current state and starts an empty journal of the new generation.
+     */
+    private void snapshot(long newGeneration, long elapsedNanos) throws IOException {
+        ByteBuffer snapshot = ByteBuffer.allocate(SNAPSHOT_HEADER_SIZE + state.getNrOfPegs() * Long.BYTES + Integer.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        snapshot.putInt(SNAPSHOT_MAGIC);
+        snapshot.put((byte) VERSION);
+        snapshot.put((byte) state.getNrOfDisks());
+        snapshot.put((byte) state.getNrOfPegs());
+        snapshot.put((byte) variant.ordinal());
+        snapshot.putLong(newGeneration);
+        snapshot.putLong(nrOfMoves);
+        snapshot.putLong(elapsedNanos);
+        snapshot.putLong(startMillis);
+        for (int peg = 0; peg < state.getNrOfPegs(); peg++) {
+            snapshot.putLong(state.getPeg(peg));
+        }
+        snapshot.putInt(checksum(snapshot, snapshot.position()));
+        snapshot.flip();
+
+        // The snapshot replaces the previous one at once; until the journal has been restarted,
+        // its generation tells that its moves are part of the snapshot
+        Path temporary = Files.createTempFile(snapshotPath.toAbsolutePath().getParent(), "game", ".tmp");
+        try (FileChannel snapshotChannel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            while (snapshot.hasRemaining()) {
+                snapshotChannel.write(snapshot);
+            }
+            snapshotChannel.force(true);
+        }
+        Files.move(temporary, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(JOURNAL_MAGIC);
+        header.put((byte) VERSION);
+        header.position(8);
+        header.putLong(newGeneration);
+        header.flip();
+        channel.truncate(0);
+        channel.position(0);
+        write(header);
+        channel.force(true);
+
+        generation = newGeneration;
+        movesSinceSnapshot = 0;
+        movesSinceForce = 0;
+        lastForce = System.nanoTime();
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Forces the journal to the disk and closes it, once the queued moves are written; the game
+     * can still be recovered.
+     *
+     * @throws IOException if a write of the journal failed
+     */
+    public void close() throws IOException {
+        journaling = false;
+        await(() -> {
+            closeChannel();
+            return null;
+        });
+        IOException failure = this.failure.get();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            try {
+                channel.force(false);
+            } finally {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Closes the journal and deletes the saved game in the background, e.g. once the game is
+     * finished or abandoned. If the files can't be deleted, the game is still offered to be resumed.
+     */
+    public void discard() {
+        journaling = false;
+        WRITER.execute(() -> {
+            try {
+                try {
+                    closeChannel();
+                } finally {
+                    Files.deleteIfExists(snapshotPath);
+                    Files.deleteIfExists(journalPath);
+                }
+            } catch (IOException ex) {
+                // Nothing is left to report it to; a game that could not be deleted can still be resumed
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the saved game from the snapshot and the moves of the journal. A journal whose
+     * last record is incomplete, or which contains a move that isn't legal, is read up to that
+     * record.
+     *
+     * @return the saved game, or null if there is none or the snapshot can't be read
+     * @throws IOException if the files can't be read
+     */
+    public SavedGame recover() throws IOException {
+        return await(this::read);
+    }
+
+    private SavedGame read() throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return null;
+        }
+
+        ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(snapshotPath)).order(ByteOrder.LITTLE_ENDIAN);
+        if (snapshot.limit() < SNAPSHOT_HEADER_SIZE + Integer.BYTES || snapshot.getInt(0) != SNAPSHOT_MAGIC
+                || snapshot.get(4) != VERSION) {
+            return null;
+        }
+        int nrOfDisks = snapshot.get(5) & 0xFF;
+        int nrOfPegs = snapshot.get(6);
+        int variantIndex = snapshot.get(7);
+        int size = SNAPSHOT_HEADER_SIZE + nrOfPegs * Long.BYTES;
+        if (nrOfPegs < 3 || nrOfPegs > 16 || variantIndex < 0 || variantIndex >= Variant.values().length
+                || snapshot.limit() != size + Integer.BYTES || snapshot.getInt(size) != checksum(snapshot, size)) {
+            return null;
+        }
+
+        long snapshotGeneration = snapshot.getLong(8);
+        long moves = snapshot.getLong(16);
+        long elapsedNanos = snapshot.getLong(24);
+        long start = snapshot.getLong(32);
+        if (nrOfDisks < 1 || nrOfDisks > PegState.MAX_DISKS) {
+            return null;
+        }
+
+        // Every disk has to be on exactly one peg
+        int[] pegOfDisk = new int[nrOfDisks];
+        long seen = 0;
+        for (int peg = 0; peg < nrOfPegs; peg++) {
+            long disks = snapshot.getLong(SNAPSHOT_HEADER_SIZE + peg * Long.BYTES);
+            if ((disks & seen) != 0) {
+                return null;
+            }
+            seen |= disks;
+            for (long rest = disks; rest != 0; rest &= rest - 1) {
+                pegOfDisk[Long.numberOfTrailingZeros(rest)] = peg;
+            }
+        }
+        if (seen != PegState.allDisks(nrOfDisks)) {
+            return null;
+        }
+        PegState recovered = new PegState(nrOfPegs);
+        recovered.setConfiguration(pegOfDisk, nrOfDisks);
+        Variant savedVariant = Variant.values()[variantIndex];
+
+        // Replay the tail of the journal, if it belongs to the snapshot
+        ByteBuffer journal = Files.exists(journalPath)
+                ? ByteBuffer.wrap(Files.readAllBytes(journalPath)).order(ByteOrder.LITTLE_ENDIAN)
+                : ByteBuffer.allocate(0);
+        if (journal.limit() >= HEADER_SIZE && journal.getInt(0) == JOURNAL_MAGIC && journal.get(4) == VERSION
+                && journal.getLong(8) == snapshotGeneration) {
+            journal.position(HEADER_SIZE);
+            while (journal.hasRemaining()) {
+                int code = journal.get() & 0xFF;
+                if (code == TIME_MARK) {
+                    if (journal.remaining() < Long.BYTES) {
+                        break;
+                    }
+                    elapsedNanos = journal.getLong();
+                    continue;
+                }
+
+                int from = Move.packedFrom(code);
+                int to = Move.packedTo(code);
+                if (from >= nrOfPegs || to >= nrOfPegs || !recovered.canMove(from, to)) {
+                    break;
+                }
+                recovered.move(from, to);
+                moves++;
+            }
+        }
+
+        return new SavedGame(recovered, savedVariant, moves, elapsedNanos, start);
+    }
+
+    /**
+     * An operation on the files, run on the writer thread.
+     */
+    private interface FileTask {
+        void run() throws IOException;
+    }
+
+    /**
+     * Queues a write of the current game; once a write of the game has failed, the following ones are skipped.
+     */
+    private void submit(FileTask task) {
+        AtomicReference<IOException> failure = this.failure;
+        WRITER.execute(() -> {
+            if (failure.get() != null) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (IOException ex) {
+                failure.set(ex);
+            }
+        });
+    }
+
+    /**
+     * Runs a task on the writer thread, after the queued writes, and waits for its result.
+     */
+    private static <T> T await(Callable<T> task) throws IOException {
+        try {
+            return WRITER.submit(task).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the journal");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private static int checksum(ByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, length);
+        return (int) crc.getValue();
+    }
+}
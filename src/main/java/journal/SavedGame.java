@@ -0,0 +1,55 @@
+package journal;
+
+import solver.PegState;
+import solver.Variant;
+
+/**
+ * A game recovered from a {@link GameJournal}: the state of the towers after the last journaled
+ * move, and what is needed to continue the game where it was left.
+ */
+public class SavedGame {
+    private final PegState state;
+    private final Variant variant;
+    private final long nrOfMoves;           // The number of moves made before the game was interrupted
+    private final long elapsedNanos;        // The duration of the game, as of the last time mark of the journal
+    private final long startMillis;         // The start of the game, in milliseconds since the epoch
+
+    SavedGame(PegState state, Variant variant, long nrOfMoves, long elapsedNanos, long startMillis) {
+        this.state = state;
+        this.variant = variant;
+        this.nrOfMoves = nrOfMoves;
+        this.elapsedNanos = elapsedNanos;
+        this.startMillis = startMillis;
+    }
+
+    public int getNrOfDisks() {
+        return state.getNrOfDisks();
+    }
+
+    public int getNrOfPegs() {
+        return state.getNrOfPegs();
+    }
+
+    /**
+     * @return the state of the towers; it belongs to the caller
+     */
+    public PegState getState() {
+        return state;
+    }
+
+    public Variant getVariant() {
+        return variant;
+    }
+
+    public long getNrOfMoves() {
+        return nrOfMoves;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+}
@@ -0,0 +1,188 @@
+package metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * The metrics of a running instance, registered as a platform MBean under {@link #OBJECT_NAME}.
+ * The hot paths only increment lock free counters. The EWMA of the move rate is advanced by a
+ * sampler thread once per RATE_TICK_SECONDS, so it doesn't depend on how often the MBean is read;
+ * the percentiles of the frame times are computed when the MBean is read.
+ */
+public class HanoiMetrics implements HanoiMetricsMBean {
+    public static final String OBJECT_NAME = "towers.of.hanoi:type=Metrics";
+    private static final double RATE_TIME_CONSTANT_SECONDS = 5.0;      // The moves per second are smoothed over ~5 seconds
+    private static final long RATE_TICK_SECONDS = 1;                    // The interval between two samples of the move rate
+
+    private static final HanoiMetrics INSTANCE = new HanoiMetrics();
+
+    private final LongAdder movesApplied = new LongAdder();
+    private final LongAdder framesRendered = new LongAdder();
+    private final LongAdder activeSessions = new LongAdder();
+    private final LatencyHistogram frameTimes = new LatencyHistogram();    // Time between two frames, in nanoseconds
+    private volatile IntSupplier queueDepth = () -> 0;                      // The number of moves waiting to be played
+    private volatile int nrOfDisks;
+
+    // The state of the EWMA of the move rate, only updated by the sampler
+    private volatile double movesPerSecond;
+    private long lastRateSample = -1;
+    private long lastRateMoves;
+
+    private HanoiMetrics() {
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "towers-of-hanoi-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::sampleMoveRate, 0, RATE_TICK_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * This function returns the metrics of this instance, registering the MBean on first use.
+     * If the MBean can't be registered the metrics are still recorded, but not exposed.
+     *
+     * @return the metrics of this instance
+     */
+    public static HanoiMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException ex) {
+            // Registered by another class loader; this instance is not exposed
+        } catch (JMException | SecurityException ex) {
+            System.out.println("Could not register the metrics MBean: " + ex.getMessage());
+        }
+    }
+
+    public void recordMove() {
+        movesApplied.increment();
+    }
+
+    public void recordMoves(int nrOfMoves) {
+        movesApplied.add(nrOfMoves);
+    }
+
+    /**
+     * Records a rendered frame.
+     *
+     * @param frameNanos the time since the previous frame, in nanoseconds
+     */
+    public void recordFrame(long frameNanos) {
+        framesRendered.increment();
+        frameTimes.record(frameNanos);
+    }
+
+    public void sessionStarted() {
+        activeSessions.increment();
+    }
+
+    public void sessionEnded() {
+        activeSessions.decrement();
+    }
+
+    /**
+     * @param queueDepth reports the number of moves waiting to be played, or null if there is no queue
+     */
+    public void setQueueDepth(IntSupplier queueDepth) {
+        this.queueDepth = queueDepth != null ? queueDepth : () -> 0;
+    }
+
+    public void setNrOfDisks(int nrOfDisks) {
+        this.nrOfDisks = nrOfDisks;
+    }
+
+    @Override
+    public long getMovesApplied() {
+        return movesApplied.sum();
+    }
+
+    /**
+     * @return the smoothed number of moves per second, as of the last sample
+     */
+    @Override
+    public double getMovesPerSecond() {
+        return movesPerSecond;
+    }
+
+    /**
+     * This function updates the exponentially weighted moving average of the move rate with the
+     * moves applied since the previous sample, weighting the new sample by the time that has
+     * passed, in case the sampler was delayed. Called by the sampler only.
+     */
+    private synchronized void sampleMoveRate() {
+        long now = System.nanoTime();
+        long moves = movesApplied.sum();
+
+        if (lastRateSample >= 0 && now > lastRateSample) {
+            double seconds = (now - lastRateSample) / 1e9;
+            double rate = (moves - lastRateMoves) / seconds;
+            double alpha = 1 - Math.exp(-seconds / RATE_TIME_CONSTANT_SECONDS);
+            movesPerSecond += alpha * (rate - movesPerSecond);
+        }
+        lastRateSample = now;
+        lastRateMoves = moves;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    @Override
+    public long getFramesRendered() {
+        return framesRendered.sum();
+    }
+
+    @Override
+    public long getFrameTimeP50() {
+        return frameTimeAt(50);
+    }
+
+    @Override
+    public long getFrameTimeP90() {
+        return frameTimeAt(90);
+    }
+
+    @Override
+    public long getFrameTimeP99() {
+        return frameTimeAt(99);
+    }
+
+    @Override
+    public long getFrameTimeMax() {
+        return frameTimeAt(100);
+    }
+
+    @Override
+    public long getActiveSessions() {
+        return activeSessions.sum();
+    }
+
+    @Override
+    public int getNrOfDisks() {
+        return nrOfDisks;
+    }
+
+    @Override
+    public synchronized void reset() {
+        movesApplied.reset();
+        framesRendered.reset();
+        frameTimes.reset();
+        movesPerSecond = 0;
+        lastRateSample = -1;
+    }
+
+    private long frameTimeAt(double percentile) {
+        return TimeUnit.NANOSECONDS.toMicros(frameTimes.getValueAtPercentile(percentile));
+    }
+}
@@ -0,0 +1,32 @@
+package metrics;
+
+/**
+ * The management interface of {@link HanoiMetrics}, as shown by jconsole or queried with jcmd.
+ * The frame times are in microseconds.
+ */
+public interface HanoiMetricsMBean {
+    long getMovesApplied();
+
+    double getMovesPerSecond();
+
+    int getQueueDepth();
+
+    long getFramesRendered();
+
+    long getFrameTimeP50();
+
+    long getFrameTimeP90();
+
+    long getFrameTimeP99();
+
+    long getFrameTimeMax();
+
+    long getActiveSessions();
+
+    int getNrOfDisks();
+
+    /**
+     * Clears the counters and the frame times; the active sessions and the gauges are kept.
+     */
+    void reset();
+}
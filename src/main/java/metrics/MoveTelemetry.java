@@ -0,0 +1,52 @@
+package metrics;
+
+/**
+ * Records how a player makes the moves of a manual session: the think time, from the end of the
+ * previous drag (or the start or resumption of the session) until a disk is picked up, and the drag duration,
+ * from picking a disk up until it is dropped. Both are kept in histograms, so recording doesn't
+ * allocate. All the methods are called on the FX thread.
+ */
+public class MoveTelemetry {
+    private final SessionClock clock;
+    private final LatencyHistogram thinkTimes = new LatencyHistogram();
+    private final LatencyHistogram dragTimes = new LatencyHistogram();
+    private long lastDrop;              // Session time of the end of the last drag
+    private long pickUp = -1;           // Session time at which the current drag started, -1 if no disk is dragged
+
+    /**
+     * @param clock the clock of the session; the times are measured while it is running, and the
+     *              first think time from its current time, e.g. when a game is resumed
+     */
+    public MoveTelemetry(SessionClock clock) {
+        this.clock = clock;
+        this.lastDrop = clock.getElapsedNanos();
+    }
+
+    /**
+     * Records the think time; called when a disk is picked up.
+     */
+    public void diskPickedUp() {
+        pickUp = clock.getElapsedNanos();
+        thinkTimes.record(pickUp - lastDrop);
+    }
+
+    /**
+     * Records the drag duration; called when a disk is dropped, whether or not the move was legal.
+     */
+    public void diskDropped() {
+        if (pickUp < 0) {
+            return;
+        }
+        lastDrop = clock.getElapsedNanos();
+        dragTimes.record(lastDrop - pickUp);
+        pickUp = -1;
+    }
+
+    public LatencyHistogram getThinkTimes() {
+        return thinkTimes;
+    }
+
+    public LatencyHistogram getDragTimes() {
+        return dragTimes;
+    }
+}
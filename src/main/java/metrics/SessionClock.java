@@ -0,0 +1,71 @@
+package metrics;
+
+/**
+ * A monotonic clock measuring the duration of a game session, based on System.nanoTime, so it is
+ * not affected by changes of the wall clock. The clock can be paused and resumed; the time while
+ * paused is not counted. It is written on the FX thread and may be read from any thread.
+ */
+public class SessionClock {
+    private volatile long elapsedBeforeStart;       // The time counted before the last start, in nanoseconds
+    private volatile long startTime;                // The time of the last start
+    private volatile boolean running;
+
+    /**
+     * Starts or resumes the clock; it has no effect if the clock is running.
+     */
+    public void start() {
+        if (!running) {
+            startTime = System.nanoTime();
+            running = true;
+        }
+    }
+
+    /**
+     * Pauses the clock; it has no effect if the clock is not running.
+     */
+    public void pause() {
+        if (running) {
+            elapsedBeforeStart += System.nanoTime() - startTime;
+            running = false;
+        }
+    }
+
+    /**
+     * Stops the clock and sets the elapsed time back to 0.
+     */
+    public void reset() {
+        running = false;
+        elapsedBeforeStart = 0;
+    }
+
+    /**
+     * Stops the clock and sets the elapsed time, e.g. to continue a game that was interrupted.
+     *
+     * @param elapsedNanos the time counted so far, in nanoseconds
+     */
+    public void setElapsedNanos(long elapsedNanos) {
+        if (elapsedNanos < 0) {
+            throw new IllegalArgumentException("The elapsed time can't be negative");
+        }
+        running = false;
+        elapsedBeforeStart = elapsedNanos;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return the time the clock has been running, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return running ? elapsedBeforeStart + System.nanoTime() - startTime : elapsedBeforeStart;
+    }
+
+    /**
+     * @return the time the clock has been running, in whole seconds
+     */
+    public long getElapsedSeconds() {
+        return getElapsedNanos() / 1_000_000_000L;
+    }
+}
@@ -0,0 +1,88 @@
+package metrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * An append only file of session summaries: a plain sequence of fixed size records (see
+ * {@link SessionSummary}), so summaries of many runs can be concatenated and aggregated by
+ * reading the file sequentially. A record that was only partly written, e.g. because the
+ * application was killed, is followed by the records of the next runs; every record starts with
+ * a magic and ends with a checksum, so the reader skips the partial record and finds them.
+ */
+public class SessionLog {
+    private final Path path;
+
+    public SessionLog(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * @return the log in the directory of the application in the home folder of the user
+     */
+    public static SessionLog getDefault() {
+        return new SessionLog(Paths.get(System.getProperty("user.home"), ".towers-of-hanoi", "sessions.bin"));
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Appends a summary to the log, creating the file and its directory if needed. The record is
+     * written with a single write, so concurrent writers don't interleave their records.
+     *
+     * @param summary the summary to be appended
+     * @throws IOException if the log can't be written
+     */
+    public void append(SessionSummary summary) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(SessionSummary.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        summary.write(record);
+        record.flip();
+
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        }
+    }
+
+    /**
+     * Reads all the complete summaries of the log, in the order in which they were appended. The
+     * bytes that don't belong to a valid record are skipped one at a time, until one starts.
+     *
+     * @param consumer receives every summary
+     * @throws IOException if the log can't be read
+     */
+    public void forEach(Consumer<SessionSummary> consumer) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(SessionSummary.SIZE * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(buffer) > 0 || buffer.position() >= SessionSummary.SIZE) {
+                buffer.flip();
+                while (buffer.remaining() >= SessionSummary.SIZE) {
+                    if (SessionSummary.isRecord(buffer)) {
+                        consumer.accept(SessionSummary.read(buffer));
+                    } else {
+                        buffer.position(buffer.position() + 1);
+                    }
+                }
+                buffer.compact();
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package metrics;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * The summary of a game session, as stored by {@link SessionLog}. Every summary is a fixed size,
+ * 80 byte little endian record:
+ *
+ *   offset  size  field
+ *   0       4     magic: "HSUM"
+ *   4       1     number of disks
+ *   5       1     number of towers
+ *   6       1     flags: FINISHED
+ *   7       1     record version
+ *   8       8     start of the session, in milliseconds since the epoch
+ *   16      8     duration of the session, in nanoseconds
+ *   24      8     number of moves made
+ *   32      8     optimal number of moves
+ *   40      8     median think time, in nanoseconds
+ *   48      8     99th percentile of the think time
+ *   56      8     median drag duration, in nanoseconds
+ *   64      8     99th percentile of the drag duration
+ *   72      4     reserved
+ *   76      4     CRC32 of the bytes 0 to 75
+ *
+ * The magic and the checksum make every record self-delimiting: a reader can tell a record from
+ * the remains of one that was only partly written, and find the next record after them.
+ */
+public class SessionSummary {
+    public static final int MAGIC = 0x4D555348;     // "HSUM", little endian
+    public static final int VERSION = 2;
+    public static final int SIZE = 80;
+    public static final int FINISHED = 1;
+    private static final int CHECKSUM_OFFSET = SIZE - 4;
+
+    private final int nrOfDisks;
+    private final int nrOfTowers;
+    private final boolean finished;         // True if the player solved the puzzle
+    private final long startMillis;
+    private final long durationNanos;
+    private final long nrOfMoves;
+    private final long optimalMoves;
+    private final long thinkTimeP50;
+    private final long thinkTimeP99;
+    private final long dragTimeP50;
+    private final long dragTimeP99;
+
+    public SessionSummary(int nrOfDisks, int nrOfTowers, boolean finished, long startMillis, long durationNanos,
+                          long nrOfMoves, long optimalMoves, long thinkTimeP50, long thinkTimeP99,
+                          long dragTimeP50, long dragTimeP99) {
+        this.nrOfDisks = nrOfDisks;
+        this.nrOfTowers = nrOfTowers;
+        this.finished = finished;
+        this.startMillis = startMillis;
+        this.durationNanos = durationNanos;
+        this.nrOfMoves = nrOfMoves;
+        this.optimalMoves = optimalMoves;
+        this.thinkTimeP50 = thinkTimeP50;
+        this.thinkTimeP99 = thinkTimeP99;
+        this.dragTimeP50 = dragTimeP50;
+        this.dragTimeP99 = dragTimeP99;
+    }
+
+    /**
+     * This function summarizes a manual session from its clock and the recorded move times.
+     *
+     * @param nrOfDisks the number of disks
+     * @param nrOfTowers the number of towers
+     * @param finished true if the player solved the puzzle
+     * @param startMillis the start of the session, in milliseconds since the epoch
+     * @param clock the clock of the session
+     * @param telemetry the think and drag times of the session
+     * @param nrOfMoves the number of moves made
+     * @param optimalMoves the optimal number of moves
+     * @return the summary of the session
+     */
+    public static SessionSummary of(int nrOfDisks, int nrOfTowers, boolean finished, long startMillis, SessionClock clock,
+                                    MoveTelemetry telemetry, long nrOfMoves, long optimalMoves) {
+        LatencyHistogram thinkTimes = telemetry.getThinkTimes();
+        LatencyHistogram dragTimes = telemetry.getDragTimes();
+        return new SessionSummary(nrOfDisks, nrOfTowers, finished, startMillis, clock.getElapsedNanos(),
+                nrOfMoves, optimalMoves,
+                thinkTimes.getValueAtPercentile(50), thinkTimes.getValueAtPercentile(99),
+                dragTimes.getValueAtPercentile(50), dragTimes.getValueAtPercentile(99));
+    }
+
+    /**
+     * Writes the record at the position of the buffer, which must be little endian.
+     *
+     * @param buffer the buffer, with at least SIZE bytes remaining
+     */
+    public void write(ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.putInt(MAGIC);
+        buffer.put((byte) nrOfDisks);
+        buffer.put((byte) nrOfTowers);
+        buffer.put((byte) (finished ? FINISHED : 0));
+        buffer.put((byte) VERSION);
+        buffer.putLong(startMillis);
+        buffer.putLong(durationNanos);
+        buffer.putLong(nrOfMoves);
+        buffer.putLong(optimalMoves);
+        buffer.putLong(thinkTimeP50);
+        buffer.putLong(thinkTimeP99);
+        buffer.putLong(dragTimeP50);
+        buffer.putLong(dragTimeP99);
+        buffer.putInt(0);
+        buffer.putInt(checksum(buffer, start));
+    }
+
+    /**
+     * Checks whether a complete record starts at the position of the buffer, without moving it.
+     *
+     * @param buffer the buffer, little endian, with at least SIZE bytes remaining
+     * @return true if the magic, the version and the checksum of the record are right
+     */
+    public static boolean isRecord(ByteBuffer buffer) {
+        int start = buffer.position();
+        return buffer.getInt(start) == MAGIC && buffer.get(start + 7) == VERSION
+                && buffer.getInt(start + CHECKSUM_OFFSET) == checksum(buffer, start);
+    }
+
+    /**
+     * Reads a record at the position of the buffer, which must be little endian.
+     *
+     * @param buffer the buffer, with at least SIZE bytes remaining
+     * @return the summary
+     */
+    public static SessionSummary read(ByteBuffer buffer) {
+        if (!isRecord(buffer)) {
+            throw new IllegalArgumentException("Invalid session record at " + buffer.position());
+        }
+        buffer.getInt();
+        int nrOfDisks = Byte.toUnsignedInt(buffer.get());
+        int nrOfTowers = Byte.toUnsignedInt(buffer.get());
+        boolean finished = (buffer.get() & FINISHED) != 0;
+        buffer.get();
+        SessionSummary summary = new SessionSummary(nrOfDisks, nrOfTowers, finished, buffer.getLong(), buffer.getLong(),
+                buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+        buffer.getLong();       // The reserved bytes and the checksum
+        return summary;
+    }
+
+    /**
+     * @return the CRC32 of the bytes of the record that starts at the given index, up to its checksum
+     */
+    private static int checksum(ByteBuffer buffer, int start) {
+        ByteBuffer fields = buffer.duplicate();
+        fields.limit(start + CHECKSUM_OFFSET).position(start);
+        CRC32 crc = new CRC32();
+        crc.update(fields);
+        return (int) crc.getValue();
+    }
+
+    public int getNrOfDisks() {
+        return nrOfDisks;
+    }
+
+    public int getNrOfTowers() {
+        return nrOfTowers;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getNrOfMoves() {
+        return nrOfMoves;
+    }
+
+    public long getOptimalMoves() {
+        return optimalMoves;
+    }
+
+    public long getThinkTimeP50() {
+        return thinkTimeP50;
+    }
+
+    public long getThinkTimeP99() {
+        return thinkTimeP99;
+    }
+
+    public long getDragTimeP50() {
+        return dragTimeP50;
+    }
+
+    public long getDragTimeP99() {
+        return dragTimeP99;
+    }
+}
@@ -3,19 +3,46 @@ package model;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.paint.Color;
-import java.util.Comparator;
+import solver.Variant;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class DataModel {
     private Disk currentDisk;                       // The disk that is currently being dragged
     private int nrOfDisks;                          // The total number of disks
+    private long nrOfMoves;                         // The number of moves made since the disks were created
+    private boolean gameFinished;                   // Set by the move that gathers all the disks on a tower other than the left one
+    private Variant variant = Variant.CLASSIC;      // The rules of the moves the player may make
+    private final List<DiskMoveListener> diskMoveListeners = new ArrayList<>();
+    private final Tower[] towers;                   // The towers, from left to right
     private Tower leftTower;
     private Tower middleTower;
     private Tower rightTower;
 
     public DataModel() {
-        leftTower = new Tower();
-        middleTower = new Tower();
-        rightTower = new Tower();
+        this(3);
+    }
+
+    /**
+     * Creates a model with the given number of towers. The left, middle and right towers
+     * are the first three towers.
+     *
+     * @param nrOfTowers the number of towers, at least 3
+     */
+    public DataModel(int nrOfTowers) {
+        if (nrOfTowers < 3) {
+            throw new IllegalArgumentException("At least 3 towers are required");
+        }
+
+        towers = new Tower[nrOfTowers];
+        for (int i = 0; i < nrOfTowers; i++) {
+            towers[i] = new Tower();
+        }
+
+        leftTower = towers[0];
+        middleTower = towers[1];
+        rightTower = towers[2];
     }
 
     public void setNrOfDisks(int nrOfDisks) {
@@ -38,6 +65,53 @@ public class DataModel {
         return rightTower;
     }
 
+    public long getNrOfMoves() {
+        return nrOfMoves;
+    }
+
+    public Variant getVariant() {
+        return variant;
+    }
+
+    /**
+     * @param variant the rules of the moves; the restricted variants are played with 3 towers
+     */
+    public void setVariant(Variant variant) {
+        if (!variant.supportsPegs(towers.length)) {
+            throw new IllegalArgumentException("The " + variant.getDisplayName() + " variant is played with 3 towers");
+        }
+        this.variant = variant;
+    }
+
+    /**
+     * Writes the index of the tower of every disk into the given array. The disks are
+     * indexed from the smallest one: disk i is the disk with size i + 1.
+     *
+     * @param towerOfDisk the array that receives the tower index of every disk
+     */
+    public void getConfiguration(int[] towerOfDisk) {
+        for (int i = 0; i < towers.length; i++) {
+            for (Disk disk : towers[i].getDisksOnTower()) {
+                towerOfDisk[disk.getSize() - 1] = i;
+            }
+        }
+    }
+
+    public int getNrOfTowers() {
+        return towers.length;
+    }
+
+    /**
+     * @param index the index of the tower, from left to right: 0 for the left, 1 for the middle and 2 for the right tower
+     * @return the tower with the given index
+     */
+    public Tower getTower(int index) {
+        if (index < 0 || index >= towers.length) {
+            throw new IllegalArgumentException("Invalid tower index: " + index);
+        }
+        return towers[index];
+    }
+
     public Disk getCurrentDisk() {
         return currentDisk;
     }
@@ -62,6 +136,8 @@ public class DataModel {
         int offset = 20;                              // Used to assign the offsets of the disks; will be used for translating the
                                                       // disks on the Y axis
         this.nrOfDisks = nrOfDisks;
+        this.nrOfMoves = 0;
+        this.gameFinished = false;
 
         ObservableList<Disk> diskList = FXCollections.observableArrayList();
 
@@ -90,14 +166,126 @@ public class DataModel {
             offset = offset + 20;
         }
 
-        // Only the top disk should be draggable when the game starts
+        // Only the top disk should be draggable when the game starts; the disks
+        // were created from the bottom of the rod, as the tower lists them
         diskList.get(nrOfDisks - 1).setDraggable(true);
 
-        // Sort the list by width, so that the disk with the greatest width
-        // gets to be at the bottom of the rod
-        diskList.sort(Comparator.comparingInt((Disk o) -> (int) o.getWidth()));
-
         // At startup, only the left tower shall have disks
         this.leftTower.setDisksOnTower(diskList);
     }
-}
\ No newline at end of file
+
+    /**
+     * Places the disks on the towers according to the given configuration, e.g. to jump to any
+     * move of a solution without making the moves in between. Only the top disk of every tower
+     * is draggable afterwards. This is not a move: the listeners are not notified and the number
+     * of moves is kept.
+     *
+     * @param towerOfDisk the index of the tower of every disk; disk i is the disk with size i + 1
+     */
+    public void setConfiguration(int[] towerOfDisk) {
+        Disk[] disksBySize = new Disk[nrOfDisks];
+        for (Tower tower : towers) {
+            for (Disk disk : tower.getDisksOnTower()) {
+                disksBySize[disk.getSize() - 1] = disk;
+                disk.setDraggable(false);
+            }
+        }
+
+        // The disks are added from the largest one, so every list goes from the bottom to the top
+        List<ObservableList<Disk>> disksOnTowers = new ArrayList<>();
+        for (int i = 0; i < towers.length; i++) {
+            disksOnTowers.add(FXCollections.observableArrayList());
+        }
+        for (int i = nrOfDisks - 1; i >= 0; i--) {
+            disksOnTowers.get(towerOfDisk[i]).add(disksBySize[i]);
+        }
+
+        gameFinished = false;
+        for (int i = 0; i < towers.length; i++) {
+            ObservableList<Disk> disksOnTower = disksOnTowers.get(i);
+            towers[i].setDisksOnTower(disksOnTower);
+            if (!disksOnTower.isEmpty()) {
+                disksOnTower.get(disksOnTower.size() - 1).setDraggable(true);
+            }
+            gameFinished |= i != 0 && disksOnTower.size() == nrOfDisks;
+        }
+    }
+
+    /**
+     * Continues a game that was interrupted: places the disks as they were and restores the
+     * number of moves made, without notifying the listeners. The disks must have been created by
+     * createDiskList.
+     *
+     * @param towerOfDisk the index of the tower of every disk; disk i is the disk with size i + 1
+     * @param nrOfMoves the number of moves made before the game was interrupted
+     */
+    public void resume(int[] towerOfDisk, long nrOfMoves) {
+        setConfiguration(towerOfDisk);
+        this.nrOfMoves = nrOfMoves;
+    }
+
+    /**
+     * Moves the top disk of one tower on top of another one, if the move is legal. Both towers
+     * are updated before the listeners are notified, once, about the move; positioning the disk
+     * is up to the view.
+     *
+     * @param from the index of the tower from which the top disk is being moved
+     * @param to the index of the tower where the top disk will be placed
+     * @return true if the move was legal and has been made, false otherwise
+     */
+    public boolean moveTop(int from, int to) {
+        Tower source = getTower(from);
+        Tower destination = getTower(to);
+
+        if (from == to || source.isEmpty() || !destination.canAccept(source.top())) {
+            return false;
+        }
+
+        Disk topDisk = source.pop();
+        destination.push(topDisk);
+
+        // The game is finished once all the disks are gathered on a tower other than the left one
+        gameFinished = to != 0 && destination.size() == nrOfDisks;
+        nrOfMoves++;
+
+        for (DiskMoveListener listener : diskMoveListeners) {
+            listener.diskMoved(topDisk, from, to);
+        }
+        return true;
+    }
+
+    public void addDiskMoveListener(DiskMoveListener listener) {
+        diskMoveListeners.add(listener);
+    }
+
+    public void removeDiskMoveListener(DiskMoveListener listener) {
+        diskMoveListeners.remove(listener);
+    }
+
+    /**
+     * This function checks if the player may move the top disk of one tower on top of another
+     * one: the move has to follow the rules of the variant, and the disk has to be smaller than
+     * the top disk of the destination. Moves made by moveTop are only checked for the sizes, so
+     * that they can also undo moves of the restricted variants.
+     *
+     * @param from the index of the tower from which the top disk would be moved
+     * @param to the index of the tower where the top disk would be placed
+     * @return true if the move is allowed
+     */
+    public boolean isMoveAllowed(int from, int to) {
+        Tower source = getTower(from);
+        return variant.isAllowed(from, to) && !source.isEmpty() && getTower(to).canAccept(source.top());
+    }
+
+    /**
+     * The game is finished if all the disks are on one
+     * of the towers, other than the left one. The flag is
+     * updated by every move, so this is a constant time check.
+     *
+     * @return true if the game is finished
+     *         false otherwise
+     */
+    public boolean isGameFinished() {
+        return gameFinished;
+    }
+}
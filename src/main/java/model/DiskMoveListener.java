@@ -0,0 +1,14 @@
+package model;
+
+/**
+ * Is notified by the DataModel once per move, after both towers have been updated.
+ */
+@FunctionalInterface
+public interface DiskMoveListener {
+    /**
+     * @param disk the disk that was moved
+     * @param from the index of the tower the disk was taken from
+     * @param to the index of the tower the disk was placed on
+     */
+    void diskMoved(Disk disk, int from, int to);
+}
@@ -4,7 +4,10 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
 public class Tower {
-    private ObservableList<Disk> disksOnTower;      // A list of the disks that are present on one of the 3 towers (left, middle, right)
+    private ObservableList<Disk> disksOnTower;      // A list of the disks that are present on one of the towers, from bottom to top;
+                                                    // it is a view that is kept in sync with the 'disks' bitmask
+    private long disks;                             // The authoritative state of the tower: bit (size - 1) is set if the disk
+                                                    // with that size is on the tower, so the top disk is the lowest set bit
     private int currentOffset;                      // The current offset on the Y axis for the disks that are currently on the tower
     private boolean isSource;                       // This flag specifies whether the current disk is being dragged from this tower
 
@@ -24,12 +27,102 @@ public class Tower {
         return disksOnTower;
     }
 
+    /**
+     * Replaces the disks on the tower; the list must be sorted from the bottom to the top of the tower.
+     *
+     * @param disksOnTower the disks that will be on the tower
+     */
     public void setDisksOnTower(ObservableList<Disk> disksOnTower) {
         if (disksOnTower != null) {
             this.disksOnTower = disksOnTower;
+
+            // Rebuild the bitmask from the list
+            disks = 0;
+            for (Disk disk : disksOnTower) {
+                disks |= bit(disk.getSize());
+            }
+            currentOffset = size() * 20;
         }
     }
 
+    /**
+     * @return the bitmask of the disks on the tower: bit (size - 1) is set for every disk on the tower
+     */
+    public long getDisks() {
+        return disks;
+    }
+
+    /**
+     * @return the top disk, or null if the tower is empty
+     */
+    public Disk getTopDisk() {
+        return disks == 0 ? null : disksOnTower.get(disksOnTower.size() - 1);
+    }
+
+    /**
+     * @return the size of the top disk, or 0 if the tower is empty
+     */
+    public int top() {
+        return disks == 0 ? 0 : Long.numberOfTrailingZeros(disks) + 1;
+    }
+
+    public int size() {
+        return Long.bitCount(disks);
+    }
+
+    public boolean isEmpty() {
+        return disks == 0;
+    }
+
+    /**
+     * @param size the size of the disk to be placed on the tower
+     * @return true if the tower is empty or its top disk is bigger than the given size
+     */
+    public boolean canAccept(int size) {
+        return disks == 0 || size < top();
+    }
+
+    /**
+     * Places a disk on top of the tower. The disk becomes the only draggable disk of the tower.
+     * The disk is appended to the end of the list, so no other element is shifted.
+     *
+     * @param disk the disk to be placed
+     * @throws IllegalStateException if the disk is bigger than the top disk of the tower
+     */
+    public void push(Disk disk) {
+        if (!canAccept(disk.getSize())) {
+            throw new IllegalStateException("Disk " + disk.getSize() + " cannot be placed on disk " + top());
+        }
+
+        if (disks != 0) {
+            getTopDisk().setDraggable(false);
+        }
+        disks |= bit(disk.getSize());
+        disksOnTower.add(disk);
+        disk.setDraggable(true);
+        currentOffset = size() * 20;
+    }
+
+    /**
+     * Removes the top disk of the tower. The disk below it, if any, becomes draggable.
+     *
+     * @return the disk that was removed
+     * @throws IllegalStateException if the tower is empty
+     */
+    public Disk pop() {
+        if (disks == 0) {
+            throw new IllegalStateException("The tower is empty");
+        }
+
+        disks &= disks - 1;
+        Disk topDisk = disksOnTower.remove(disksOnTower.size() - 1);
+        if (disks != 0) {
+            getTopDisk().setDraggable(true);
+        }
+        currentOffset = size() * 20;
+        return topDisk;
+    }
+
     public boolean isSource() {
         return isSource;
     }
@@ -37,4 +130,8 @@ public class Tower {
     public void setSource(boolean source) {
         isSource = source;
     }
+
+    private static long bit(int size) {
+        return 1L << (size - 1);
+    }
 }
@@ -2,6 +2,7 @@ module Towers.of.Hanoi {
     requires javafx.controls;
     requires javafx.fxml;
     requires org.apache.commons.lang3;
+    requires java.management;
 
     opens view.automatic to javafx.fxml;
     opens view.manual to javafx.fxml;
@@ -12,4 +13,5 @@ module Towers.of.Hanoi {
     exports view.automatic;
     exports view.manual;
     exports view.menu;
+    exports metrics;
 }
\ No newline at end of file
@@ -0,0 +1,146 @@
+package server;
+
+import solver.PegState;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A headless game: the state of the pegs and the number of moves, like the DataModel of the
+ * desktop game but without any JavaFX object. The state is only accessed by the tasks of the
+ * session, which run one at a time, in the order in which they were submitted, on a shared
+ * executor: at most one thread works on a session at any time, without locks, while many
+ * sessions run in parallel. If the executor rejects a run, because it has been shut down, the
+ * session is closed and its queued tasks are rejected instead of being left waiting forever.
+ */
+public class GameSession {
+    private static final int MAX_TASKS_PER_RUN = 64;       // Tasks run before the thread is given back to the executor
+
+    private final long id;
+    private final int target;                               // The peg on which the disks have to be gathered
+    private final PegState state;
+    private long nrOfMoves;
+
+    private final Executor executor;
+    private final Queue<Task> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();    // Set while a run is queued or running
+    private volatile long lastAccess;                       // System.nanoTime of the last submitted task
+    private volatile boolean closed;
+
+    GameSession(long id, int nrOfDisks, int nrOfPegs, int source, int target, Executor executor) {
+        this.id = id;
+        this.target = target;
+        this.state = new PegState(nrOfPegs, nrOfDisks, source);
+        this.executor = executor;
+        this.lastAccess = System.nanoTime();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Makes a move; only called by the tasks of the session.
+     */
+    MoveResult move(int from, int to) {
+        int nrOfPegs = state.getNrOfPegs();
+        if (from < 0 || to < 0 || from >= nrOfPegs || to >= nrOfPegs || !state.canMove(from, to)) {
+            return MoveResult.ILLEGAL;
+        }
+        state.move(from, to);
+        nrOfMoves++;
+        return state.isComplete(target) ? MoveResult.SOLVED : MoveResult.APPLIED;
+    }
+
+    /**
+     * Copies the state; only called by the tasks of the session.
+     */
+    PegState copyState() {
+        PegState copy = new PegState(state.getNrOfPegs());
+        copy.copyFrom(state);
+        return copy;
+    }
+
+    /**
+     * Only called by the tasks of the session.
+     */
+    long getNrOfMoves() {
+        return nrOfMoves;
+    }
+
+    /**
+     * A task of the session.
+     */
+    interface Task extends Runnable {
+        /**
+         * Called instead of run() if the task will never run, because the executor has been shut down.
+         */
+        void reject();
+    }
+
+    /**
+     * Queues a task of the session and makes sure that a run of the session is scheduled.
+     *
+     * @param task the task
+     */
+    void submit(Task task) {
+        lastAccess = System.nanoTime();
+        tasks.add(task);
+        if (scheduled.compareAndSet(false, true)) {
+            schedule();
+        }
+    }
+
+    /**
+     * Runs the queued tasks, up to MAX_TASKS_PER_RUN so that busy sessions don't starve the
+     * others, and schedules another run if tasks are left.
+     */
+    private void run() {
+        Task task;
+        int count = 0;
+        while (count < MAX_TASKS_PER_RUN && (task = tasks.poll()) != null) {
+            task.run();
+            count++;
+        }
+
+        scheduled.set(false);
+        // A task may have been queued after the last poll, by a thread that saw the flag still set
+        if (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+            schedule();
+        }
+    }
+
+    /**
+     * Hands a run to the executor; only called by the thread that set the scheduled flag.
+     */
+    private void schedule() {
+        try {
+            executor.execute(this::run);
+        } catch (RejectedExecutionException ex) {
+            // The session can't run anymore, and neither can the tasks queued by other threads meanwhile
+            closed = true;
+            do {
+                Task task;
+                while ((task = tasks.poll()) != null) {
+                    task.reject();
+                }
+                scheduled.set(false);
+            } while (!tasks.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,239 @@
+package server;
+
+import solver.FrameStewart;
+import solver.PegState;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Hosts many independent headless games for remote players and bots. Moves can be sent to any
+ * session from any thread; the moves of a session are applied one at a time in the order in which
+ * they were received (see {@link GameSession}), while different sessions are served in parallel by
+ * a shared executor: virtual threads when the runtime provides them, otherwise a pool with a
+ * thread per processor. Sessions that haven't received anything for the idle timeout are evicted.
+ */
+public class GameSessionManager implements AutoCloseable {
+    private final ExecutorService executor;
+    private final ScheduledExecutorService evictor;
+    private final long idleTimeoutNanos;
+    private final ConcurrentHashMap<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final LongAdder movesApplied = new LongAdder();
+    private final LongAdder sessionsEvicted = new LongAdder();
+
+    /**
+     * Creates a manager with the default executor, which evicts the sessions that are idle for
+     * the given time.
+     *
+     * @param idleTimeout the time after which an idle session is evicted
+     * @param unit the unit of the timeout
+     */
+    public GameSessionManager(long idleTimeout, TimeUnit unit) {
+        this(createDefaultExecutor(), idleTimeout, unit);
+    }
+
+    /**
+     * @param executor runs the tasks of the sessions; it is shut down with the manager
+     * @param idleTimeout the time after which an idle session is evicted
+     * @param unit the unit of the timeout
+     */
+    public GameSessionManager(ExecutorService executor, long idleTimeout, TimeUnit unit) {
+        if (idleTimeout <= 0) {
+            throw new IllegalArgumentException("The idle timeout must be positive");
+        }
+        this.executor = executor;
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "towers-of-hanoi-session-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Check twice per timeout, so a session is evicted at most 1.5 timeouts after its last use
+        long period = Math.max(1, idleTimeoutNanos / 2);
+        evictor.scheduleAtFixedRate(this::evictIdleSessions, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * This function returns an executor that starts a virtual thread per task if the runtime
+     * supports them (Java 21 and later), or else a fixed pool with a thread per processor.
+     *
+     * @return the executor
+     */
+    static ExecutorService createDefaultExecutor() {
+        try {
+            // Looked up by reflection, so the application still runs on Java 11
+            Object executor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return (ExecutorService) executor;
+        } catch (ReflectiveOperationException ex) {
+            int nrOfThreads = Runtime.getRuntime().availableProcessors();
+            AtomicLong threadNumber = new AtomicLong();
+            return Executors.newFixedThreadPool(nrOfThreads, runnable -> {
+                Thread thread = new Thread(runnable, "towers-of-hanoi-session-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Creates a session with all the disks on the first peg, to be gathered on the last one.
+     *
+     * @param nrOfDisks the number of disks, between 1 and 64
+     * @param nrOfPegs the number of pegs, between 3 and FrameStewart.MAX_PEGS
+     * @return the id of the new session
+     */
+    public long createSession(int nrOfDisks, int nrOfPegs) {
+        if (nrOfDisks < 1 || nrOfDisks > PegState.MAX_DISKS) {
+            throw new IllegalArgumentException("The number of disks must be between 1 and " + PegState.MAX_DISKS);
+        }
+        if (nrOfPegs < 3 || nrOfPegs > FrameStewart.MAX_PEGS) {
+            throw new IllegalArgumentException("The number of pegs must be between 3 and " + FrameStewart.MAX_PEGS);
+        }
+
+        long id = nextId.getAndIncrement();
+        sessions.put(id, new GameSession(id, nrOfDisks, nrOfPegs, 0, nrOfPegs - 1, executor));
+        return id;
+    }
+
+    /**
+     * Sends a move to a session. The moves sent to a session are applied in the order in which
+     * this function was called.
+     *
+     * @param sessionId the id of the session
+     * @param from the source peg
+     * @param to the destination peg
+     * @return the result of the move, once it has been applied
+     */
+    public CompletableFuture<MoveResult> move(long sessionId, int from, int to) {
+        return submit(sessionId, MoveResult.NO_SESSION, session -> {
+            MoveResult result = session.move(from, to);
+            if (result != MoveResult.ILLEGAL) {
+                movesApplied.increment();
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Reads the state of a session, after all the moves that were sent before.
+     *
+     * @param sessionId the id of the session
+     * @return a copy of the state, or null if the session doesn't exist
+     */
+    public CompletableFuture<PegState> getState(long sessionId) {
+        return submit(sessionId, null, GameSession::copyState);
+    }
+
+    /**
+     * Reads the number of moves made in a session, after all the moves that were sent before.
+     *
+     * @param sessionId the id of the session
+     * @return the number of moves, or -1 if the session doesn't exist
+     */
+    public CompletableFuture<Long> getNrOfMoves(long sessionId) {
+        return submit(sessionId, -1L, GameSession::getNrOfMoves);
+    }
+
+    /**
+     * Closes a session; the moves that were already sent are still applied.
+     *
+     * @param sessionId the id of the session
+     * @return true if the session existed
+     */
+    public boolean closeSession(long sessionId) {
+        GameSession session = sessions.remove(sessionId);
+        if (session == null) {
+            return false;
+        }
+        session.close();
+        return true;
+    }
+
+    /**
+     * Evicts the sessions that haven't received anything for the idle timeout. This is done
+     * periodically by the manager, but it can also be called directly.
+     *
+     * @return the number of evicted sessions
+     */
+    public int evictIdleSessions() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Iterator<GameSession> iterator = sessions.values().iterator(); iterator.hasNext(); ) {
+            GameSession session = iterator.next();
+            if (now - session.getLastAccess() > idleTimeoutNanos) {
+                iterator.remove();
+                session.close();
+                evicted++;
+            }
+        }
+        sessionsEvicted.add(evicted);
+        return evicted;
+    }
+
+    public int getNrOfSessions() {
+        return sessions.size();
+    }
+
+    public long getMovesApplied() {
+        return movesApplied.sum();
+    }
+
+    public long getSessionsEvicted() {
+        return sessionsEvicted.sum();
+    }
+
+    /**
+     * Stops the eviction and the executor; the tasks that were already submitted are still run.
+     * A task that reaches a session after the executor was shut down gets the result of a missing
+     * session.
+     */
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+        executor.shutdown();
+        sessions.clear();
+    }
+
+    /**
+     * Queues a task on a session.
+     *
+     * @param sessionId the id of the session
+     * @param noSession the result if the session doesn't exist, or can't run anymore
+     * @param task the task, which runs on the thread that currently owns the session
+     * @return the result of the task
+     */
+    private <T> CompletableFuture<T> submit(long sessionId, T noSession, Function<GameSession, T> task) {
+        GameSession session = sessions.get(sessionId);
+        if (session == null || session.isClosed()) {
+            return CompletableFuture.completedFuture(noSession);
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        session.submit(new GameSession.Task() {
+            @Override
+            public void run() {
+                try {
+                    result.complete(task.apply(session));
+                } catch (RuntimeException ex) {
+                    result.completeExceptionally(ex);
+                }
+            }
+
+            @Override
+            public void reject() {
+                result.complete(noSession);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,11 @@
+package server;
+
+/**
+ * The outcome of a move sent to a game session.
+ */
+public enum MoveResult {
+    APPLIED,        // The move was legal and has been made
+    SOLVED,         // The move was legal and gathered all the disks on the target peg
+    ILLEGAL,        // The move was rejected; the state is unchanged
+    NO_SESSION      // The session doesn't exist, or has been closed or evicted
+}
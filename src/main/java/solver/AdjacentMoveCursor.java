@@ -0,0 +1,141 @@
+package solver;
+
+/**
+ * Produces the moves of the adjacent variant of the three peg puzzle lazily, one move per
+ * {@link #poll()}: a disk may only be moved between the middle peg and one of the outer pegs.
+ * Moving n disks from one outer peg to the other takes 3^n - 1 moves, and between the middle
+ * peg and an outer peg (3^n - 1) / 2 moves. Like {@link FrameStewartCursor}, the recursion is
+ * unrolled into an explicit stack of primitive frames, so the cursor needs O(disks) memory.
+ */
+public class AdjacentMoveCursor implements MoveSource {
+    public static final int MAX_DISKS = 40;         // 3^40 - 1 is the longest solution that fits in an unsigned long
+    private static final int MIDDLE = 1;
+
+    // The frames of the unrolled recursion: move the disks 0 to `disk` from `from` to `to`
+    private final int[] disk = new int[MAX_DISKS];
+    private final int[] from = new int[MAX_DISKS];
+    private final int[] to = new int[MAX_DISKS];
+    private final int[] phase = new int[MAX_DISKS];
+    private int depth;
+
+    private final long nrOfMoves;
+    private long position;                  // The number of moves returned so far
+
+    /**
+     * @param nrOfDisks the number of disks, between 0 and MAX_DISKS
+     * @param source the peg on which the disks are initially placed
+     * @param destination the peg on which the disks will be placed at the end
+     */
+    public AdjacentMoveCursor(int nrOfDisks, int source, int destination) {
+        this.nrOfMoves = moveCount(nrOfDisks, source, destination);
+        if (nrOfDisks > 0) {
+            push(nrOfDisks - 1, source, destination);
+        }
+    }
+
+    /**
+     * @param nrOfDisks the number of disks, between 0 and MAX_DISKS
+     * @param source the peg on which the disks are initially placed
+     * @param destination the peg on which the disks will be placed at the end
+     * @return the number of moves of the solution (unsigned)
+     */
+    public static long moveCount(int nrOfDisks, int source, int destination) {
+        if (nrOfDisks < 0 || nrOfDisks > MAX_DISKS) {
+            throw new IllegalArgumentException("The number of disks must be between 0 and " + MAX_DISKS);
+        }
+        if (source == destination || source < 0 || destination < 0 || source > 2 || destination > 2) {
+            throw new IllegalArgumentException("Invalid source or destination peg");
+        }
+
+        long powerOf3 = 1;
+        for (int i = 0; i < nrOfDisks; i++) {
+            powerOf3 *= 3;
+        }
+        // 3^40 - 1 doesn't fit in a signed long, so the halving has to be unsigned
+        return source == MIDDLE || destination == MIDDLE ? Long.divideUnsigned(powerOf3 - 1, 2) : powerOf3 - 1;
+    }
+
+    @Override
+    public int poll() {
+        while (depth > 0) {
+            int top = depth - 1;
+            int d = disk[top];
+            int a = from[top];
+            int b = to[top];
+
+            if (a == MIDDLE || b == MIDDLE) {
+                // Between adjacent pegs: the smaller disks wait on the third peg
+                int c = 3 - a - b;
+                switch (phase[top]++) {
+                    case 0:
+                        pushSmaller(d, a, c);
+                        break;
+                    case 1:
+                        position++;
+                        return Move.encode(d, a, b);
+                    case 2:
+                        pushSmaller(d, c, b);
+                        break;
+                    default:
+                        depth--;
+                }
+            } else {
+                // Between the outer pegs: the disk stops on the middle peg, while the smaller
+                // disks go to the destination, back to the source and to the destination again
+                switch (phase[top]++) {
+                    case 0:
+                        pushSmaller(d, a, b);
+                        break;
+                    case 1:
+                        position++;
+                        return Move.encode(d, a, MIDDLE);
+                    case 2:
+                        pushSmaller(d, b, a);
+                        break;
+                    case 3:
+                        position++;
+                        return Move.encode(d, MIDDLE, b);
+                    case 4:
+                        pushSmaller(d, a, b);
+                        break;
+                    default:
+                        depth--;
+                }
+            }
+        }
+        return NO_MOVE;
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return position == nrOfMoves;
+    }
+
+    /**
+     * @return the number of moves that have been returned so far (unsigned)
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    public long getNrOfMoves() {
+        return nrOfMoves;
+    }
+
+    /**
+     * Pushes the frame that moves the disks smaller than the given disk, if there are any.
+     */
+    private void pushSmaller(int d, int source, int destination) {
+        if (d > 0) {
+            push(d - 1, source, destination);
+        }
+    }
+
+    private void push(int d, int source, int destination) {
+        disk[depth] = d;
+        from[depth] = source;
+        to[depth] = destination;
+        phase[depth] = 0;
+        depth++;
+    }
+}
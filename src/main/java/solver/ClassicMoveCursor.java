@@ -0,0 +1,75 @@
+package solver;
+
+/**
+ * Produces the moves of the classic three peg solution one after the other, starting from any
+ * move index, forward or backward: played backward, every move of the solution is undone, from
+ * the last one made to the first. Every move is computed from its index with {@link MoveQuery},
+ * so the cursor only needs a few fields of state, whatever the number of disks.
+ */
+public class ClassicMoveCursor implements MoveSource {
+    private final int nrOfDisks;
+    private final int source;
+    private final int destination;
+    private final long nrOfMoves;       // The total number of moves of the solution (unsigned)
+    private final boolean backward;     // True if the moves are undone
+    private long position;              // The number of moves of the solution that have been made
+
+    public ClassicMoveCursor(int nrOfDisks, int source, int destination) {
+        this(nrOfDisks, source, destination, 0);
+    }
+
+    /**
+     * @param position the number of moves that have already been made; the first move returned is position + 1
+     */
+    public ClassicMoveCursor(int nrOfDisks, int source, int destination, long position) {
+        this(nrOfDisks, source, destination, position, false);
+    }
+
+    /**
+     * @param position the number of moves that have already been made
+     * @param backward true to undo the moves that have been made, starting with move position
+     */
+    public ClassicMoveCursor(int nrOfDisks, int source, int destination, long position, boolean backward) {
+        this.nrOfDisks = nrOfDisks;
+        this.source = source;
+        this.destination = destination;
+        this.nrOfMoves = HanoiSolver.moveCount(nrOfDisks);
+        this.position = position;
+        this.backward = backward;
+    }
+
+    @Override
+    public int poll() {
+        if (isExhausted()) {
+            return NO_MOVE;
+        }
+        if (backward) {
+            // Undo the last move that has been made
+            int move = MoveQuery.move(nrOfDisks, source, destination, position);
+            position--;
+            return Move.encode(Move.disk(move), Move.to(move), Move.from(move));
+        }
+        position++;
+        return MoveQuery.move(nrOfDisks, source, destination, position);
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return position == (backward ? 0 : nrOfMoves);
+    }
+
+    public boolean isBackward() {
+        return backward;
+    }
+
+    /**
+     * @return the number of moves of the solution that have been made (unsigned)
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    public long getNrOfMoves() {
+        return nrOfMoves;
+    }
+}
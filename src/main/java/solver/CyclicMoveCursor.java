@@ -0,0 +1,151 @@
+package solver;
+
+/**
+ * Produces the moves of the cyclic variant of the three peg puzzle lazily, one move per
+ * {@link #poll()}: a disk may only be moved clockwise, from peg 0 to 1, from 1 to 2 and from 2
+ * to 0. Moving n disks one peg clockwise takes Q(n) moves and two pegs clockwise R(n) moves,
+ * with Q(n) = 2 R(n - 1) + 1 and R(n) = 2 R(n - 1) + Q(n - 1) + 2. Like
+ * {@link FrameStewartCursor}, the recursion is unrolled into an explicit stack of primitive
+ * frames, so the cursor needs O(disks) memory.
+ */
+public class CyclicMoveCursor implements MoveSource {
+    public static final int MAX_DISKS = 44;         // R(44) is the longest solution that fits in an unsigned long
+
+    // The frames of the unrolled recursion: move the disks 0 to `disk` from `from` to `to`
+    private final int[] disk = new int[MAX_DISKS];
+    private final int[] from = new int[MAX_DISKS];
+    private final int[] to = new int[MAX_DISKS];
+    private final int[] phase = new int[MAX_DISKS];
+    private int depth;
+
+    private final long nrOfMoves;
+    private long position;                  // The number of moves returned so far
+
+    /**
+     * @param nrOfDisks the number of disks, between 0 and MAX_DISKS
+     * @param source the peg on which the disks are initially placed
+     * @param destination the peg on which the disks will be placed at the end
+     */
+    public CyclicMoveCursor(int nrOfDisks, int source, int destination) {
+        this.nrOfMoves = moveCount(nrOfDisks, source, destination);
+        if (nrOfDisks > 0) {
+            push(nrOfDisks - 1, source, destination);
+        }
+    }
+
+    /**
+     * @param nrOfDisks the number of disks, between 0 and MAX_DISKS
+     * @param source the peg on which the disks are initially placed
+     * @param destination the peg on which the disks will be placed at the end
+     * @return the number of moves of the solution (unsigned)
+     */
+    public static long moveCount(int nrOfDisks, int source, int destination) {
+        if (nrOfDisks < 0 || nrOfDisks > MAX_DISKS) {
+            throw new IllegalArgumentException("The number of disks must be between 0 and " + MAX_DISKS);
+        }
+        if (source == destination || source < 0 || destination < 0 || source > 2 || destination > 2) {
+            throw new IllegalArgumentException("Invalid source or destination peg");
+        }
+
+        long oneStep = 0;       // Q(n)
+        long twoSteps = 0;      // R(n)
+        for (int i = 0; i < nrOfDisks; i++) {
+            long nextOneStep = 2 * twoSteps + 1;
+            twoSteps = 2 * twoSteps + oneStep + 2;
+            oneStep = nextOneStep;
+        }
+        return destination == next(source) ? oneStep : twoSteps;
+    }
+
+    /**
+     * @param peg a peg
+     * @return the peg that follows it clockwise
+     */
+    public static int next(int peg) {
+        return peg == 2 ? 0 : peg + 1;
+    }
+
+    @Override
+    public int poll() {
+        while (depth > 0) {
+            int top = depth - 1;
+            int d = disk[top];
+            int a = from[top];
+            int b = to[top];
+            int c = 3 - a - b;
+
+            if (b == next(a)) {
+                // One step: the smaller disks go around, two steps, and come back one step
+                switch (phase[top]++) {
+                    case 0:
+                        pushSmaller(d, a, c);
+                        break;
+                    case 1:
+                        position++;
+                        return Move.encode(d, a, b);
+                    case 2:
+                        pushSmaller(d, c, b);
+                        break;
+                    default:
+                        depth--;
+                }
+            } else {
+                // Two steps: the disk stops on the third peg, while the smaller disks go to the
+                // destination, back to the source and to the destination again
+                switch (phase[top]++) {
+                    case 0:
+                        pushSmaller(d, a, b);
+                        break;
+                    case 1:
+                        position++;
+                        return Move.encode(d, a, c);
+                    case 2:
+                        pushSmaller(d, b, a);
+                        break;
+                    case 3:
+                        position++;
+                        return Move.encode(d, c, b);
+                    case 4:
+                        pushSmaller(d, a, b);
+                        break;
+                    default:
+                        depth--;
+                }
+            }
+        }
+        return NO_MOVE;
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return position == nrOfMoves;
+    }
+
+    /**
+     * @return the number of moves that have been returned so far (unsigned)
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    public long getNrOfMoves() {
+        return nrOfMoves;
+    }
+
+    /**
+     * Pushes the frame that moves the disks smaller than the given disk, if there are any.
+     */
+    private void pushSmaller(int d, int source, int destination) {
+        if (d > 0) {
+            push(d - 1, source, destination);
+        }
+    }
+
+    private void push(int d, int source, int destination) {
+        disk[depth] = d;
+        from[depth] = source;
+        to[depth] = destination;
+        phase[depth] = 0;
+        depth++;
+    }
+}
@@ -0,0 +1,73 @@
+package solver;
+
+/**
+ * The result of a breadth first search over all the configurations of the three peg puzzle,
+ * starting from one configuration: the number of configurations at every distance from it.
+ */
+public class ExplorationResult {
+    private final int nrOfDisks;
+    private final long start;
+    private final long[] statesAtDistance;      // The number of configurations at every distance
+    private final long farthestState;           // One of the configurations at the largest distance
+
+    ExplorationResult(int nrOfDisks, long start, long[] statesAtDistance, long farthestState) {
+        this.nrOfDisks = nrOfDisks;
+        this.start = start;
+        this.statesAtDistance = statesAtDistance;
+        this.farthestState = farthestState;
+    }
+
+    public int getNrOfDisks() {
+        return nrOfDisks;
+    }
+
+    /**
+     * @return the code of the configuration the search started from
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return the number of configurations at every distance from the start, indexed by distance
+     */
+    public long[] getStatesAtDistance() {
+        return statesAtDistance.clone();
+    }
+
+    /**
+     * @return the largest distance from the start to any configuration
+     */
+    public int getEccentricity() {
+        return statesAtDistance.length - 1;
+    }
+
+    /**
+     * @return the code of one of the configurations that are farthest from the start
+     */
+    public long getFarthestState() {
+        return farthestState;
+    }
+
+    /**
+     * @return the number of configurations that were reached
+     */
+    public long getNrOfStates() {
+        long total = 0;
+        for (long count : statesAtDistance) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @return the mean distance from the start to all the configurations
+     */
+    public double getMeanDistance() {
+        double sum = 0;
+        for (int distance = 0; distance < statesAtDistance.length; distance++) {
+            sum += (double) distance * statesAtDistance[distance];
+        }
+        return sum / getNrOfStates();
+    }
+}
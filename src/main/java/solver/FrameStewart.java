@@ -0,0 +1,83 @@
+package solver;
+
+/**
+ * Frame–Stewart numbers and split points for the puzzle with more than three pegs.
+ *
+ * To move n disks using p pegs, the top k disks are moved to an intermediate peg using all p pegs,
+ * the remaining n - k disks are moved to the destination using the other p - 1 pegs, and the k
+ * disks are moved on top of them using all p pegs again:
+ *
+ *   FS(n, p) = min over 1 <= k < n of 2 * FS(k, p) + FS(n - k, p - 1),   FS(n, 3) = 2^n - 1
+ *
+ * The table of move counts and optimal k values is computed once, for all (disks, pegs)
+ * combinations, and shared by every solver run; all lookups are O(1). Counts are unsigned and
+ * saturate at 2^64 - 1, which is only reached with 3 pegs and 64 disks.
+ */
+public final class FrameStewart {
+    public static final int MAX_PEGS = 16;
+
+    private static final long[][] MOVES = new long[PegState.MAX_DISKS + 1][MAX_PEGS + 1];
+    private static final int[][] SPLITS = new int[PegState.MAX_DISKS + 1][MAX_PEGS + 1];
+
+    static {
+        for (int disks = 0; disks <= PegState.MAX_DISKS; disks++) {
+            MOVES[disks][3] = HanoiSolver.moveCount(disks);
+            SPLITS[disks][3] = Math.max(disks - 1, 0);
+        }
+
+        for (int pegs = 4; pegs <= MAX_PEGS; pegs++) {
+            MOVES[1][pegs] = 1;
+            for (int disks = 2; disks <= PegState.MAX_DISKS; disks++) {
+                long best = -1L;
+                int bestSplit = 1;
+                for (int k = 1; k < disks; k++) {
+                    long moves = add(add(MOVES[k][pegs], MOVES[k][pegs]), MOVES[disks - k][pegs - 1]);
+                    if (Long.compareUnsigned(moves, best) < 0) {
+                        best = moves;
+                        bestSplit = k;
+                    }
+                }
+                MOVES[disks][pegs] = best;
+                SPLITS[disks][pegs] = bestSplit;
+            }
+        }
+    }
+
+    private FrameStewart() {
+    }
+
+    /**
+     * @param nrOfDisks the number of disks, between 0 and 64
+     * @param nrOfPegs the number of pegs, between 3 and MAX_PEGS
+     * @return the number of moves of the Frame–Stewart solution, as an unsigned long
+     */
+    public static long moveCount(int nrOfDisks, int nrOfPegs) {
+        check(nrOfDisks, nrOfPegs);
+        return MOVES[nrOfDisks][nrOfPegs];
+    }
+
+    /**
+     * @param nrOfDisks the number of disks, between 0 and 64
+     * @param nrOfPegs the number of pegs, between 3 and MAX_PEGS
+     * @return the number of top disks that are moved aside using all the pegs
+     */
+    public static int split(int nrOfDisks, int nrOfPegs) {
+        check(nrOfDisks, nrOfPegs);
+        return SPLITS[nrOfDisks][nrOfPegs];
+    }
+
+    private static long add(long a, long b) {
+        long sum = a + b;
+        // Saturate instead of wrapping around
+        return Long.compareUnsigned(sum, a) < 0 ? -1L : sum;
+    }
+
+    private static void check(int nrOfDisks, int nrOfPegs) {
+        if (nrOfDisks < 0 || nrOfDisks > PegState.MAX_DISKS) {
+            throw new IllegalArgumentException("The number of disks must be between 0 and " + PegState.MAX_DISKS);
+        }
+        if (nrOfPegs < 3 || nrOfPegs > MAX_PEGS) {
+            throw new IllegalArgumentException("The number of pegs must be between 3 and " + MAX_PEGS);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package solver;
+
+/**
+ * Produces the moves of the Frame–Stewart solution lazily, one move per {@link #poll()}. The
+ * recursion of the algorithm is unrolled into an explicit stack of primitive frames, so the
+ * cursor needs O(disks) memory and the first move is available immediately, however long the
+ * whole solution is.
+ */
+public class FrameStewartCursor implements MoveSource {
+    private static final int MAX_DEPTH = 2 * PegState.MAX_DISKS + FrameStewart.MAX_PEGS;
+
+    // The frames of the unrolled recursion: move the `disks` smallest disks starting at disk
+    // `firstDisk` from `from` to `to`, using the pegs in the bitmask `pegs`
+    private final int[] disks = new int[MAX_DEPTH];
+    private final int[] firstDisk = new int[MAX_DEPTH];
+    private final int[] from = new int[MAX_DEPTH];
+    private final int[] to = new int[MAX_DEPTH];
+    private final int[] pegs = new int[MAX_DEPTH];
+    private final int[] phase = new int[MAX_DEPTH];
+    private final int[] intermediate = new int[MAX_DEPTH];
+    private int depth;
+
+    private final long nrOfMoves;
+    private long position;                  // The number of moves returned so far
+
+    /**
+     * @param nrOfDisks the number of disks, between 0 and 64
+     * @param nrOfPegs the number of pegs, between 3 and FrameStewart.MAX_PEGS
+     * @param source the peg on which the disks are initially placed
+     * @param destination the peg on which the disks will be placed at the end
+     */
+    public FrameStewartCursor(int nrOfDisks, int nrOfPegs, int source, int destination) {
+        if (source == destination || source < 0 || destination < 0 || source >= nrOfPegs || destination >= nrOfPegs) {
+            throw new IllegalArgumentException("Invalid source or destination peg");
+        }
+        this.nrOfMoves = FrameStewart.moveCount(nrOfDisks, nrOfPegs);
+        push(nrOfDisks, 0, source, destination, (1 << nrOfPegs) - 1);
+    }
+
+    @Override
+    public int poll() {
+        while (depth > 0) {
+            int top = depth - 1;
+            int n = disks[top];
+
+            if (n == 0) {
+                depth--;
+                continue;
+            }
+            if (n == 1) {
+                // A single disk is moved directly
+                depth--;
+                position++;
+                return Move.encode(firstDisk[top], from[top], to[top]);
+            }
+
+            int availablePegs = pegs[top];
+            int k = FrameStewart.split(n, Integer.bitCount(availablePegs));
+
+            switch (phase[top]++) {
+                case 0:
+                    // Move the k smallest disks to an intermediate peg, using all the pegs
+                    int others = availablePegs & ~(1 << from[top]) & ~(1 << to[top]);
+                    intermediate[top] = Integer.numberOfTrailingZeros(others);
+                    push(k, firstDisk[top], from[top], intermediate[top], availablePegs);
+                    break;
+                case 1:
+                    // Move the other disks to the destination, without using the intermediate peg
+                    push(n - k, firstDisk[top] + k, from[top], to[top], availablePegs & ~(1 << intermediate[top]));
+                    break;
+                case 2:
+                    // Move the k smallest disks on top of them, using all the pegs
+                    push(k, firstDisk[top], intermediate[top], to[top], availablePegs);
+                    break;
+                default:
+                    depth--;
+            }
+        }
+        return NO_MOVE;
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return position == nrOfMoves;
+    }
+
+    /**
+     * @return the number of moves that have been returned so far (unsigned)
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    public long getNrOfMoves() {
+        return nrOfMoves;
+    }
+
+    private void push(int n, int first, int source, int destination, int availablePegs) {
+        disks[depth] = n;
+        firstDisk[depth] = first;
+        from[depth] = source;
+        to[depth] = destination;
+        pegs[depth] = availablePegs;
+        phase[depth] = 0;
+        depth++;
+    }
+}
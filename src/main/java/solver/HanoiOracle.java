@@ -0,0 +1,130 @@
+package solver;
+
+/**
+ * Optimal continuations for arbitrary legal configurations of the classic three peg puzzle,
+ * computed in O(disks) from the recursive characterisation of the shortest paths instead of
+ * searching the state space. Configurations are given as pegOfDisk arrays (the peg of every
+ * disk, indexed from the smallest disk); nothing is allocated.
+ *
+ * To gather all the disks on one target peg, every disk d that is not on its target has to be
+ * moved exactly once after the smaller disks have been gathered on the third peg, which costs
+ * 2^d moves; the target of the smaller disks changes accordingly, from the largest disk down.
+ *
+ * Between two arbitrary configurations only the largest disk m that differs matters: the smaller
+ * disks either get out of the way on the third peg so that m moves once, directly, or they go to
+ * m's target peg so that m moves twice, through the third peg. The shortest path is the cheaper
+ * of the two.
+ */
+public final class HanoiOracle {
+    private HanoiOracle() {
+    }
+
+    /**
+     * @param pegOfDisk the peg of every disk
+     * @param nrOfDisks the number of disks to be considered, from the smallest one
+     * @param target the peg on which the disks have to be gathered
+     * @return the minimum number of moves needed to gather the disks on the target peg (unsigned)
+     */
+    public static long distanceToPerfect(int[] pegOfDisk, int nrOfDisks, int target) {
+        long distance = 0;
+        for (int disk = nrOfDisks - 1; disk >= 0; disk--) {
+            int peg = pegOfDisk[disk];
+            if (peg != target) {
+                distance += 1L << disk;
+                // The smaller disks have to be gathered on the third peg first
+                target = 3 - peg - target;
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * @param pegOfDisk the peg of every disk
+     * @param nrOfDisks the number of disks to be considered, from the smallest one
+     * @param target the peg on which the disks have to be gathered
+     * @return the first move of the shortest path to gather the disks on the target peg, or
+     *         MoveSource.NO_MOVE if they are already there
+     */
+    public static int nextMoveToPerfect(int[] pegOfDisk, int nrOfDisks, int target) {
+        int move = MoveSource.NO_MOVE;
+        for (int disk = nrOfDisks - 1; disk >= 0; disk--) {
+            int peg = pegOfDisk[disk];
+            if (peg != target) {
+                // The smallest disk that is not on its target moves first: all the smaller
+                // disks are already gathered on the third peg
+                move = Move.encode(disk, peg, target);
+                target = 3 - peg - target;
+            }
+        }
+        return move;
+    }
+
+    /**
+     * @param from the peg of every disk in the start configuration
+     * @param to the peg of every disk in the goal configuration
+     * @param nrOfDisks the number of disks, at most 62
+     * @return the minimum number of moves from the start to the goal configuration
+     */
+    public static long distance(int[] from, int[] to, int nrOfDisks) {
+        int largest = largestDifferentDisk(from, to, nrOfDisks);
+        if (largest < 0) {
+            return 0;
+        }
+        return Math.min(directCost(from, to, largest), detourCost(from, to, largest));
+    }
+
+    /**
+     * @param from the peg of every disk in the start configuration
+     * @param to the peg of every disk in the goal configuration
+     * @param nrOfDisks the number of disks, at most 62
+     * @return the first move of a shortest path from the start to the goal configuration, or
+     *         MoveSource.NO_MOVE if the configurations are the same
+     */
+    public static int nextMove(int[] from, int[] to, int nrOfDisks) {
+        int largest = largestDifferentDisk(from, to, nrOfDisks);
+        if (largest < 0) {
+            return MoveSource.NO_MOVE;
+        }
+
+        int source = from[largest];
+        int destination = to[largest];
+        int third = 3 - source - destination;
+
+        // The smaller disks go to the peg where the largest disk isn't going next
+        int next = directCost(from, to, largest) <= detourCost(from, to, largest) ? destination : third;
+        int smallerDisksPeg = 3 - source - next;
+
+        int move = nextMoveToPerfect(from, largest, smallerDisksPeg);
+        return move != MoveSource.NO_MOVE ? move : Move.encode(largest, source, next);
+    }
+
+    /**
+     * The largest disk moves once: the smaller disks are gathered on the third peg and then
+     * spread out from there.
+     */
+    private static long directCost(int[] from, int[] to, int largest) {
+        int third = 3 - from[largest] - to[largest];
+        return distanceToPerfect(from, largest, third) + 1 + distanceToPerfect(to, largest, third);
+    }
+
+    /**
+     * The largest disk moves twice, through the third peg: the smaller disks are gathered on its
+     * target peg, moved as a tower to its source peg in between and spread out from there.
+     */
+    private static long detourCost(int[] from, int[] to, int largest) {
+        return distanceToPerfect(from, largest, to[largest]) + 1 + ((1L << largest) - 1) + 1
+                + distanceToPerfect(to, largest, from[largest]);
+    }
+
+    private static int largestDifferentDisk(int[] from, int[] to, int nrOfDisks) {
+        if (nrOfDisks > 62) {
+            throw new IllegalArgumentException("Distances between configurations are supported for up to 62 disks");
+        }
+        for (int disk = nrOfDisks - 1; disk >= 0; disk--) {
+            if (from[disk] != to[disk]) {
+                return disk;
+            }
+        }
+        return -1;
+    }
+}
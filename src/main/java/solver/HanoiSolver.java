@@ -0,0 +1,138 @@
+package solver;
+
+/**
+ * Headless solver for the classic three peg puzzle. It works on a {@link PegState} and does
+ * not depend on JavaFX, so it can be used to solve and verify big instances (up to 64 disks).
+ *
+ * The solver is the same iterative algorithm that is used by the automatic mode: the moves
+ * alternate between moving the smallest disk one step around a fixed cycle of the pegs and
+ * making the only legal move between the two other pegs. Nothing is allocated per move and all
+ * counters are 64 bit; for 64 disks they must be read as unsigned values.
+ */
+public final class HanoiSolver {
+    private HanoiSolver() {
+    }
+
+    /**
+     * @param nrOfDisks the number of disks, between 0 and 64
+     * @return 2^nrOfDisks - 1, as an unsigned long
+     */
+    public static long moveCount(int nrOfDisks) {
+        return PegState.allDisks(nrOfDisks);
+    }
+
+    /**
+     * Solves the puzzle on a three peg state that holds all of its disks on the source peg.
+     * The listener receives every move after it has been applied to the state.
+     *
+     * Pseudocode:
+     *
+     * 1. The smallest disk moves on the cycle source -> destination -> auxiliary if the number
+     *    of disks is odd, and on the cycle source -> auxiliary -> destination otherwise.
+     * 2. for k = 1 to 2^numDisks - 1:
+     *    a. if k is odd: move the smallest disk one step along its cycle.
+     *    b. if k is even: make the legal move between the two pegs that don't hold the smallest disk.
+     *
+     * @param state the state to be solved; it must have 3 pegs and all the disks on the source peg
+     * @param source the peg on which the disks are initially placed
+     * @param destination the peg on which the disks will be placed at the end
+     * @param listener receives every move, may be null
+     * @return the number of moves made, as an unsigned long
+     * @throws IllegalArgumentException if the state doesn't have 3 pegs, a peg is out of range,
+     *         the pegs are equal or the disks are not all on the source peg
+     */
+    public static long solve(PegState state, int source, int destination, MoveListener listener) {
+        if (state.getNrOfPegs() != 3) {
+            throw new IllegalArgumentException("The classic solver needs exactly 3 pegs");
+        }
+        if (source < 0 || source > 2 || destination < 0 || destination > 2) {
+            throw new IllegalArgumentException("The source and destination must be pegs between 0 and 2");
+        }
+        if (source == destination || !state.isComplete(source)) {
+            throw new IllegalArgumentException("All the disks must be on the source peg and the destination must differ from it");
+        }
+
+        int nrOfDisks = state.getNrOfDisks();
+        long nrOfMoves = moveCount(nrOfDisks);
+        if (nrOfMoves == 0) {
+            return 0;
+        }
+
+        int auxiliary = 3 - source - destination;
+
+        // The cycle of the smallest disk; swap the destination and the
+        // auxiliary if there is an even number of disks
+        int next0 = (nrOfDisks & 1) == 1 ? destination : auxiliary;
+        int next1 = (nrOfDisks & 1) == 1 ? auxiliary : destination;
+        int[] nextPeg = new int[3];
+        nextPeg[source] = next0;
+        nextPeg[next0] = next1;
+        nextPeg[next1] = source;
+
+        int smallestPeg = source;           // The peg that currently holds the smallest disk
+        long k = 0;
+
+        do {
+            k++;
+            if ((k & 1) == 1) {
+                // Move the smallest disk one step along its cycle
+                int to = nextPeg[smallestPeg];
+                state.move(smallestPeg, to);
+                if (listener != null) {
+                    listener.onMove(k, 0, smallestPeg, to);
+                }
+                smallestPeg = to;
+            } else {
+                // The only legal move that doesn't involve the smallest disk
+                int first = nextPeg[smallestPeg];
+                int second = nextPeg[first];
+                int from;
+                int to;
+                if (state.top(first) < state.top(second)) {
+                    from = first;
+                    to = second;
+                } else {
+                    from = second;
+                    to = first;
+                }
+                int disk = state.move(from, to);
+                if (listener != null) {
+                    listener.onMove(k, disk, from, to);
+                }
+            }
+        } while (k != nrOfMoves);
+
+        return k;
+    }
+
+    /**
+     * Solves the puzzle for the given number of disks and returns the order independent checksum
+     * of the solution (the sum of {@link Move#hash(long, int)} over all moves).
+     *
+     * @param nrOfDisks the number of disks, between 0 and 64
+     * @param source the peg on which the disks are initially placed
+     * @param destination the peg on which the disks will be placed at the end
+     * @return the checksum of the solution
+     */
+    public static long checksum(int nrOfDisks, int source, int destination) {
+        ChecksumListener checksum = new ChecksumListener();
+        solve(new PegState(3, nrOfDisks, source), source, destination, checksum);
+        return checksum.getChecksum();
+    }
+
+    /**
+     * Accumulates the checksum of the moves it receives.
+     */
+    public static class ChecksumListener implements MoveListener {
+        private long checksum;
+
+        @Override
+        public void onMove(long moveIndex, int disk, int from, int to) {
+            checksum += Move.hash(moveIndex, Move.encode(disk, from, to));
+        }
+
+        public long getChecksum() {
+            return checksum;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package solver;
+
+/**
+ * Helper functions for packing a single move into a primitive int, so that moves can be
+ * stored in arrays and buffers without allocating an object per move.
+ *
+ * Layout: bits 0-7 hold the disk (0 is the smallest disk), bits 8-15 hold the source peg
+ * and bits 16-23 hold the destination peg.
+ */
+public final class Move {
+    private Move() {
+    }
+
+    public static int encode(int disk, int from, int to) {
+        return disk | (from << 8) | (to << 16);
+    }
+
+    public static int disk(int move) {
+        return move & 0xFF;
+    }
+
+    public static int from(int move) {
+        return (move >>> 8) & 0xFF;
+    }
+
+    public static int to(int move) {
+        return (move >>> 16) & 0xFF;
+    }
+
+    /**
+     * Packs the pegs of a move into a single byte, for pegs below 16: the source peg in the low
+     * and the destination peg in the high 4 bits. The source and destination of a move are
+     * different, so 0 is never the code of a move.
+     *
+     * @param from the source peg
+     * @param to the destination peg
+     * @return the packed move
+     */
+    public static byte packPegs(int from, int to) {
+        return (byte) (from | to << 4);
+    }
+
+    /**
+     * @param code a move packed by packPegs, as a byte or an int
+     * @return the source peg of the move
+     */
+    public static int packedFrom(int code) {
+        return code & 0xF;
+    }
+
+    /**
+     * @param code a move packed by packPegs, as a byte or an int
+     * @return the destination peg of the move
+     */
+    public static int packedTo(int code) {
+        return code >>> 4 & 0xF;
+    }
+
+    /**
+     * Mixes the index of a move and its encoding into a 64 bit hash. The checksum of a whole
+     * solution is the (wrapping) sum of these hashes, so it does not depend on the order in
+     * which the moves were generated and partial checksums can simply be added together.
+     *
+     * @param moveIndex the 1-based index of the move
+     * @param move the encoded move
+     * @return the hash of the move
+     */
+    public static long hash(long moveIndex, int move) {
+        long h = moveIndex * 0x9E3779B97F4A7C15L + move;
+        h ^= h >>> 32;
+        h *= 0xD6E8FEB86659FD93L;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    public static String toString(int move) {
+        return "disk " + disk(move) + ": " + from(move) + " -> " + to(move);
+    }
+}
@@ -0,0 +1,103 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * The undo/redo history of a game. Every move is stored as a single byte (see Move.packPegs), so
+ * tens of thousands of moves take a few tens of kilobytes.
+ *
+ * The history keeps its own copy of the state, so undo and redo return complete moves.
+ */
+public class MoveHistory {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final PegState state;                   // The state after the first `position` moves
+    private byte[] moves = new byte[INITIAL_CAPACITY];
+    private int size;                               // The number of moves in the history, including undone ones
+    private int position;                           // The number of moves that have been made and not undone
+
+    /**
+     * @param initialState the state before the first move; it is copied
+     */
+    public MoveHistory(PegState initialState) {
+        if (initialState.getNrOfPegs() > 16) {
+            throw new IllegalArgumentException("The history supports at most 16 pegs");
+        }
+        this.state = new PegState(initialState.getNrOfPegs());
+        this.state.copyFrom(initialState);
+    }
+
+    /**
+     * Records a move that has been made after the current position; the moves that were undone
+     * before can't be redone anymore.
+     *
+     * @param from the source peg
+     * @param to the destination peg
+     */
+    public void record(int from, int to) {
+        if (!state.canMove(from, to)) {
+            throw new IllegalArgumentException("Illegal move from " + from + " to " + to);
+        }
+        if (position == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[position] = Move.packPegs(from, to);
+        state.move(from, to);
+        position++;
+        size = position;
+    }
+
+    public boolean canUndo() {
+        return position > 0;
+    }
+
+    public boolean canRedo() {
+        return position < size;
+    }
+
+    /**
+     * Undoes the last move that has been made.
+     *
+     * @return the move that takes the disk back, encoded with {@link Move#encode(int, int, int)}
+     */
+    public int undo() {
+        if (!canUndo()) {
+            throw new IllegalStateException("There is no move to undo");
+        }
+        position--;
+        int from = Move.packedFrom(moves[position]);
+        int to = Move.packedTo(moves[position]);
+        int disk = state.move(to, from);
+        return Move.encode(disk, to, from);
+    }
+
+    /**
+     * Makes the last move that was undone again.
+     *
+     * @return the move, encoded with {@link Move#encode(int, int, int)}
+     */
+    public int redo() {
+        if (!canRedo()) {
+            throw new IllegalStateException("There is no move to redo");
+        }
+        int from = Move.packedFrom(moves[position]);
+        int to = Move.packedTo(moves[position]);
+        position++;
+        int disk = state.move(from, to);
+        return Move.encode(disk, from, to);
+    }
+
+    /**
+     * @return the number of moves that have been made and not undone
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the number of moves in the history, including the ones that were undone
+     */
+    public int size() {
+        return size;
+    }
+}
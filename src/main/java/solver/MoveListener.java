@@ -0,0 +1,16 @@
+package solver;
+
+/**
+ * Receives the moves produced by a solver. Implementations are called once per move on the
+ * solver's thread, so they should not allocate or block if the solver is to stay fast.
+ */
+@FunctionalInterface
+public interface MoveListener {
+    /**
+     * @param moveIndex the 1-based index of the move (unsigned for 64 disks)
+     * @param disk the disk being moved; 0 is the smallest disk
+     * @param from the peg the disk is taken from
+     * @param to the peg the disk is placed on
+     */
+    void onMove(long moveIndex, int disk, int from, int to);
+}
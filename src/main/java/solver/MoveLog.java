@@ -0,0 +1,110 @@
+package solver;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Description of the binary move log format that is written by {@link MoveLogWriter} and
+ * read by {@link MoveLogReader}.
+ *
+ * The file starts with a 32 byte little endian header:
+ *
+ *   offset  size  field
+ *   0       4     magic number "HNOI"
+ *   4       1     format version
+ *   5       1     encoding: PAIR or DIRECTED
+ *   6       1     bits per move: 2, 4 or 8
+ *   7       1     number of disks
+ *   8       1     number of pegs
+ *   9       1     source peg
+ *   10      1     target peg
+ *   11      5     reserved
+ *   16      8     number of moves (unsigned)
+ *   24      8     reserved
+ *
+ * and is followed by the packed move codes, the first move in the lowest bits of the first byte.
+ *
+ * With the PAIR encoding (three pegs only) a move is stored as the pair of pegs it involves,
+ * in 2 bits: the direction follows from the state, because only one of the two disks on top
+ * of the pegs can legally be moved. The DIRECTED encoding stores the source and destination
+ * pegs explicitly (4 bits for up to 4 pegs, 8 bits for up to 16 pegs), so it can also hold
+ * illegal moves, e.g. logs of players and bots that still have to be validated.
+ */
+public final class MoveLog {
+    public static final int MAGIC = 0x494F4E48;     // "HNOI" read as a little endian int
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+    public static final int ENCODING_PAIR = 0;
+    public static final int ENCODING_DIRECTED = 1;
+
+    private MoveLog() {
+    }
+
+    /**
+     * @param encoding the encoding of the moves
+     * @param nrOfPegs the number of pegs
+     * @return the number of bits used by every move
+     */
+    public static int bitsPerMove(int encoding, int nrOfPegs) {
+        if (encoding == ENCODING_PAIR) {
+            if (nrOfPegs != 3) {
+                throw new IllegalArgumentException("The pair encoding only supports 3 pegs");
+            }
+            return 2;
+        }
+        if (nrOfPegs <= 4) {
+            return 4;
+        }
+        if (nrOfPegs <= 16) {
+            return 8;
+        }
+        throw new IllegalArgumentException("Move logs support at most 16 pegs");
+    }
+
+    /**
+     * @return the 2 bit code of the pair of pegs {from, to}: 0 for {0, 1}, 1 for {0, 2} and 2 for {1, 2}
+     */
+    static int pairCode(int from, int to) {
+        return from + to - 1;
+    }
+
+    /**
+     * @return true if the code is one of the three pairs of pegs; 3 is unused and never written
+     */
+    static boolean isPairCode(int code) {
+        return code < 3;
+    }
+
+    static int pairFirstPeg(int code) {
+        return code == 2 ? 1 : 0;
+    }
+
+    static int pairSecondPeg(int code) {
+        return code == 0 ? 1 : 2;
+    }
+
+    /**
+     * @return the size in bytes of the packed codes of the given number of moves
+     */
+    static long dataSize(long nrOfMoves, int bitsPerMove) {
+        // Written this way so that it doesn't overflow for unsigned move counts
+        long movesPerByte = 8 / bitsPerMove;
+        return Long.divideUnsigned(nrOfMoves, movesPerByte) + (Long.remainderUnsigned(nrOfMoves, movesPerByte) == 0 ? 0 : 1);
+    }
+
+    static ByteBuffer header(int encoding, int nrOfDisks, int nrOfPegs, int source, int target, long nrOfMoves) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.put((byte) VERSION);
+        header.put((byte) encoding);
+        header.put((byte) bitsPerMove(encoding, nrOfPegs));
+        header.put((byte) nrOfDisks);
+        header.put((byte) nrOfPegs);
+        header.put((byte) source);
+        header.put((byte) target);
+        header.position(16);
+        header.putLong(nrOfMoves);
+        header.position(0);
+        return header;
+    }
+}
@@ -0,0 +1,214 @@
+package solver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a binary move log (see {@link MoveLog}). The packed move codes are memory mapped,
+ * so any move of the log can be accessed without reading the whole file onto the heap.
+ */
+public class MoveLogReader implements AutoCloseable {
+    private static final int SEGMENT_SHIFT = 30;        // The codes are mapped in segments of 1 GiB
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final FileChannel channel;
+    private final int encoding;
+    private final int bitsPerMove;
+    private final int nrOfDisks;
+    private final int nrOfPegs;
+    private final int source;
+    private final int target;
+    private final long nrOfMoves;
+    private final MappedByteBuffer[] segments;
+
+    public MoveLogReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            ByteBuffer header = ByteBuffer.allocate(MoveLog.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("The move log header is truncated");
+                }
+            }
+            header.flip();
+
+            if (header.getInt(0) != MoveLog.MAGIC || header.get(4) != MoveLog.VERSION) {
+                throw new IOException("Not a move log, or an unsupported version");
+            }
+            this.encoding = header.get(5);
+            this.bitsPerMove = header.get(6);
+            this.nrOfDisks = header.get(7);
+            this.nrOfPegs = header.get(8);
+            this.source = header.get(9);
+            this.target = header.get(10);
+            this.nrOfMoves = header.getLong(16);
+
+            // The header may come from anywhere: every field is checked before it is used
+            if (nrOfDisks < 1 || nrOfDisks > PegState.MAX_DISKS) {
+                throw new IOException("Invalid number of disks in the move log header: " + nrOfDisks);
+            }
+            if (nrOfPegs < 3 || nrOfPegs > 16) {
+                throw new IOException("Invalid number of pegs in the move log header: " + nrOfPegs);
+            }
+            if (source < 0 || source >= nrOfPegs || target < 0 || target >= nrOfPegs || source == target) {
+                throw new IOException("Invalid source or target peg in the move log header: " + source + ", " + target);
+            }
+            if ((encoding != MoveLog.ENCODING_PAIR || nrOfPegs != 3) && encoding != MoveLog.ENCODING_DIRECTED
+                    || bitsPerMove != MoveLog.bitsPerMove(encoding, nrOfPegs)) {
+                throw new IOException("Invalid encoding in the move log header");
+            }
+
+            long dataSize = MoveLog.dataSize(nrOfMoves, bitsPerMove);
+            if (channel.size() < MoveLog.HEADER_SIZE + dataSize) {
+                throw new IOException("The move log is truncated");
+            }
+
+            int nrOfSegments = (int) ((dataSize + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            this.segments = new MappedByteBuffer[nrOfSegments];
+            for (int i = 0; i < nrOfSegments; i++) {
+                long position = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, MoveLog.HEADER_SIZE + position,
+                        Math.min(SEGMENT_MASK + 1, dataSize - position));
+            }
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    public int getEncoding() {
+        return encoding;
+    }
+
+    public int getNrOfDisks() {
+        return nrOfDisks;
+    }
+
+    public int getNrOfPegs() {
+        return nrOfPegs;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    /**
+     * @return the number of moves in the log (unsigned)
+     */
+    public long getNrOfMoves() {
+        return nrOfMoves;
+    }
+
+    /**
+     * @param index the 0-based position of the move in the log
+     * @return the raw code of the move
+     */
+    public int code(long index) {
+        long bitPosition = index * bitsPerMove;
+        long bytePosition = bitPosition >>> 3;
+        int value = segments[(int) (bytePosition >>> SEGMENT_SHIFT)].get((int) (bytePosition & SEGMENT_MASK));
+        return (value >>> (int) (bitPosition & 7)) & ((1 << bitsPerMove) - 1);
+    }
+
+    /**
+     * @param index the 0-based position of a move of a DIRECTED log
+     * @return the source peg of the move
+     */
+    public int from(long index) {
+        checkDirected();
+        return code(index) >>> (bitsPerMove >>> 1);
+    }
+
+    /**
+     * @param index the 0-based position of a move of a DIRECTED log
+     * @return the destination peg of the move
+     */
+    public int to(long index) {
+        checkDirected();
+        return code(index) & ((1 << (bitsPerMove >>> 1)) - 1);
+    }
+
+    /**
+     * Replays the log on a state that is reset to the initial configuration of the log. The log
+     * is expected to be legal (see MoveValidator to find out where it isn't): the replay stops at
+     * the first move that can't be made. The listener receives every move after it has been applied.
+     *
+     * @param state a state with the number of pegs of the log
+     * @param listener receives every move, may be null
+     * @return the number of moves replayed
+     * @throws IllegalArgumentException if a move names a peg that doesn't exist or is illegal
+     */
+    public long replay(PegState state, MoveListener listener) {
+        state.reset(nrOfDisks, source);
+
+        for (long index = 0; index != nrOfMoves; index++) {
+            int code = code(index);
+            int from;
+            int to;
+
+            if (encoding == MoveLog.ENCODING_PAIR) {
+                if (!MoveLog.isPairCode(code)) {
+                    throw new IllegalArgumentException("Invalid pair of pegs at move " + Long.toUnsignedString(index + 1));
+                }
+                // The disk on top of one of the two pegs can be moved onto the other one
+                int first = MoveLog.pairFirstPeg(code);
+                int second = MoveLog.pairSecondPeg(code);
+                if (state.top(first) < state.top(second)) {
+                    from = first;
+                    to = second;
+                } else {
+                    from = second;
+                    to = first;
+                }
+            } else {
+                from = code >>> (bitsPerMove >>> 1);
+                to = code & ((1 << (bitsPerMove >>> 1)) - 1);
+                if (from >= nrOfPegs || to >= nrOfPegs) {
+                    throw new IllegalArgumentException("Invalid peg at move " + Long.toUnsignedString(index + 1));
+                }
+            }
+
+            if (!state.canMove(from, to)) {
+                throw new IllegalArgumentException("Illegal move " + Long.toUnsignedString(index + 1) + " from peg " + from + " to peg " + to);
+            }
+            int disk = state.move(from, to);
+            if (listener != null) {
+                listener.onMove(index + 1, disk, from, to);
+            }
+        }
+
+        return nrOfMoves;
+    }
+
+    /**
+     * Replays the log on a new headless state.
+     *
+     * @return the state after the last move of the log
+     */
+    public PegState replay() {
+        PegState state = new PegState(nrOfPegs);
+        replay(state, null);
+        return state;
+    }
+
+    private void checkDirected() {
+        if (encoding != MoveLog.ENCODING_DIRECTED) {
+            throw new IllegalStateException("The moves of a pair encoded log only have a direction during a replay");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
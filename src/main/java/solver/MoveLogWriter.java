@@ -0,0 +1,129 @@
+package solver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams moves into a binary move log (see {@link MoveLog}). The move codes are written
+ * through a window of the file that is memory mapped, so logs far bigger than the heap can
+ * be written; the header is written when the log is closed.
+ *
+ * Usage: pass the writer as the listener of a solver and close it afterwards.
+ */
+public class MoveLogWriter implements MoveListener, AutoCloseable {
+    private static final long WINDOW_SIZE = 64L << 20;  // The size of the mapped window, 64 MiB
+
+    private final FileChannel channel;
+    private final int encoding;
+    private final int bitsPerMove;
+    private final int nrOfDisks;
+    private final int nrOfPegs;
+    private final int source;
+    private final int target;
+
+    private MappedByteBuffer window;                    // The currently mapped part of the file
+    private long windowPosition;                        // The position of the window in the file
+    private int currentByte;                            // The codes that have not been written yet
+    private int bitsInCurrentByte;
+    private long nrOfMoves;
+    private boolean closed;
+
+    /**
+     * @param path the file to be written; it is overwritten if it exists
+     * @param encoding MoveLog.ENCODING_PAIR or MoveLog.ENCODING_DIRECTED
+     * @param nrOfDisks the number of disks of the puzzle
+     * @param nrOfPegs the number of pegs of the puzzle
+     * @param source the peg on which the disks are initially placed
+     * @param target the peg on which the disks have to be placed
+     */
+    public MoveLogWriter(Path path, int encoding, int nrOfDisks, int nrOfPegs, int source, int target) throws IOException {
+        this.encoding = encoding;
+        this.bitsPerMove = MoveLog.bitsPerMove(encoding, nrOfPegs);
+        this.nrOfDisks = nrOfDisks;
+        this.nrOfPegs = nrOfPegs;
+        this.source = source;
+        this.target = target;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.windowPosition = MoveLog.HEADER_SIZE;
+        this.window = channel.map(FileChannel.MapMode.READ_WRITE, windowPosition, WINDOW_SIZE);
+    }
+
+    @Override
+    public void onMove(long moveIndex, int disk, int from, int to) {
+        append(from, to);
+    }
+
+    /**
+     * Appends a move to the log.
+     *
+     * @param from the source peg
+     * @param to the destination peg
+     */
+    public void append(int from, int to) {
+        int code;
+        if (encoding == MoveLog.ENCODING_PAIR) {
+            code = MoveLog.pairCode(from, to);
+        } else {
+            code = (from << (bitsPerMove >>> 1)) | to;
+        }
+
+        currentByte |= code << bitsInCurrentByte;
+        bitsInCurrentByte += bitsPerMove;
+        nrOfMoves++;
+
+        if (bitsInCurrentByte == 8) {
+            putByte();
+        }
+    }
+
+    public long getNrOfMoves() {
+        return nrOfMoves;
+    }
+
+    /**
+     * Flushes the last codes, writes the header and cuts the file to its exact size.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            if (bitsInCurrentByte > 0) {
+                putByte();
+            }
+            window.force();
+
+            channel.write(MoveLog.header(encoding, nrOfDisks, nrOfPegs, source, target, nrOfMoves), 0);
+            channel.truncate(MoveLog.HEADER_SIZE + MoveLog.dataSize(nrOfMoves, bitsPerMove));
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the current byte into the mapped window, mapping the next window if the current one is full.
+     */
+    private void putByte() {
+        if (!window.hasRemaining()) {
+            window.force();
+            windowPosition += WINDOW_SIZE;
+            try {
+                window = channel.map(FileChannel.MapMode.READ_WRITE, windowPosition, WINDOW_SIZE);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not map the move log", ex);
+            }
+        }
+        window.put((byte) currentByte);
+        currentByte = 0;
+        bitsInCurrentByte = 0;
+    }
+}
@@ -0,0 +1,141 @@
+package solver;
+
+/**
+ * Closed form queries on the optimal solution of the classic three peg puzzle, so that any
+ * move or any intermediate configuration can be computed without replaying the earlier moves.
+ *
+ * Move k (1-based) is made by disk d = the number of trailing zeros of k, and it is the
+ * (k >>> (d + 1))-th move of that disk. Every disk always moves one step along a fixed cycle
+ * of the pegs: source -> destination -> auxiliary if (nrOfDisks - d) is odd, and
+ * source -> auxiliary -> destination otherwise. Move indices are unsigned, so all the
+ * 2^64 - 1 moves of a 64 disk puzzle can be queried. None of the queries allocate.
+ */
+public final class MoveQuery {
+    private MoveQuery() {
+    }
+
+    /**
+     * @param moveIndex the 1-based index of the move
+     * @return the disk that is moved by the move, 0 being the smallest disk
+     */
+    public static int diskOfMove(long moveIndex) {
+        checkMoveIndex(moveIndex);
+        return Long.numberOfTrailingZeros(moveIndex);
+    }
+
+    /**
+     * @param disk the disk, 0 being the smallest disk
+     * @param j the 0-based number of the move of that disk
+     * @return the 1-based index of the j-th move of the disk, as an unsigned long
+     */
+    public static long moveIndexOf(int disk, long j) {
+        return ((j << 1) | 1) << disk;
+    }
+
+    /**
+     * @param disk the disk, 0 being the smallest disk
+     * @param moveIndex the number of moves that have been made
+     * @return how many times the disk has been moved during the first moveIndex moves
+     */
+    public static long movesOfDiskAfter(int disk, long moveIndex) {
+        // The moves of the disk are at the odd multiples of 2^disk
+        long multiples = moveIndex >>> disk;
+        return (multiples >>> 1) + (multiples & 1);
+    }
+
+    /**
+     * @param nrOfDisks the total number of disks
+     * @param source the peg on which the disks are initially placed
+     * @param destination the peg on which the disks will be placed at the end
+     * @param disk the disk, 0 being the smallest disk
+     * @param moveIndex the number of moves that have been made
+     * @return the peg on which the disk lies after the given number of moves
+     */
+    public static int pegOfDiskAfter(int nrOfDisks, int source, int destination, int disk, long moveIndex) {
+        return pegOnCycle(nrOfDisks, source, destination, disk, movesOfDiskAfter(disk, moveIndex));
+    }
+
+    /**
+     * Computes move k of the solution.
+     *
+     * @param nrOfDisks the total number of disks
+     * @param source the peg on which the disks are initially placed
+     * @param destination the peg on which the disks will be placed at the end
+     * @param moveIndex the 1-based index of the move, at most 2^nrOfDisks - 1 (unsigned)
+     * @return the move, encoded with {@link Move#encode(int, int, int)}
+     */
+    public static int move(int nrOfDisks, int source, int destination, long moveIndex) {
+        if (Long.compareUnsigned(moveIndex, HanoiSolver.moveCount(nrOfDisks)) > 0) {
+            throw new IllegalArgumentException("The solution of " + nrOfDisks + " disks has no move " + Long.toUnsignedString(moveIndex));
+        }
+        int disk = diskOfMove(moveIndex);
+        long j = disk == 63 ? 0 : moveIndex >>> (disk + 1);
+        int from = pegOnCycle(nrOfDisks, source, destination, disk, j);
+        int to = pegOnCycle(nrOfDisks, source, destination, disk, j + 1);
+        return Move.encode(disk, from, to);
+    }
+
+    /**
+     * Writes the peg of every disk after the given number of moves into the array, in O(nrOfDisks).
+     *
+     * @param nrOfDisks the total number of disks
+     * @param source the peg on which the disks are initially placed
+     * @param destination the peg on which the disks will be placed at the end
+     * @param moveIndex the number of moves that have been made (0 is the initial configuration)
+     * @param pegOfDisk receives the peg of every disk, indexed from the smallest disk
+     */
+    public static void configurationAfter(int nrOfDisks, int source, int destination, long moveIndex, int[] pegOfDisk) {
+        for (int disk = 0; disk < nrOfDisks; disk++) {
+            pegOfDisk[disk] = pegOfDiskAfter(nrOfDisks, source, destination, disk, moveIndex);
+        }
+    }
+
+    /**
+     * Overwrites the state with the configuration after the given number of moves, in O(nrOfDisks).
+     *
+     * @param source the peg on which the disks are initially placed
+     * @param destination the peg on which the disks will be placed at the end
+     * @param moveIndex the number of moves that have been made (0 is the initial configuration)
+     * @param state a three peg state; its number of disks is kept
+     */
+    public static void configurationAfter(int source, int destination, long moveIndex, PegState state) {
+        int nrOfDisks = state.getNrOfDisks();
+        long peg0 = 0;
+        long peg1 = 0;
+        long peg2 = 0;
+
+        for (int disk = 0; disk < nrOfDisks; disk++) {
+            int peg = pegOfDiskAfter(nrOfDisks, source, destination, disk, moveIndex);
+            if (peg == 0) {
+                peg0 |= 1L << disk;
+            } else if (peg == 1) {
+                peg1 |= 1L << disk;
+            } else {
+                peg2 |= 1L << disk;
+            }
+        }
+        state.setPegs(peg0, peg1, peg2);
+    }
+
+    /**
+     * @return the peg reached by the disk after it has been moved the given (unsigned) number of times
+     */
+    private static int pegOnCycle(int nrOfDisks, int source, int destination, int disk, long movesOfDisk) {
+        int auxiliary = 3 - source - destination;
+        int step = (int) Long.remainderUnsigned(movesOfDisk, 3);
+
+        if (step == 0) {
+            return source;
+        }
+        if (((nrOfDisks - disk) & 1) == 1) {
+            return step == 1 ? destination : auxiliary;
+        }
+        return step == 1 ? auxiliary : destination;
+    }
+
+    private static void checkMoveIndex(long moveIndex) {
+        if (moveIndex == 0) {
+            throw new IllegalArgumentException("Move indices start at 1");
+        }
+    }
+}
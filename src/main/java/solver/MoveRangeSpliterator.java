@@ -0,0 +1,93 @@
+package solver;
+
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * A spliterator over the encoded moves of an (unsigned) range of move indices of the classic
+ * solution. Every move is computed from its index with {@link MoveQuery}, so the range can be
+ * split anywhere and the halves can be traversed by different threads.
+ */
+public class MoveRangeSpliterator implements Spliterator.OfInt {
+    private static final long MIN_SPLIT = 1 << 12;  // Ranges smaller than this are not split any further
+
+    private final int nrOfDisks;
+    private final int source;
+    private final int destination;
+    private long next;                              // The index of the next move to be returned
+    private final long last;                        // The index of the last move, inclusive
+    private boolean exhausted;
+
+    /**
+     * @param nrOfDisks the total number of disks
+     * @param source the peg on which the disks are initially placed
+     * @param destination the peg on which the disks will be placed at the end
+     * @param first the index of the first move, starting from 1
+     * @param last the index of the last move, inclusive (unsigned)
+     */
+    public MoveRangeSpliterator(int nrOfDisks, int source, int destination, long first, long last) {
+        this.nrOfDisks = nrOfDisks;
+        this.source = source;
+        this.destination = destination;
+        this.next = first;
+        this.last = last;
+        this.exhausted = first == 0 || Long.compareUnsigned(first, last) > 0;
+    }
+
+    /**
+     * @return a spliterator over all the moves of the solution
+     */
+    public static MoveRangeSpliterator ofSolution(int nrOfDisks, int source, int destination) {
+        return new MoveRangeSpliterator(nrOfDisks, source, destination, 1, HanoiSolver.moveCount(nrOfDisks));
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer action) {
+        if (exhausted) {
+            return false;
+        }
+        action.accept(MoveQuery.move(nrOfDisks, source, destination, next));
+        exhausted = next == last;
+        next++;
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(IntConsumer action) {
+        if (exhausted) {
+            return;
+        }
+        long moveIndex = next;
+        do {
+            action.accept(MoveQuery.move(nrOfDisks, source, destination, moveIndex));
+        } while (moveIndex++ != last);
+        next = moveIndex;
+        exhausted = true;
+    }
+
+    @Override
+    public Spliterator.OfInt trySplit() {
+        if (exhausted || Long.compareUnsigned(last - next, MIN_SPLIT) < 0) {
+            return null;
+        }
+        long middle = next + ((last - next) >>> 1);
+        MoveRangeSpliterator prefix = new MoveRangeSpliterator(nrOfDisks, source, destination, next, middle);
+        next = middle + 1;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        if (exhausted) {
+            return 0;
+        }
+        long size = last - next + 1;
+        // The size of the full 64 disk range doesn't fit in a signed long
+        return size <= 0 ? Long.MAX_VALUE : size;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | IMMUTABLE | NONNULL | (estimateSize() == Long.MAX_VALUE ? 0 : SIZED | SUBSIZED);
+    }
+}
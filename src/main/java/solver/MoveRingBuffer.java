@@ -0,0 +1,124 @@
+package solver;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded, lock-free single-producer/single-consumer queue of encoded moves. The solver thread
+ * publishes moves with {@link #put(int)} and the consumer (the FX thread) drains them with
+ * {@link #poll()}; a move becomes visible to the consumer only after it has been fully written.
+ *
+ * Each side keeps a cached copy of the other side's index, so the shared indices are only read
+ * when the cached value says the buffer is full (producer) or empty (consumer).
+ */
+public class MoveRingBuffer implements MoveSource {
+    private static final long MIN_PARK_NANOS = 1_000;         // How long a producer first waits when the buffer is full
+    private static final long MAX_PARK_NANOS = 10_000_000;    // The longest wait, e.g. while the playback is paused
+
+    private final int[] moves;
+    private final int mask;
+
+    private final AtomicLong head = new AtomicLong();   // The index of the next move to be read
+    private final AtomicLong tail = new AtomicLong();   // The index of the next move to be written
+    private volatile boolean closed;                    // Set by the producer after its last move
+
+    // Only accessed by the producer
+    private long cachedHead;
+
+    // Only accessed by the consumer
+    private long cachedTail;
+
+    /**
+     * @param capacity the number of moves the buffer can hold; rounded up to a power of two
+     */
+    public MoveRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.moves = new int[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Publishes a move if there is room for it. Producer side only.
+     *
+     * @param move the encoded move
+     * @return false if the buffer is full
+     */
+    public boolean offer(int move) {
+        long currentTail = tail.get();
+        if (currentTail - cachedHead == moves.length) {
+            cachedHead = head.get();
+            if (currentTail - cachedHead == moves.length) {
+                return false;
+            }
+        }
+        moves[(int) currentTail & mask] = move;
+        tail.lazySet(currentTail + 1);
+        return true;
+    }
+
+    /**
+     * Publishes a move, waiting while the buffer is full. Producer side only.
+     *
+     * @param move the encoded move
+     * @throws CancellationException if the producer thread is interrupted while waiting
+     */
+    public void put(int move) {
+        long parkNanos = MIN_PARK_NANOS;
+        while (!offer(move)) {
+            // Back off exponentially, so that a producer that waits for a long time doesn't burn CPU
+            LockSupport.parkNanos(this, parkNanos);
+            parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+            if (Thread.interrupted()) {
+                throw new CancellationException("Interrupted while publishing a move");
+            }
+        }
+    }
+
+    /**
+     * Marks the end of the moves. Producer side only.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Consumer side only.
+     */
+    @Override
+    public int poll() {
+        long currentHead = head.get();
+        if (currentHead == cachedTail) {
+            cachedTail = tail.get();
+            if (currentHead == cachedTail) {
+                return NO_MOVE;
+            }
+        }
+        int move = moves[(int) currentHead & mask];
+        head.lazySet(currentHead + 1);
+        return move;
+    }
+
+    @Override
+    public boolean isExhausted() {
+        // Read the flag first: once it is set no more moves are published
+        return closed && head.get() == tail.get();
+    }
+
+    /**
+     * @return the number of moves waiting to be consumed
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return moves.length;
+    }
+}
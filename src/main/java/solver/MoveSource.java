@@ -0,0 +1,18 @@
+package solver;
+
+/**
+ * A source of encoded moves (see {@link Move}) that is consumed one move at a time.
+ */
+public interface MoveSource {
+    int NO_MOVE = -1;       // Returned by poll() when no move is available
+
+    /**
+     * @return the next move, or NO_MOVE if there is no move available at the moment
+     */
+    int poll();
+
+    /**
+     * @return true if no more moves will ever be returned
+     */
+    boolean isExhausted();
+}
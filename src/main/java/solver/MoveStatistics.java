@@ -0,0 +1,60 @@
+package solver;
+
+/**
+ * The result of reducing a range of moves: the number of moves, their order independent
+ * checksum and the number of moves of every disk. Partial results from different ranges
+ * are combined with {@link #merge(MoveStatistics)}.
+ */
+public class MoveStatistics {
+    private long count;                     // The number of moves (unsigned)
+    private long checksum;                  // Sum of Move.hash over all moves
+    private final long[] movesPerDisk;      // The number of moves of every disk
+
+    public MoveStatistics(int nrOfDisks) {
+        this.movesPerDisk = new long[nrOfDisks];
+    }
+
+    /**
+     * Adds a single move to the statistics.
+     *
+     * @param moveIndex the 1-based index of the move
+     * @param move the encoded move
+     */
+    public void add(long moveIndex, int move) {
+        count++;
+        checksum += Move.hash(moveIndex, move);
+        movesPerDisk[Move.disk(move)]++;
+    }
+
+    /**
+     * Adds the statistics of another (disjoint) range of moves to this one.
+     *
+     * @param other the statistics to be added
+     * @return this instance
+     */
+    public MoveStatistics merge(MoveStatistics other) {
+        count += other.count;
+        checksum += other.checksum;
+        for (int disk = 0; disk < movesPerDisk.length; disk++) {
+            movesPerDisk[disk] += other.movesPerDisk[disk];
+        }
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getChecksum() {
+        return checksum;
+    }
+
+    public long getMovesOfDisk(int disk) {
+        return movesPerDisk[disk];
+    }
+
+    @Override
+    public String toString() {
+        return "moves=" + Long.toUnsignedString(count) + ", checksum=" + Long.toHexString(checksum);
+    }
+}
@@ -0,0 +1,221 @@
+package solver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Checks that the moves of a move log are legal and gather all the disks on the target peg of
+ * the log. The moves are replayed on a PegState: every check is a few bit operations on the
+ * bitboards of the two pegs involved.
+ *
+ * Logs of the classic three peg puzzle usually follow the optimal solution, at least for a long
+ * prefix. Those moves are validated in parallel: the log is split into chunks, and every chunk
+ * starts from the configuration of the optimal solution at its first move, computed directly from
+ * the move index with {@link MoveQuery}. A chunk that ends in the configuration the next chunk
+ * started from hands over a verified state, so the chunks are validated exactly as a sequential
+ * replay would; from the first chunk that leaves the optimal solution on, the rest of the log is
+ * replayed sequentially.
+ */
+public class MoveValidator {
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;   // Number of moves validated by a worker at once
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public MoveValidator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public MoveValidator(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The chunk size must be positive");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Validates a log of the classic puzzle.
+     *
+     * @param log the move log, starting with all the disks on its source peg
+     * @return the result of the validation
+     */
+    public ValidationResult validate(MoveLogReader log) {
+        return validate(log, Variant.CLASSIC);
+    }
+
+    /**
+     * Validates a log; with a restricted variant, a move that the variant doesn't allow is illegal.
+     *
+     * @param log the move log, starting with all the disks on its source peg
+     * @param variant the rules of the moves
+     * @return the result of the validation
+     */
+    public ValidationResult validate(MoveLogReader log, Variant variant) {
+        if (!variant.supportsPegs(log.getNrOfPegs())) {
+            throw new IllegalArgumentException("The " + variant.getDisplayName() + " variant is played with 3 pegs");
+        }
+
+        long nrOfMoves = log.getNrOfMoves();
+        PegState state = new PegState(log.getNrOfPegs(), log.getNrOfDisks(), log.getSource());
+        long position = 0;
+
+        // The moves that may follow the optimal solution are validated in parallel first
+        if (variant == Variant.CLASSIC && log.getNrOfPegs() == 3 && log.getSource() != log.getTarget()) {
+            long optimalMoves = HanoiSolver.moveCount(log.getNrOfDisks());
+            long parallelMoves = Long.compareUnsigned(nrOfMoves, optimalMoves) < 0 ? nrOfMoves : optimalMoves;
+            long maxParallelMoves = (long) Integer.MAX_VALUE * chunkSize;
+            if (Long.compareUnsigned(parallelMoves, maxParallelMoves) > 0) {
+                parallelMoves = maxParallelMoves;
+            }
+            if (Long.compareUnsigned(parallelMoves, chunkSize) > 0) {
+                position = validateChunks(log, parallelMoves, state);
+                if (position < 0) {
+                    // The illegal move is encoded as -(position + 1)
+                    return new ValidationResult(nrOfMoves, -(position + 1), false);
+                }
+            }
+        }
+
+        // The rest of the log is replayed sequentially from the verified state
+        long illegalMove = replay(log, variant, state, position, nrOfMoves);
+        if (illegalMove != ValidationResult.NO_ILLEGAL_MOVE) {
+            return new ValidationResult(nrOfMoves, illegalMove, false);
+        }
+        return new ValidationResult(nrOfMoves, ValidationResult.NO_ILLEGAL_MOVE, state.isComplete(log.getTarget()));
+    }
+
+    /**
+     * Validates the first moves of a three peg log in parallel chunks.
+     *
+     * @param state receives the verified state after the returned position
+     * @return the number of moves verified, or -(position + 1) of the first illegal move
+     */
+    private long validateChunks(MoveLogReader log, long nrOfMoves, PegState state) {
+        int nrOfChunks = (int) ((nrOfMoves - 1) / chunkSize + 1);
+        ChunkResult[] results = new ChunkResult[nrOfChunks];
+        pool.invoke(new ChunkTask(log, nrOfMoves, results, 0, results.length));
+
+        // A chunk started from the right state if all the chunks before it ended where expected
+        for (int i = 0; i < results.length; i++) {
+            ChunkResult result = results[i];
+            if (result.illegalMove != ValidationResult.NO_ILLEGAL_MOVE) {
+                return -(result.illegalMove + 1);
+            }
+            if (!result.onSolution) {
+                state.setPegs(result.peg0, result.peg1, result.peg2);
+                return result.end;
+            }
+        }
+        ChunkResult last = results[results.length - 1];
+        state.setPegs(last.peg0, last.peg1, last.peg2);
+        return nrOfMoves;
+    }
+
+    /**
+     * Replays the moves start..end - 1 (unsigned) of a log on the state, checking every move.
+     *
+     * @return the position of the first illegal move, or NO_ILLEGAL_MOVE
+     */
+    private static long replay(MoveLogReader log, Variant variant, PegState state, long start, long end) {
+        int nrOfPegs = log.getNrOfPegs();
+        boolean pairs = log.getEncoding() == MoveLog.ENCODING_PAIR;
+        int pegBits = MoveLog.bitsPerMove(log.getEncoding(), nrOfPegs) >>> 1;
+        int pegMask = (1 << pegBits) - 1;
+        boolean restricted = variant != Variant.CLASSIC;
+
+        for (long index = start; index != end; index++) {
+            int code = log.code(index);
+            int from;
+            int to;
+
+            if (pairs) {
+                // A corrupted log may hold the unused code, which is no pair of pegs at all
+                if (!MoveLog.isPairCode(code)) {
+                    return index;
+                }
+                // The smaller of the two top disks is the one that moves
+                int first = MoveLog.pairFirstPeg(code);
+                int second = MoveLog.pairSecondPeg(code);
+                boolean forward = state.top(first) < state.top(second);
+                from = forward ? first : second;
+                to = forward ? second : first;
+            } else {
+                from = code >>> pegBits;
+                to = code & pegMask;
+                if (from >= nrOfPegs || to >= nrOfPegs) {
+                    return index;
+                }
+            }
+
+            if (!state.canMove(from, to) || restricted && !variant.isAllowed(from, to)) {
+                return index;
+            }
+            state.move(from, to);
+        }
+        return ValidationResult.NO_ILLEGAL_MOVE;
+    }
+
+    /**
+     * The outcome of a chunk: its first illegal move, or the state it ended in and whether that
+     * is the state of the optimal solution.
+     */
+    private static class ChunkResult {
+        long end;
+        long illegalMove = ValidationResult.NO_ILLEGAL_MOVE;
+        boolean onSolution;
+        long peg0;
+        long peg1;
+        long peg2;
+    }
+
+    private class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final MoveLogReader log;
+        private final long nrOfMoves;
+        private final ChunkResult[] results;
+        private final int first;
+        private final int last;                 // Exclusive
+
+        ChunkTask(MoveLogReader log, long nrOfMoves, ChunkResult[] results, int first, int last) {
+            this.log = log;
+            this.nrOfMoves = nrOfMoves;
+            this.results = results;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected void compute() {
+            if (last - first > 1) {
+                int middle = (first + last) >>> 1;
+                invokeAll(new ChunkTask(log, nrOfMoves, results, first, middle),
+                        new ChunkTask(log, nrOfMoves, results, middle, last));
+                return;
+            }
+
+            long start = (long) first * chunkSize;
+            long end = Long.compareUnsigned(nrOfMoves - start, chunkSize) > 0 ? start + chunkSize : nrOfMoves;
+            int source = log.getSource();
+            int target = log.getTarget();
+
+            // Start from the configuration of the optimal solution after `start` moves
+            PegState state = new PegState(3, log.getNrOfDisks(), source);
+            MoveQuery.configurationAfter(source, target, start, state);
+
+            ChunkResult result = new ChunkResult();
+            result.end = end;
+            result.illegalMove = replay(log, Variant.CLASSIC, state, start, end);
+            result.peg0 = state.getPeg(0);
+            result.peg1 = state.getPeg(1);
+            result.peg2 = state.getPeg(2);
+
+            // The next chunk starts from the configuration of the optimal solution after `end` moves
+            PegState expected = new PegState(3, log.getNrOfDisks(), source);
+            MoveQuery.configurationAfter(source, target, end, expected);
+            result.onSolution = expected.equals(state);
+            results[first] = result;
+        }
+    }
+}
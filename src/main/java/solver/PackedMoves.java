@@ -0,0 +1,76 @@
+package solver;
+
+/**
+ * An immutable solution held in memory with one byte per move, packed by Move.packPegs. The
+ * disks are found again by replaying the moves.
+ */
+public final class PackedMoves {
+    private final int nrOfDisks;
+    private final int nrOfPegs;
+    private final int source;
+    private final byte[] codes;
+
+    PackedMoves(int nrOfDisks, int nrOfPegs, int source, byte[] codes) {
+        this.nrOfDisks = nrOfDisks;
+        this.nrOfPegs = nrOfPegs;
+        this.source = source;
+        this.codes = codes;
+    }
+
+    public int getNrOfDisks() {
+        return nrOfDisks;
+    }
+
+    public int getNrOfPegs() {
+        return nrOfPegs;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * @param index the 0-based position of the move
+     * @return the source peg of the move
+     */
+    public int from(int index) {
+        return Move.packedFrom(codes[index]);
+    }
+
+    /**
+     * @param index the 0-based position of the move
+     * @return the destination peg of the move
+     */
+    public int to(int index) {
+        return Move.packedTo(codes[index]);
+    }
+
+    /**
+     * @return a source that replays the moves from the initial configuration, with their disks
+     */
+    public MoveSource moveSource() {
+        PegState state = new PegState(nrOfPegs, nrOfDisks, source);
+        return new MoveSource() {
+            private int position;
+
+            @Override
+            public int poll() {
+                if (position == codes.length) {
+                    return NO_MOVE;
+                }
+                int from = from(position);
+                int to = to(position++);
+                return Move.encode(state.move(from, to), from, to);
+            }
+
+            @Override
+            public boolean isExhausted() {
+                return position == codes.length;
+            }
+        };
+    }
+}
@@ -0,0 +1,205 @@
+package solver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Generates the moves of the classic solution on a {@link ForkJoinPool}. The range of move
+ * indices [1, 2^n - 1] is split recursively into disjoint ranges; since any move can be computed
+ * from its index ({@link MoveQuery}) the workers don't depend on each other. Every worker fills
+ * its own primitive buffer of encoded moves and hands it to a {@link ChunkConsumer}, or reduces
+ * it into {@link MoveStatistics}. The moves are identical to the ones of {@link HanoiSolver}.
+ * The same ranges are also available as a parallel stream, split by a {@link MoveRangeSpliterator}.
+ */
+public class ParallelMoveGenerator {
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;   // Number of moves generated by a worker at once
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    // One move buffer per worker thread, reused by all the chunks that the thread generates
+    private final ThreadLocal<int[]> buffers;
+
+    public ParallelMoveGenerator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelMoveGenerator(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The chunk size must be positive");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.buffers = ThreadLocal.withInitial(() -> new int[chunkSize]);
+    }
+
+    /**
+     * Receives the moves generated by a worker. Chunks arrive concurrently and in no particular order.
+     */
+    @FunctionalInterface
+    public interface ChunkConsumer {
+        /**
+         * @param firstMoveIndex the index of moves[0]
+         * @param moves the encoded moves; the buffer is reused once the call returns
+         * @param length the number of moves in the buffer
+         */
+        void accept(long firstMoveIndex, int[] moves, int length);
+    }
+
+    /**
+     * Computes the statistics of the whole solution in parallel.
+     *
+     * @param nrOfDisks the total number of disks
+     * @param source the peg on which the disks are initially placed
+     * @param destination the peg on which the disks will be placed at the end
+     * @return the statistics of all the moves
+     */
+    public MoveStatistics statistics(int nrOfDisks, int source, int destination) {
+        return statistics(nrOfDisks, source, destination, 1, HanoiSolver.moveCount(nrOfDisks));
+    }
+
+    /**
+     * Computes the statistics of the moves first..last (inclusive, unsigned) in parallel.
+     */
+    public MoveStatistics statistics(int nrOfDisks, int source, int destination, long first, long last) {
+        if (first == 0 || Long.compareUnsigned(first, last) > 0) {
+            return new MoveStatistics(nrOfDisks);
+        }
+        return pool.invoke(new StatisticsTask(nrOfDisks, source, destination, first, last));
+    }
+
+    /**
+     * Generates the moves first..last (inclusive, unsigned) in parallel and hands them to the
+     * consumer one chunk at a time.
+     */
+    public void forEachChunk(int nrOfDisks, int source, int destination, long first, long last, ChunkConsumer consumer) {
+        if (first == 0 || Long.compareUnsigned(first, last) > 0) {
+            return;
+        }
+        pool.invoke(new ChunkTask(nrOfDisks, source, destination, first, last, consumer));
+    }
+
+    /**
+     * Fills the array with consecutive moves of the solution, starting with the given move, in parallel.
+     *
+     * @param firstMoveIndex the index of the move that goes into moves[0]
+     * @param moves the array that receives the encoded moves
+     */
+    public void fill(int nrOfDisks, int source, int destination, long firstMoveIndex, int[] moves) {
+        if (moves.length == 0) {
+            return;
+        }
+        forEachChunk(nrOfDisks, source, destination, firstMoveIndex, firstMoveIndex + moves.length - 1,
+                (chunkStart, chunk, length) -> System.arraycopy(chunk, 0, moves, (int) (chunkStart - firstMoveIndex), length));
+    }
+
+    /**
+     * Streams the moves first..last (inclusive, unsigned). The stream is parallel and ordered:
+     * it runs on the common pool rather than on the pool of the generator, and operations such
+     * as toArray() or forEachOrdered() see the moves in the order of the solution.
+     */
+    public static IntStream stream(int nrOfDisks, int source, int destination, long first, long last) {
+        return StreamSupport.intStream(new MoveRangeSpliterator(nrOfDisks, source, destination, first, last), true);
+    }
+
+    /**
+     * Streams all the moves of the solution, see {@link #stream(int, int, int, long, long)}.
+     */
+    public static IntStream stream(int nrOfDisks, int source, int destination) {
+        return StreamSupport.intStream(MoveRangeSpliterator.ofSolution(nrOfDisks, source, destination), true);
+    }
+
+    /**
+     * Fills the buffer of the current worker with the moves first..last and returns their number.
+     */
+    private int generate(int nrOfDisks, int source, int destination, long first, long last, int[] buffer) {
+        int length = 0;
+        long moveIndex = first;
+        do {
+            buffer[length++] = MoveQuery.move(nrOfDisks, source, destination, moveIndex);
+        } while (moveIndex++ != last);
+        return length;
+    }
+
+    /**
+     * @return true if the range first..last is too big to be generated by a single worker
+     */
+    private boolean mustSplit(long first, long last) {
+        return Long.compareUnsigned(last - first, chunkSize - 1) > 0;
+    }
+
+    private class StatisticsTask extends RecursiveTask<MoveStatistics> {
+        private static final long serialVersionUID = 1L;
+
+        private final int nrOfDisks;
+        private final int source;
+        private final int destination;
+        private final long first;
+        private final long last;
+
+        StatisticsTask(int nrOfDisks, int source, int destination, long first, long last) {
+            this.nrOfDisks = nrOfDisks;
+            this.source = source;
+            this.destination = destination;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected MoveStatistics compute() {
+            if (mustSplit(first, last)) {
+                long middle = first + ((last - first) >>> 1);
+                StatisticsTask prefix = new StatisticsTask(nrOfDisks, source, destination, first, middle);
+                StatisticsTask suffix = new StatisticsTask(nrOfDisks, source, destination, middle + 1, last);
+                prefix.fork();
+                MoveStatistics statistics = suffix.compute();
+                return statistics.merge(prefix.join());
+            }
+
+            int[] buffer = buffers.get();
+            int length = generate(nrOfDisks, source, destination, first, last, buffer);
+            MoveStatistics statistics = new MoveStatistics(nrOfDisks);
+            for (int i = 0; i < length; i++) {
+                statistics.add(first + i, buffer[i]);
+            }
+            return statistics;
+        }
+    }
+
+    private class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int nrOfDisks;
+        private final int source;
+        private final int destination;
+        private final long first;
+        private final long last;
+        private final ChunkConsumer consumer;
+
+        ChunkTask(int nrOfDisks, int source, int destination, long first, long last, ChunkConsumer consumer) {
+            this.nrOfDisks = nrOfDisks;
+            this.source = source;
+            this.destination = destination;
+            this.first = first;
+            this.last = last;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            if (mustSplit(first, last)) {
+                long middle = first + ((last - first) >>> 1);
+                invokeAll(new ChunkTask(nrOfDisks, source, destination, first, middle, consumer),
+                        new ChunkTask(nrOfDisks, source, destination, middle + 1, last, consumer));
+                return;
+            }
+
+            int[] buffer = buffers.get();
+            int length = generate(nrOfDisks, source, destination, first, last, buffer);
+            consumer.accept(first, buffer, length);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * A headless, primitive representation of the towers: every peg is a bitboard in which bit d
+ * is set if disk d (0 being the smallest disk) is on that peg. Since a smaller disk always lies
+ * above a bigger one, the top disk of a peg is simply its lowest set bit.
+ *
+ * Supports up to 64 disks and any number of pegs.
+ */
+public class PegState {
+    public static final int MAX_DISKS = 64;
+    public static final int NO_DISK = 64;           // Value returned by top() for an empty peg
+
+    private final long[] pegs;                      // One bitboard per peg
+    private int nrOfDisks;                          // The total number of disks
+
+    public PegState(int nrOfPegs) {
+        if (nrOfPegs < 3) {
+            throw new IllegalArgumentException("At least 3 pegs are required, got " + nrOfPegs);
+        }
+        this.pegs = new long[nrOfPegs];
+    }
+
+    /**
+     * Creates a state with all the disks on the given peg.
+     *
+     * @param nrOfPegs the number of pegs
+     * @param nrOfDisks the number of disks, between 0 and 64
+     * @param sourcePeg the peg that holds all the disks
+     */
+    public PegState(int nrOfPegs, int nrOfDisks, int sourcePeg) {
+        this(nrOfPegs);
+        reset(nrOfDisks, sourcePeg);
+    }
+
+    /**
+     * Removes all the disks and stacks the given number of disks on the source peg.
+     *
+     * @param nrOfDisks the number of disks, between 0 and 64
+     * @param sourcePeg the peg that holds all the disks
+     */
+    public void reset(int nrOfDisks, int sourcePeg) {
+        if (nrOfDisks < 0 || nrOfDisks > MAX_DISKS) {
+            throw new IllegalArgumentException("The number of disks must be between 0 and " + MAX_DISKS);
+        }
+        checkPeg(sourcePeg);
+
+        Arrays.fill(pegs, 0L);
+        this.nrOfDisks = nrOfDisks;
+        pegs[sourcePeg] = allDisks(nrOfDisks);
+    }
+
+    /**
+     * Replaces the contents of this state with the contents of another state with the same number of pegs.
+     *
+     * @param other the state to be copied
+     */
+    public void copyFrom(PegState other) {
+        if (other.pegs.length != pegs.length) {
+            throw new IllegalArgumentException("Cannot copy a state with " + other.pegs.length + " pegs into one with " + pegs.length);
+        }
+        System.arraycopy(other.pegs, 0, pegs, 0, pegs.length);
+        this.nrOfDisks = other.nrOfDisks;
+    }
+
+    /**
+     * Places every disk d on the peg given by pegOfDisk[d].
+     *
+     * @param pegOfDisk the peg of every disk, indexed from the smallest disk
+     * @param nrOfDisks the number of disks to be read from the array
+     */
+    public void setConfiguration(int[] pegOfDisk, int nrOfDisks) {
+        if (nrOfDisks < 0 || nrOfDisks > MAX_DISKS) {
+            throw new IllegalArgumentException("The number of disks must be between 0 and " + MAX_DISKS);
+        }
+
+        Arrays.fill(pegs, 0L);
+        this.nrOfDisks = nrOfDisks;
+        for (int disk = 0; disk < nrOfDisks; disk++) {
+            checkPeg(pegOfDisk[disk]);
+            pegs[pegOfDisk[disk]] |= 1L << disk;
+        }
+    }
+
+    /**
+     * Overwrites the bitboards of a three peg state. The bitboards must be disjoint and hold
+     * exactly the disks of this state.
+     */
+    public void setPegs(long peg0, long peg1, long peg2) {
+        if (pegs.length != 3) {
+            throw new IllegalStateException("setPegs(long, long, long) needs a three peg state");
+        }
+        if ((peg0 & peg1) != 0 || (peg0 & peg2) != 0 || (peg1 & peg2) != 0
+                || (peg0 | peg1 | peg2) != allDisks(nrOfDisks)) {
+            throw new IllegalArgumentException("The bitboards don't describe a configuration of " + nrOfDisks + " disks");
+        }
+        pegs[0] = peg0;
+        pegs[1] = peg1;
+        pegs[2] = peg2;
+    }
+
+    /**
+     * Writes the peg of every disk into the given array.
+     *
+     * @param pegOfDisk the array that receives the peg of every disk, indexed from the smallest disk
+     */
+    public void getConfiguration(int[] pegOfDisk) {
+        for (int peg = 0; peg < pegs.length; peg++) {
+            long disks = pegs[peg];
+            while (disks != 0) {
+                pegOfDisk[Long.numberOfTrailingZeros(disks)] = peg;
+                disks &= disks - 1;
+            }
+        }
+    }
+
+    public int getNrOfPegs() {
+        return pegs.length;
+    }
+
+    public int getNrOfDisks() {
+        return nrOfDisks;
+    }
+
+    /**
+     * @param peg the index of the peg
+     * @return the bitboard of the peg
+     */
+    public long getPeg(int peg) {
+        return pegs[peg];
+    }
+
+    /**
+     * @param peg the index of the peg
+     * @return the top disk of the peg, or NO_DISK if the peg is empty
+     */
+    public int top(int peg) {
+        return Long.numberOfTrailingZeros(pegs[peg]);
+    }
+
+    public boolean isEmpty(int peg) {
+        return pegs[peg] == 0L;
+    }
+
+    public int size(int peg) {
+        return Long.bitCount(pegs[peg]);
+    }
+
+    /**
+     * @param disk the disk, 0 being the smallest one
+     * @return the peg the disk is on, or -1 if there is no such disk
+     */
+    public int pegOf(int disk) {
+        long bit = 1L << disk;
+        for (int peg = 0; peg < pegs.length; peg++) {
+            if ((pegs[peg] & bit) != 0) {
+                return peg;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A move is legal if the source peg is not empty and its top disk is smaller than the
+     * top disk of the destination peg (an empty peg has NO_DISK on top, which is larger than
+     * any disk).
+     *
+     * @param from the source peg
+     * @param to the destination peg
+     * @return true if the top disk of the source can be placed on the destination
+     */
+    public boolean canMove(int from, int to) {
+        return from != to && pegs[from] != 0L && top(from) < top(to);
+    }
+
+    /**
+     * Moves the top disk from one peg to the other without validating the move.
+     *
+     * @param from the source peg
+     * @param to the destination peg
+     * @return the disk that was moved
+     */
+    public int move(int from, int to) {
+        long source = pegs[from];
+        long topBit = source & -source;
+        pegs[from] = source ^ topBit;
+        pegs[to] |= topBit;
+        return Long.numberOfTrailingZeros(topBit);
+    }
+
+    /**
+     * @param peg the index of the peg
+     * @return true if all the disks are on the given peg
+     */
+    public boolean isComplete(int peg) {
+        return pegs[peg] == allDisks(nrOfDisks);
+    }
+
+    /**
+     * @param nrOfDisks the number of disks, between 0 and 64
+     * @return a bitboard with the given number of disks
+     */
+    public static long allDisks(int nrOfDisks) {
+        return nrOfDisks == MAX_DISKS ? -1L : (1L << nrOfDisks) - 1;
+    }
+
+    private void checkPeg(int peg) {
+        if (peg < 0 || peg >= pegs.length) {
+            throw new IllegalArgumentException("Invalid peg " + peg + " for " + pegs.length + " pegs");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PegState)) {
+            return false;
+        }
+        PegState other = (PegState) o;
+        return nrOfDisks == other.nrOfDisks && Arrays.equals(pegs, other.pegs);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(pegs) + nrOfDisks;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int peg = 0; peg < pegs.length; peg++) {
+            builder.append(peg).append(": ").append(Long.toBinaryString(pegs[peg])).append('\n');
+        }
+        return builder.toString();
+    }
+}
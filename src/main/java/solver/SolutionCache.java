@@ -0,0 +1,394 @@
+package solver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of solutions, keyed by the parameters of the puzzle. The solutions are kept
+ * in memory as PackedMoves, the least recently used ones being evicted once their total size
+ * exceeds the budget. If a directory is given, every computed solution is also stored there as
+ * a directed move log (see {@link MoveLog}), which is read back on a miss of the memory tier,
+ * also by later processes; the files are never evicted.
+ *
+ * Concurrent requests for the same key share one computation: the first one loads or solves
+ * the puzzle, the others wait for its result.
+ */
+public class SolutionCache {
+    private static final int ENTRY_OVERHEAD = 64;       // The approximate size of an entry besides its moves
+
+    private final long maxBytes;
+    private final Path directory;                       // The directory of the file tier, null for a memory only cache
+    private final LinkedHashMap<Key, PackedMoves> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<Key, CompletableFuture<PackedMoves>> pending = new ConcurrentHashMap<>();
+    private long bytes;                                 // The total size of the entries, guarded by entries
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder fileHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a memory only cache.
+     *
+     * @param maxBytes the budget of the memory tier in bytes, more than the size of an empty entry
+     */
+    public SolutionCache(long maxBytes) {
+        this(maxBytes, null);
+    }
+
+    /**
+     * @param maxBytes the budget of the memory tier in bytes, more than the size of an empty entry
+     * @param directory the directory of the file tier, created if needed; null for a memory only cache
+     */
+    public SolutionCache(long maxBytes, Path directory) {
+        if (maxBytes <= ENTRY_OVERHEAD) {
+            throw new IllegalArgumentException("The budget of the cache must be more than " + ENTRY_OVERHEAD + " bytes");
+        }
+        this.maxBytes = maxBytes;
+        this.directory = directory;
+    }
+
+    /**
+     * @param key the parameters of the puzzle
+     * @return true if the solution is small enough to be cached, i.e. if get() accepts the key
+     */
+    public boolean fits(Key key) {
+        long nrOfMoves = key.moveCount();
+        return Long.compareUnsigned(nrOfMoves, Math.min(Integer.MAX_VALUE - 8, maxBytes - ENTRY_OVERHEAD)) <= 0;
+    }
+
+    /**
+     * Returns the solution of the puzzle, from the memory tier, the file tier or the solver.
+     *
+     * @param key the parameters of the puzzle
+     * @return the moves of the solution
+     * @throws IllegalArgumentException if the solution doesn't fit in the budget
+     */
+    public PackedMoves get(Key key) {
+        if (!fits(key)) {
+            throw new IllegalArgumentException("The solution of " + key + " is larger than the cache");
+        }
+
+        PackedMoves moves;
+        synchronized (entries) {
+            moves = entries.get(key);
+        }
+        if (moves != null) {
+            hits.increment();
+            return moves;
+        }
+
+        // Only the request that registers the future computes the solution
+        CompletableFuture<PackedMoves> future = new CompletableFuture<>();
+        CompletableFuture<PackedMoves> existing = pending.putIfAbsent(key, future);
+        if (existing != null) {
+            hits.increment();
+            return join(existing);
+        }
+
+        try {
+            synchronized (entries) {
+                moves = entries.get(key);
+            }
+            if (moves == null) {
+                moves = load(key);
+                if (moves != null) {
+                    fileHits.increment();
+                } else {
+                    misses.increment();
+                    moves = solve(key);
+                    store(key, moves);
+                }
+                put(key, moves);
+            } else {
+                hits.increment();
+            }
+            future.complete(moves);
+            return moves;
+        } catch (RuntimeException ex) {
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            pending.remove(key, future);
+        }
+    }
+
+    /**
+     * Returns a source of the moves of the solution that gets them from the cache on its first
+     * poll, so that the solution is loaded or computed by the thread that reads the moves.
+     *
+     * @param key the parameters of the puzzle
+     * @return the moves of the solution
+     * @throws IllegalArgumentException if the solution doesn't fit in the budget
+     */
+    public MoveSource moveSource(Key key) {
+        if (!fits(key)) {
+            throw new IllegalArgumentException("The solution of " + key + " is larger than the cache");
+        }
+        return new MoveSource() {
+            private MoveSource moves;
+
+            @Override
+            public int poll() {
+                if (moves == null) {
+                    moves = get(key).moveSource();
+                }
+                return moves.poll();
+            }
+
+            @Override
+            public boolean isExhausted() {
+                return moves != null && moves.isExhausted();
+            }
+        };
+    }
+
+    private static PackedMoves join(CompletableFuture<PackedMoves> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
+        }
+    }
+
+    /**
+     * Adds an entry to the memory tier and evicts the least recently used entries that exceed the budget.
+     */
+    private void put(Key key, PackedMoves moves) {
+        synchronized (entries) {
+            if (entries.put(key, moves) == null) {
+                bytes += sizeOf(moves);
+            }
+
+            Iterator<Map.Entry<Key, PackedMoves>> iterator = entries.entrySet().iterator();
+            while (bytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<Key, PackedMoves> eldest = iterator.next();
+                if (eldest.getKey().equals(key)) {
+                    continue;
+                }
+                bytes -= sizeOf(eldest.getValue());
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static long sizeOf(PackedMoves moves) {
+        return moves.size() + ENTRY_OVERHEAD;
+    }
+
+    private static PackedMoves solve(Key key) {
+        byte[] codes = new byte[(int) key.moveCount()];
+        MoveSource source = key.variant.createMoveSource(key.nrOfDisks, key.nrOfPegs, key.source, key.target);
+        int size = 0;
+        int move;
+        while ((move = source.poll()) != MoveSource.NO_MOVE) {
+            codes[size++] = Move.packPegs(Move.from(move), Move.to(move));
+        }
+        if (size != codes.length) {
+            throw new IllegalStateException("The solver returned " + size + " moves instead of " + codes.length);
+        }
+        return new PackedMoves(key.nrOfDisks, key.nrOfPegs, key.source, codes);
+    }
+
+    /**
+     * Reads the solution from the file tier. A file that can't be read or doesn't match the key
+     * is ignored, and replaced once the solution has been computed again. So is a file whose
+     * moves don't gather the disks on the target, following the rules of the variant: the moves
+     * are replayed while they are loaded, since a damaged file may have a valid header.
+     *
+     * @return the solution, or null if it isn't stored
+     */
+    private PackedMoves load(Key key) {
+        if (directory == null) {
+            return null;
+        }
+        Path file = directory.resolve(key.fileName());
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try (MoveLogReader reader = new MoveLogReader(file)) {
+            if (reader.getEncoding() != MoveLog.ENCODING_DIRECTED || reader.getNrOfDisks() != key.nrOfDisks
+                    || reader.getNrOfPegs() != key.nrOfPegs || reader.getSource() != key.source
+                    || reader.getTarget() != key.target || reader.getNrOfMoves() != key.moveCount()) {
+                return null;
+            }
+
+            byte[] codes = new byte[(int) reader.getNrOfMoves()];
+            PegState state = new PegState(key.nrOfPegs, key.nrOfDisks, key.source);
+            for (int i = 0; i < codes.length; i++) {
+                int from = reader.from(i);
+                int to = reader.to(i);
+                if (from >= key.nrOfPegs || to >= key.nrOfPegs || !key.variant.isAllowed(from, to) || !state.canMove(from, to)) {
+                    return null;
+                }
+                state.move(from, to);
+                codes[i] = Move.packPegs(from, to);
+            }
+            return state.isComplete(key.target) ? new PackedMoves(key.nrOfDisks, key.nrOfPegs, key.source, codes) : null;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the solution to the file tier. The log is written to a temporary file which is then
+     * renamed, so that other processes never see a partial log.
+     */
+    private void store(Key key, PackedMoves moves) {
+        if (directory == null) {
+            return;
+        }
+
+        Path temporary = null;
+        try {
+            Files.createDirectories(directory);
+            temporary = Files.createTempFile(directory, key.fileName(), ".tmp");
+            try (MoveLogWriter writer = new MoveLogWriter(temporary, MoveLog.ENCODING_DIRECTED,
+                    key.nrOfDisks, key.nrOfPegs, key.source, key.target)) {
+                for (int i = 0; i < moves.size(); i++) {
+                    writer.append(moves.from(i), moves.to(i));
+                }
+            }
+            Files.move(temporary, directory.resolve(key.fileName()), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            System.err.println("Could not store the solution of " + key + ": " + ex.getMessage());
+            try {
+                if (temporary != null) {
+                    Files.deleteIfExists(temporary);
+                }
+            } catch (IOException ignored) {
+                // The temporary file is left behind
+            }
+        }
+    }
+
+    /**
+     * Removes all the entries of the memory tier; the file tier is kept.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    /**
+     * @return the number of requests served by the memory tier, including the ones that waited for another request
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of requests served by the file tier
+     */
+    public long getFileHits() {
+        return fileHits.sum();
+    }
+
+    /**
+     * @return the number of requests that had to be solved
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the number of bytes used by the memory tier
+     */
+    public long getBytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * The parameters of a puzzle.
+     */
+    public static final class Key {
+        private final int nrOfDisks;
+        private final int nrOfPegs;
+        private final int source;
+        private final int target;
+        private final Variant variant;
+
+        /**
+         * @param nrOfDisks the number of disks
+         * @param nrOfPegs the number of pegs
+         * @param source the peg on which the disks are initially placed
+         * @param target the peg on which the disks have to be gathered
+         * @param variant the rules of the puzzle
+         */
+        public Key(int nrOfDisks, int nrOfPegs, int source, int target, Variant variant) {
+            Objects.requireNonNull(variant);
+            if (nrOfDisks < 1 || nrOfDisks > variant.getMaxDisks()) {
+                throw new IllegalArgumentException("The number of disks must be between 1 and " + variant.getMaxDisks());
+            }
+            if (nrOfPegs < 3 || nrOfPegs > FrameStewart.MAX_PEGS || !variant.supportsPegs(nrOfPegs)) {
+                throw new IllegalArgumentException("The " + variant.getDisplayName() + " variant can't be played with " + nrOfPegs + " pegs");
+            }
+            if (source < 0 || target < 0 || source >= nrOfPegs || target >= nrOfPegs || source == target) {
+                throw new IllegalArgumentException("The source and target must be different pegs below " + nrOfPegs);
+            }
+            this.nrOfDisks = nrOfDisks;
+            this.nrOfPegs = nrOfPegs;
+            this.source = source;
+            this.target = target;
+            this.variant = variant;
+        }
+
+        long moveCount() {
+            return variant.moveCount(nrOfDisks, nrOfPegs, source, target);
+        }
+
+        String fileName() {
+            return variant.name().toLowerCase(Locale.ROOT) + "-" + nrOfDisks + "-" + nrOfPegs + "-" + source + "-" + target + ".hlog";
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return nrOfDisks == other.nrOfDisks && nrOfPegs == other.nrOfPegs && source == other.source
+                    && target == other.target && variant == other.variant;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(nrOfDisks, nrOfPegs, source, target, variant);
+        }
+
+        @Override
+        public String toString() {
+            return variant + " " + nrOfDisks + " disks, " + nrOfPegs + " pegs, " + source + " -> " + target;
+        }
+    }
+}
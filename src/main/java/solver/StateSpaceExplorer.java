@@ -0,0 +1,581 @@
+package solver;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Explores the graph of all the 3^n configurations of the three peg puzzle with a parallel
+ * breadth first search. A configuration is encoded as a base 3 number, the digit of weight 3^d
+ * being the peg of disk d (0 is the smallest disk), so the configurations are numbered from 0 to
+ * 3^n - 1 and a move changes a single digit.
+ *
+ * The search keeps 2 bits per configuration outside of the Java heap, in direct or memory mapped
+ * buffers: 0 while the configuration hasn't been reached, otherwise its distance modulo 3, plus 1.
+ * This is enough to recognise the neighbours that are one step closer to the start, so shortest
+ * paths are found by walking back from the target. With 20 disks the table takes 872 MB. The
+ * frontiers are explicit lists of codes; every frontier is expanded in parallel, claiming the
+ * configurations it reaches with a compare and set on the table. A search only clears the words
+ * of the table that the previous one reached, unless it reached too many of them to keep track;
+ * the whole table is then cleared in parallel.
+ *
+ * The moves follow the rules of a Variant. With the cyclic variant the graph is directed, so a
+ * predecessor whose distance is one less modulo 3 may well be farther from the start; instead of
+ * the distance, the 2 bits then hold the peg of the move that reached the configuration first,
+ * plus 1. Only one peg may be moved onto that peg, so the move is known, and walking back
+ * follows these moves.
+ *
+ * A configuration of a DataModel is encoded with encode(int[], int), from the array filled by
+ * DataModel.getConfiguration.
+ */
+public class StateSpaceExplorer implements AutoCloseable {
+    public static final int MAX_DISKS = 24;
+    private static final int STATES_PER_WORD = 32;                 // 2 bits per configuration
+    private static final int WORDS_PER_SEGMENT_BITS = 27;          // 2^27 longs = 1 GiB per buffer
+    public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 4096;   // Frontier slices expanded by a single task
+    private static final int CLEARED_WORDS_PER_TASK = 1 << 16;     // Words of the table cleared by a single task
+    private static final VarHandle WORDS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long[] POWERS_OF_3 = new long[MAX_DISKS + 1];
+
+    static {
+        POWERS_OF_3[0] = 1;
+        for (int i = 1; i <= MAX_DISKS; i++) {
+            POWERS_OF_3[i] = 3 * POWERS_OF_3[i - 1];
+        }
+    }
+
+    private final int nrOfDisks;
+    private final long nrOfStates;
+    private final boolean[] allowed = new boolean[9];   // Whether a disk may be moved from peg i / 3 to peg i % 3
+    private final int[] sourceOf = new int[3];          // The only peg from which a disk may be moved onto a peg, directed moves only
+    private boolean directed;                           // Set if a move can't always be undone
+    private final ByteBuffer[] segments;
+    private final FileChannel channel;                  // The file of the table, null for direct buffers
+    private final ForkJoinPool pool;
+    private final int sequentialThreshold;
+
+    // The frontiers of the last search, so that only the words they reached are cleared. They are
+    // dropped once they hold more configurations than 1/8 of the words of the table.
+    private final List<long[]> reached = new ArrayList<>();
+    private long nrOfReached;
+    private boolean reachedTooMany;
+
+    /**
+     * Creates an explorer whose table is kept in direct buffers; their size is limited by
+     * -XX:MaxDirectMemorySize.
+     *
+     * @param nrOfDisks the number of disks, between 1 and MAX_DISKS
+     */
+    public StateSpaceExplorer(int nrOfDisks) {
+        this(nrOfDisks, Variant.CLASSIC);
+    }
+
+    /**
+     * Creates an explorer whose table is kept in direct buffers; their size is limited by
+     * -XX:MaxDirectMemorySize.
+     *
+     * @param nrOfDisks the number of disks, between 1 and MAX_DISKS
+     * @param variant the rules of the moves
+     */
+    public StateSpaceExplorer(int nrOfDisks, Variant variant) {
+        this(nrOfDisks, variant, ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_THRESHOLD);
+    }
+
+    /**
+     * Creates an explorer whose table is kept in direct buffers; their size is limited by
+     * -XX:MaxDirectMemorySize.
+     *
+     * @param nrOfDisks the number of disks, between 1 and MAX_DISKS
+     * @param variant the rules of the moves
+     * @param pool the pool that expands the large frontiers
+     * @param sequentialThreshold the largest slice of a frontier that is expanded by a single task
+     */
+    public StateSpaceExplorer(int nrOfDisks, Variant variant, ForkJoinPool pool, int sequentialThreshold) {
+        this.nrOfDisks = checkDisks(nrOfDisks);
+        setRules(variant);
+        this.nrOfStates = POWERS_OF_3[nrOfDisks];
+        this.channel = null;
+        this.segments = new ByteBuffer[segmentCount()];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = ByteBuffer.allocateDirect(segmentSize(i)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        this.pool = pool;
+        this.sequentialThreshold = checkThreshold(sequentialThreshold);
+    }
+
+    /**
+     * Creates an explorer whose table is kept in a memory mapped file, so it may be larger than
+     * the physical memory. The file is overwritten.
+     *
+     * @param nrOfDisks the number of disks, between 1 and MAX_DISKS
+     * @param file the file of the table
+     * @throws IOException if the file can't be created or mapped
+     */
+    public StateSpaceExplorer(int nrOfDisks, Path file) throws IOException {
+        this(nrOfDisks, Variant.CLASSIC, file);
+    }
+
+    /**
+     * Creates an explorer whose table is kept in a memory mapped file, so it may be larger than
+     * the physical memory. The file is overwritten.
+     *
+     * @param nrOfDisks the number of disks, between 1 and MAX_DISKS
+     * @param variant the rules of the moves
+     * @param file the file of the table
+     * @throws IOException if the file can't be created or mapped
+     */
+    public StateSpaceExplorer(int nrOfDisks, Variant variant, Path file) throws IOException {
+        this.nrOfDisks = checkDisks(nrOfDisks);
+        setRules(variant);
+        this.nrOfStates = POWERS_OF_3[nrOfDisks];
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.segments = new ByteBuffer[segmentCount()];
+        long position = 0;
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, segmentSize(i)).order(ByteOrder.LITTLE_ENDIAN);
+            position += segmentSize(i);
+        }
+        this.pool = ForkJoinPool.commonPool();
+        this.sequentialThreshold = DEFAULT_SEQUENTIAL_THRESHOLD;
+    }
+
+    private void setRules(Variant variant) {
+        for (int from = 0; from < 3; from++) {
+            for (int to = 0; to < 3; to++) {
+                allowed[3 * from + to] = variant.isAllowed(from, to);
+            }
+        }
+
+        for (int to = 0; to < 3; to++) {
+            int nrOfSources = 0;
+            for (int from = 0; from < 3; from++) {
+                directed |= allowed[3 * from + to] != allowed[3 * to + from];
+                if (allowed[3 * from + to]) {
+                    sourceOf[to] = from;
+                    nrOfSources++;
+                }
+            }
+            if (directed && nrOfSources != 1) {
+                throw new IllegalArgumentException("The moves of the " + variant.getDisplayName() + " variant can't be walked back");
+            }
+        }
+    }
+
+    public int getNrOfDisks() {
+        return nrOfDisks;
+    }
+
+    /**
+     * @param nrOfDisks the number of disks
+     * @return the number of configurations, 3^nrOfDisks
+     */
+    public static long stateCount(int nrOfDisks) {
+        return POWERS_OF_3[checkDisks(nrOfDisks)];
+    }
+
+    /**
+     * @param pegOfDisk the peg of every disk, indexed from the smallest disk
+     * @param nrOfDisks the number of disks
+     * @return the code of the configuration
+     */
+    public static long encode(int[] pegOfDisk, int nrOfDisks) {
+        checkDisks(nrOfDisks);
+        long code = 0;
+        for (int disk = nrOfDisks - 1; disk >= 0; disk--) {
+            if (pegOfDisk[disk] < 0 || pegOfDisk[disk] > 2) {
+                throw new IllegalArgumentException("Invalid peg of disk " + disk + ": " + pegOfDisk[disk]);
+            }
+            code = 3 * code + pegOfDisk[disk];
+        }
+        return code;
+    }
+
+    /**
+     * @param code the code of a configuration
+     * @param nrOfDisks the number of disks
+     * @param pegOfDisk receives the peg of every disk, indexed from the smallest disk
+     */
+    public static void decode(long code, int nrOfDisks, int[] pegOfDisk) {
+        for (int disk = 0; disk < nrOfDisks; disk++) {
+            pegOfDisk[disk] = (int) (code % 3);
+            code /= 3;
+        }
+    }
+
+    /**
+     * @param state a three peg state
+     * @return the code of its configuration
+     */
+    public static long encode(PegState state) {
+        if (state.getNrOfPegs() != 3) {
+            throw new IllegalArgumentException("Only three peg states can be encoded");
+        }
+        int[] pegOfDisk = new int[state.getNrOfDisks()];
+        state.getConfiguration(pegOfDisk);
+        return encode(pegOfDisk, state.getNrOfDisks());
+    }
+
+    /**
+     * Computes the distance from the start to every configuration.
+     *
+     * @param start the code of the configuration to start from
+     * @return the distribution of the distances
+     */
+    public ExplorationResult explore(long start) {
+        checkState(start);
+        LevelCounts levels = new LevelCounts();
+        long[] frontier = search(start, -1, levels);
+        return new ExplorationResult(nrOfDisks, start, levels.toArray(), frontier[0]);
+    }
+
+    /**
+     * Finds one of the shortest sequences of moves between two configurations. The search stops
+     * as soon as the target is reached.
+     *
+     * @param from the code of the first configuration
+     * @param to the code of the last configuration
+     * @return the moves, encoded with {@link Move#encode(int, int, int)}
+     */
+    public int[] shortestPath(long from, long to) {
+        checkState(from);
+        checkState(to);
+        LevelCounts levels = new LevelCounts();
+        search(from, to, levels);
+        if (get(to) == 0) {
+            throw new IllegalArgumentException("Configuration " + to + " can't be reached from " + from);
+        }
+        int distance = levels.size - 1;
+        int[] path = new int[distance];
+        long current = to;
+
+        if (directed) {
+            // Walk back the moves that reached every configuration first
+            for (int d = distance; d > 0; d--) {
+                int peg = get(current) - 1;
+                int disk = topOf(current, peg);
+                path[d - 1] = Move.encode(disk, sourceOf[peg], peg);
+                current += (sourceOf[peg] - peg) * POWERS_OF_3[disk];
+            }
+            return path;
+        }
+
+        // Walk back from the target: a predecessor whose distance is one less modulo 3 is one
+        // step closer to the start, because only the levels up to the target have been reached
+        int[] tops = new int[3];
+        for (int d = distance; d > 0; d--) {
+            int previousMark = (d - 1) % 3 + 1;
+            topsOf(current, tops);
+            int move = -1;
+            for (int a = 0; a < 3 && move < 0; a++) {
+                for (int b = 0; b < 3 && move < 0; b++) {
+                    if (a != b && tops[a] < tops[b] && allowed[3 * b + a]) {
+                        long neighbour = current + (b - a) * POWERS_OF_3[tops[a]];
+                        if (get(neighbour) == previousMark) {
+                            // The move from the neighbour to the current configuration
+                            move = Move.encode(tops[a], b, a);
+                            current = neighbour;
+                        }
+                    }
+                }
+            }
+            path[d - 1] = move;
+        }
+        return path;
+    }
+
+    /**
+     * Runs the breadth first search until all the configurations are reached or the target is
+     * reached, and counts the configurations of every level.
+     *
+     * @return the last frontier
+     */
+    private long[] search(long start, long target, LevelCounts levels) {
+        clear();
+        claim(start, 1);
+        long[] frontier = {start};
+        track(frontier);
+        levels.add(1);
+
+        // Every level is marked with its distance modulo 3, plus 1 (see expand for directed moves)
+        for (int level = 1; target < 0 || get(target) == 0; level++) {
+            int mark = level % 3 + 1;
+            long[] next = frontier.length <= sequentialThreshold
+                    ? expand(frontier, 0, frontier.length, mark)
+                    : pool.invoke(new ExpandTask(frontier, 0, frontier.length, mark));
+            if (next.length == 0) {
+                break;
+            }
+            frontier = next;
+            track(frontier);
+            levels.add(next.length);
+        }
+        return frontier;
+    }
+
+    /**
+     * Claims the unreached neighbours of a slice of the frontier.
+     *
+     * @return the claimed neighbours
+     */
+    private long[] expand(long[] frontier, int from, int to, int mark) {
+        long[] next = new long[Math.max(16, 2 * (to - from))];
+        int size = 0;
+        int[] tops = new int[3];
+
+        for (int i = from; i < to; i++) {
+            long state = frontier[i];
+            topsOf(state, tops);
+            for (int a = 0; a < 3; a++) {
+                for (int b = 0; b < 3; b++) {
+                    if (a != b && tops[a] < tops[b] && allowed[3 * a + b]) {
+                        long neighbour = state + (b - a) * POWERS_OF_3[tops[a]];
+                        // With directed moves the mark is the destination of the move instead of the distance
+                        if (claim(neighbour, directed ? b + 1 : mark)) {
+                            if (size == next.length) {
+                                next = Arrays.copyOf(next, 2 * size);
+                            }
+                            next[size++] = neighbour;
+                        }
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(next, size);
+    }
+
+    private class ExpandTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] frontier;
+        private final int from;
+        private final int to;
+        private final int mark;
+
+        ExpandTask(long[] frontier, int from, int to, int mark) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.mark = mark;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= sequentialThreshold) {
+                return expand(frontier, from, to, mark);
+            }
+            int middle = (from + to) >>> 1;
+            ExpandTask right = new ExpandTask(frontier, middle, to, mark);
+            right.fork();
+            long[] left = new ExpandTask(frontier, from, middle, mark).compute();
+            long[] rightResult = right.join();
+
+            long[] result = Arrays.copyOf(left, left.length + rightResult.length);
+            System.arraycopy(rightResult, 0, result, left.length, rightResult.length);
+            return result;
+        }
+    }
+
+    /**
+     * Finds the top disk of every peg; the top of an empty peg is nrOfDisks.
+     */
+    private void topsOf(long state, int[] tops) {
+        tops[0] = tops[1] = tops[2] = nrOfDisks;
+        int found = 0;
+        for (int disk = 0; disk < nrOfDisks && found < 3; disk++) {
+            int peg = (int) (state % 3);
+            state /= 3;
+            if (tops[peg] == nrOfDisks) {
+                tops[peg] = disk;
+                found++;
+            }
+        }
+    }
+
+    /**
+     * @return the smallest disk on the given peg
+     */
+    private int topOf(long state, int peg) {
+        for (int disk = 0; disk < nrOfDisks; disk++) {
+            if (state % 3 == peg) {
+                return disk;
+            }
+            state /= 3;
+        }
+        throw new IllegalStateException("Peg " + peg + " is empty");
+    }
+
+    /**
+     * @return the 2 bit mark of the configuration
+     */
+    private int get(long state) {
+        long word = state / STATES_PER_WORD;
+        long bits = (long) WORDS.getVolatile(segments[(int) (word >>> WORDS_PER_SEGMENT_BITS)], offsetOf(word));
+        return (int) (bits >>> shiftOf(state)) & 3;
+    }
+
+    /**
+     * Sets the mark of a configuration that hasn't been reached yet.
+     *
+     * @return true if this call reached the configuration, false if it was reached before
+     */
+    private boolean claim(long state, int mark) {
+        long word = state / STATES_PER_WORD;
+        ByteBuffer segment = segments[(int) (word >>> WORDS_PER_SEGMENT_BITS)];
+        int offset = offsetOf(word);
+        int shift = shiftOf(state);
+
+        long bits = (long) WORDS.getVolatile(segment, offset);
+        while (((bits >>> shift) & 3) == 0) {
+            if (WORDS.compareAndSet(segment, offset, bits, bits | (long) mark << shift)) {
+                return true;
+            }
+            bits = (long) WORDS.getVolatile(segment, offset);
+        }
+        return false;
+    }
+
+    private static int offsetOf(long word) {
+        return (int) (word & ((1L << WORDS_PER_SEGMENT_BITS) - 1)) << 3;
+    }
+
+    private static int shiftOf(long state) {
+        return (int) (state % STATES_PER_WORD) * 2;
+    }
+
+    /**
+     * Marks every configuration as not reached.
+     */
+    private void clear() {
+        if (reachedTooMany) {
+            pool.invoke(new ClearTask(0, wordCount()));
+        } else {
+            // Only the words holding the configurations of the last search are set
+            for (long[] frontier : reached) {
+                for (long state : frontier) {
+                    long word = state / STATES_PER_WORD;
+                    segments[(int) (word >>> WORDS_PER_SEGMENT_BITS)].putLong(offsetOf(word), 0L);
+                }
+            }
+        }
+        reached.clear();
+        nrOfReached = 0;
+        reachedTooMany = false;
+    }
+
+    /**
+     * Remembers the configurations of a frontier, until clearing them one by one would cost more
+     * than clearing the whole table.
+     */
+    private void track(long[] frontier) {
+        if (reachedTooMany) {
+            return;
+        }
+        nrOfReached += frontier.length;
+        if (nrOfReached > wordCount() / 8) {
+            reached.clear();
+            reachedTooMany = true;
+        } else {
+            reached.add(frontier);
+        }
+    }
+
+    private class ClearTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;                  // Exclusive
+
+        ClearTask(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CLEARED_WORDS_PER_TASK) {
+                long middle = (from + to) >>> 1;
+                invokeAll(new ClearTask(from, middle), new ClearTask(middle, to));
+                return;
+            }
+            for (long word = from; word < to; word++) {
+                segments[(int) (word >>> WORDS_PER_SEGMENT_BITS)].putLong(offsetOf(word), 0L);
+            }
+        }
+    }
+
+    private long wordCount() {
+        return (nrOfStates + STATES_PER_WORD - 1) / STATES_PER_WORD;
+    }
+
+    private int segmentCount() {
+        long words = wordCount();
+        return (int) ((words + (1L << WORDS_PER_SEGMENT_BITS) - 1) >>> WORDS_PER_SEGMENT_BITS);
+    }
+
+    private int segmentSize(int segment) {
+        long words = wordCount();
+        long wordsInSegment = Math.min(1L << WORDS_PER_SEGMENT_BITS, words - ((long) segment << WORDS_PER_SEGMENT_BITS));
+        return (int) (wordsInSegment * 8);
+    }
+
+    private void checkState(long state) {
+        if (state < 0 || state >= nrOfStates) {
+            throw new IllegalArgumentException("Invalid configuration code: " + state);
+        }
+    }
+
+    private static int checkThreshold(int sequentialThreshold) {
+        if (sequentialThreshold <= 0) {
+            throw new IllegalArgumentException("The sequential threshold must be positive");
+        }
+        return sequentialThreshold;
+    }
+
+    private static int checkDisks(int nrOfDisks) {
+        if (nrOfDisks < 1 || nrOfDisks > MAX_DISKS) {
+            throw new IllegalArgumentException("The number of disks must be between 1 and " + MAX_DISKS);
+        }
+        return nrOfDisks;
+    }
+
+    /**
+     * Closes the file of the table, if any. The buffers are released by the garbage collector.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * A growable list of the number of configurations on every level.
+     */
+    private static class LevelCounts {
+        private long[] counts = new long[64];
+        private int size;
+
+        void add(long count) {
+            if (size == counts.length) {
+                counts = Arrays.copyOf(counts, 2 * size);
+            }
+            counts[size++] = count;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(counts, size);
+        }
+    }
+}
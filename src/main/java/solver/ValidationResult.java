@@ -0,0 +1,58 @@
+package solver;
+
+/**
+ * The result of validating a move log with {@link MoveValidator}: whether all the moves are
+ * legal and whether they gather all the disks on the target peg.
+ */
+public class ValidationResult {
+    public static final long NO_ILLEGAL_MOVE = -1;
+
+    private final long nrOfMoves;               // The number of moves of the log (unsigned)
+    private final long firstIllegalMove;        // The 0-based position of the first illegal move, or NO_ILLEGAL_MOVE
+    private final boolean goalReached;          // Set if the moves are legal and end with all the disks on the target peg
+
+    ValidationResult(long nrOfMoves, long firstIllegalMove, boolean goalReached) {
+        this.nrOfMoves = nrOfMoves;
+        this.firstIllegalMove = firstIllegalMove;
+        this.goalReached = goalReached;
+    }
+
+    /**
+     * @return the number of moves of the log (unsigned)
+     */
+    public long getNrOfMoves() {
+        return nrOfMoves;
+    }
+
+    public boolean isLegal() {
+        return firstIllegalMove == NO_ILLEGAL_MOVE;
+    }
+
+    /**
+     * @return the 0-based position of the first illegal move in the log, or NO_ILLEGAL_MOVE; the
+     *         moves before it are legal, and the moves after it are not checked
+     */
+    public long getFirstIllegalMove() {
+        return firstIllegalMove;
+    }
+
+    public boolean isGoalReached() {
+        return goalReached;
+    }
+
+    /**
+     * @return true if all the moves are legal and the disks end up on the target peg
+     */
+    public boolean isValid() {
+        return isLegal() && goalReached;
+    }
+
+    @Override
+    public String toString() {
+        if (!isLegal()) {
+            return "illegal move at position " + Long.toUnsignedString(firstIllegalMove) + " of "
+                    + Long.toUnsignedString(nrOfMoves);
+        }
+        return Long.toUnsignedString(nrOfMoves) + " legal moves, " + (goalReached ? "goal reached" : "goal not reached");
+    }
+}
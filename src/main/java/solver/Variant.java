@@ -0,0 +1,151 @@
+package solver;
+
+/**
+ * The rules of the puzzle, i.e. which moves are allowed besides placing a smaller disk on a
+ * bigger one. Every variant knows how to enumerate its solution. The restricted variants are
+ * only played with 3 pegs.
+ */
+public enum Variant {
+    /**
+     * A disk may be moved between any two pegs. With more than 3 pegs the solution is the
+     * Frame-Stewart one.
+     */
+    CLASSIC("Classic", PegState.MAX_DISKS) {
+        @Override
+        public boolean isAllowed(int from, int to) {
+            return from != to;
+        }
+
+        @Override
+        public long moveCount(int nrOfDisks, int nrOfPegs, int source, int destination) {
+            return nrOfPegs == 3 ? HanoiSolver.moveCount(nrOfDisks) : FrameStewart.moveCount(nrOfDisks, nrOfPegs);
+        }
+
+        @Override
+        public MoveSource createMoveSource(int nrOfDisks, int nrOfPegs, int source, int destination) {
+            return nrOfPegs == 3
+                    ? new ClassicMoveCursor(nrOfDisks, source, destination)
+                    : new FrameStewartCursor(nrOfDisks, nrOfPegs, source, destination);
+        }
+    },
+
+    /**
+     * A disk may only be moved between the middle peg and one of the outer pegs.
+     */
+    ADJACENT("Adjacent", AdjacentMoveCursor.MAX_DISKS) {
+        @Override
+        public boolean isAllowed(int from, int to) {
+            return from != to && (from == 1 || to == 1);
+        }
+
+        @Override
+        public long moveCount(int nrOfDisks, int nrOfPegs, int source, int destination) {
+            checkPegs(nrOfPegs);
+            return AdjacentMoveCursor.moveCount(nrOfDisks, source, destination);
+        }
+
+        @Override
+        public MoveSource createMoveSource(int nrOfDisks, int nrOfPegs, int source, int destination) {
+            checkPegs(nrOfPegs);
+            return new AdjacentMoveCursor(nrOfDisks, source, destination);
+        }
+    },
+
+    /**
+     * A disk may only be moved clockwise: from peg 0 to 1, from 1 to 2 and from 2 to 0.
+     */
+    CYCLIC("Cyclic", CyclicMoveCursor.MAX_DISKS) {
+        @Override
+        public boolean isAllowed(int from, int to) {
+            return to == CyclicMoveCursor.next(from);
+        }
+
+        @Override
+        public long moveCount(int nrOfDisks, int nrOfPegs, int source, int destination) {
+            checkPegs(nrOfPegs);
+            return CyclicMoveCursor.moveCount(nrOfDisks, source, destination);
+        }
+
+        @Override
+        public MoveSource createMoveSource(int nrOfDisks, int nrOfPegs, int source, int destination) {
+            checkPegs(nrOfPegs);
+            return new CyclicMoveCursor(nrOfDisks, source, destination);
+        }
+    };
+
+    private final String displayName;
+    private final int maxDisks;
+
+    Variant(String displayName, int maxDisks) {
+        this.displayName = displayName;
+        this.maxDisks = maxDisks;
+    }
+
+    /**
+     * @return the name shown to the user
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @return the largest number of disks whose number of moves fits in an unsigned long
+     */
+    public int getMaxDisks() {
+        return maxDisks;
+    }
+
+    /**
+     * @param nrOfPegs the number of pegs
+     * @return true if the variant can be played with the given number of pegs
+     */
+    public boolean supportsPegs(int nrOfPegs) {
+        return this == CLASSIC ? nrOfPegs >= 3 : nrOfPegs == 3;
+    }
+
+    /**
+     * @param displayName the name shown to the user
+     * @return the variant with the given name
+     */
+    public static Variant fromDisplayName(String displayName) {
+        for (Variant variant : values()) {
+            if (variant.displayName.equalsIgnoreCase(displayName)) {
+                return variant;
+            }
+        }
+        throw new IllegalArgumentException("Unknown variant: " + displayName);
+    }
+
+    /**
+     * Checks the rule of the variant only; the sizes of the disks are checked separately.
+     *
+     * @param from the source peg
+     * @param to the destination peg
+     * @return true if a disk may be moved from one peg to the other
+     */
+    public abstract boolean isAllowed(int from, int to);
+
+    /**
+     * @param nrOfDisks the number of disks
+     * @param nrOfPegs the number of pegs
+     * @param source the peg on which the disks are initially placed
+     * @param destination the peg on which the disks have to be gathered
+     * @return the number of moves of the solution (unsigned)
+     */
+    public abstract long moveCount(int nrOfDisks, int nrOfPegs, int source, int destination);
+
+    /**
+     * @param nrOfDisks the number of disks
+     * @param nrOfPegs the number of pegs
+     * @param source the peg on which the disks are initially placed
+     * @param destination the peg on which the disks have to be gathered
+     * @return the moves of the solution, generated lazily
+     */
+    public abstract MoveSource createMoveSource(int nrOfDisks, int nrOfPegs, int source, int destination);
+
+    private static void checkPegs(int nrOfPegs) {
+        if (nrOfPegs != 3) {
+            throw new IllegalArgumentException("The restricted variants are played with 3 pegs");
+        }
+    }
+}
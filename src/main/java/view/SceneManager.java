@@ -0,0 +1,194 @@
+package view;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import model.DataModel;
+import view.automatic.AutomaticModeController;
+import journal.SavedGame;
+import view.manual.ManualModeController;
+import view.menu.MenuViewController;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Switches the stage of the application between the menu and the two game modes. Every view is
+ * loaded from its FXML file once: the menu when the application starts, the game modes on a
+ * background thread while the menu is showing. The roots, the controllers and the scenes are then
+ * reused, and a game is started by resetting the controller of its mode with a new model.
+ *
+ * All the methods, except the loading itself, are called on the FX thread.
+ */
+public class SceneManager {
+    private static final String TITLE = "Towers of Hanoi";
+
+    private static SceneManager instance;
+
+    /**
+     * A loaded view: its root, its controller and, once it has been shown, its scene.
+     */
+    private static class View<C> {
+        final Parent root;
+        final C controller;
+        final double width;
+        final double height;
+        Scene scene;
+
+        View(Parent root, C controller, double width, double height) {
+            this.root = root;
+            this.controller = controller;
+            this.width = width;
+            this.height = height;
+        }
+
+        Scene getScene() {
+            if (scene == null) {
+                scene = new Scene(root, width, height);
+            }
+            return scene;
+        }
+    }
+
+    private final Stage stage;
+    private final View<MenuViewController> menuView;
+    private final CompletableFuture<View<ManualModeController>> manualModeView;
+    private final CompletableFuture<View<AutomaticModeController>> automaticModeView;
+
+    private SceneManager(Stage stage) throws IOException {
+        this.stage = stage;
+        this.menuView = load("/fxml/menuView.fxml", 500, 260);
+
+        // FXML may be loaded on any thread, as long as the nodes are not part of a shown scene yet
+        ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "towers-of-hanoi-scene-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.manualModeView = CompletableFuture.supplyAsync(() -> loadUnchecked("/fxml/manualMode.fxml"), loader);
+        this.automaticModeView = CompletableFuture.supplyAsync(() -> loadUnchecked("/fxml/automaticMode.fxml"), loader);
+        loader.shutdown();
+    }
+
+    /**
+     * Creates the scene manager of the application and shows the menu on the given stage.
+     *
+     * @param stage the primary stage of the application
+     * @throws IOException if the menu can't be loaded
+     */
+    public static void initialize(Stage stage) throws IOException {
+        if (!Platform.isFxApplicationThread()) {
+            throw new IllegalStateException("The scene manager must be initialized on the FX thread");
+        }
+        instance = new SceneManager(stage);
+        instance.showMenu();
+    }
+
+    public static SceneManager getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("The scene manager has not been initialized");
+        }
+        return instance;
+    }
+
+    /**
+     * Shows the menu, offering to resume the last manual game if it wasn't finished.
+     */
+    public void showMenu() {
+        menuView.controller.refresh();
+        show(menuView);
+    }
+
+    /**
+     * Starts a manual game with the given model.
+     *
+     * @param model the model of the new game, with the disks on the left tower
+     */
+    public void showManualMode(DataModel model) {
+        View<ManualModeController> view = await(manualModeView);
+        if (view != null) {
+            view.controller.initModel(model);
+            show(view);
+        }
+    }
+
+    /**
+     * Resumes a manual game that was interrupted.
+     *
+     * @param model the model of the game, with the disks placed as they were
+     * @param savedGame the game recovered from the journal
+     */
+    public void resumeManualMode(DataModel model, SavedGame savedGame) {
+        View<ManualModeController> view = await(manualModeView);
+        if (view != null) {
+            view.controller.initModel(model, savedGame);
+            show(view);
+        }
+    }
+
+    /**
+     * Starts an automatic game with the given model.
+     *
+     * @param model the model of the new game, with the disks on the left tower
+     */
+    public void showAutomaticMode(DataModel model) {
+        View<AutomaticModeController> view = await(automaticModeView);
+        if (view != null) {
+            view.controller.initModel(model);
+            show(view);
+        }
+    }
+
+    /**
+     * Stops the background work of the game modes; called when the application exits. A view that
+     * is still loading, or couldn't be loaded, has nothing to stop.
+     */
+    public void shutdown() {
+        if (automaticModeView.isDone() && !automaticModeView.isCompletedExceptionally()) {
+            automaticModeView.join().controller.shutdown();
+        }
+    }
+
+    private void show(View<?> view) {
+        stage.setTitle(TITLE);
+        stage.setScene(view.getScene());
+        stage.centerOnScreen();
+        stage.show();
+    }
+
+    /**
+     * Waits for a view that is loaded in the background; this only blocks if the view is requested
+     * right after the application has started.
+     *
+     * @return the view, or null if it couldn't be loaded
+     */
+    private static <C> View<C> await(CompletableFuture<View<C>> view) {
+        try {
+            return view.join();
+        } catch (CompletionException ex) {
+            System.out.println("Load FXML exception: " + ex.getCause().getMessage());
+            ex.getCause().printStackTrace();
+            return null;
+        }
+    }
+
+    private static <C> View<C> load(String resource, double width, double height) throws IOException {
+        FXMLLoader loader = new FXMLLoader(SceneManager.class.getResource(resource));
+        Parent root = loader.load();
+        return new View<>(root, loader.getController(), width, height);
+    }
+
+    private static <C> View<C> loadUnchecked(String resource) {
+        try {
+            return load(resource, 1200, 600);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
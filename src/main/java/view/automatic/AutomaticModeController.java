@@ -2,35 +2,90 @@ package view.automatic;
 
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
-import javafx.collections.ObservableList;
-import javafx.concurrent.Task;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
-import javafx.stage.Stage;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
 import javafx.util.Duration;
+import metrics.HanoiMetrics;
+import metrics.SessionClock;
 import model.DataModel;
 import model.Disk;
-import model.Tower;
+import solver.ClassicMoveCursor;
+import solver.MoveSource;
+import solver.MoveQuery;
+import solver.PegState;
+import solver.SolutionCache;
+import solver.Variant;
+import view.SceneManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class AutomaticModeController implements PlaybackEngine.Target {
+    public static final int MAX_NODE_DISKS = 8;                   // Games with more disks are drawn on a canvas
+    private static final double DEFAULT_BASE_WIDTH = 240.0;      // The width of the bases in the FXML
+    private static final long SOLUTION_CACHE_SIZE = 64L << 20;   // The budget of the cached solutions, 64 MiB
 
-import java.io.IOException;
-
-public class AutomaticModeController {
     private DataModel model;
 
     @FXML
     Button startButton;
 
+    @FXML
+    Button pauseButton;
+
+    @FXML
+    Button stepButton;
+
+    @FXML
+    Button restartButton;
+
     @FXML
     Button exitGameButton;
 
     @FXML
     Label timerLabel;
 
+    @FXML
+    Slider speedSlider;
+
+    @FXML
+    Label speedLabel;
+
+    @FXML
+    Slider seekSlider;
+
+    @FXML
+    Label moveLabel;
+
+    @FXML
+    TextField moveTextField;
+
+    @FXML
+    Button jumpButton;
+
+    @FXML
+    Button directionButton;
+
+    @FXML
+    BorderPane rootPane;
+
+    @FXML
+    GridPane towerGrid;
+
     @FXML
     VBox leftVBox;
 
@@ -40,292 +95,482 @@ public class AutomaticModeController {
     @FXML
     VBox rightVBox;
 
-    // Used for recording time in seconds (since the
-    // game was started).
-    public static int time = 0;
+    // Refreshes the timerLabel once per second
+    private Timeline timer;
+
+    // Measures the time the solver has been playing
+    private final SessionClock clock = new SessionClock();
+
+    // Plays the moves of the solution back on the FX pulse
+    private PlaybackEngine playbackEngine;
+
+    // Owns the solver worker and the playback of this game session
+    private SolverService solverService;
+
+    // The Frame-Stewart and restricted variant solutions of the previous games, shared by the
+    // games of the view so that they are only solved once
+    private final SolutionCache solutions = new SolutionCache(SOLUTION_CACHE_SIZE);
+
+    // The state of the game, updated by every move that is played back
+    private PegState state;
+
+    // Draws the towers: with the disks of the model, or on a canvas for large numbers of disks
+    private TowerRenderer renderer;
+
+    private long nrOfMoves;                 // The number of moves of the solution (unsigned)
+    private long position;                  // The number of moves of the solution that have been made (unsigned)
+    private boolean backward;               // True if the moves are played backward, undoing the solution
+    private boolean resumeAfterSeek;        // Set if the playback was interrupted by dragging the seek slider
+    private boolean updatingSeekSlider;     // Set while the seek slider follows the playback
+
+    // The column constraints and the number of towers of the FXML
+    private List<ColumnConstraints> defaultColumns;
+    private int nrOfFxmlColumns;
 
     /**
-     * This function is used to initialize the DataModel.
-     * It adds the disks on the left tower as children of the leftVBox and adds an event handler
-     * for when the user presses the start button. Pressing the start button calls the function
-     * that iteratively solves the Towers of Hanoi puzzle.
-     *
-     * @param model reference to the instance of the DataModel that is to be initialized
+     * Called once, when the view is loaded: creates the timer and the solver service and adds the
+     * event handlers for the speed slider and the buttons. The view is reused for every automatic
+     * game; the game itself is set up by initModel.
      */
-    public void initModel(DataModel model) {
-        if (this.model != null) {
-            throw new IllegalStateException("Model can only be initialized once.");
-        }
+    @FXML
+    public void initialize() {
+        // The towers and the column constraints of the FXML, restored for every game
+        defaultColumns = new ArrayList<>(towerGrid.getColumnConstraints());
+        nrOfFxmlColumns = towerGrid.getChildren().size();
 
-        this.model = model;
+        // This thread is called every one second and it shows
+        // the time duration of the game in the timerLabel.
+        timer = new Timeline(new KeyFrame(Duration.seconds(1), event ->
+                timerLabel.setText("" + formatDuration(clock.getElapsedSeconds()))));
+        timer.setCycleCount(Timeline.INDEFINITE);
 
-        // Add the disks to the left VBox
-        leftVBox.getChildren().addAll(model.getLeftTower().getDisksOnTower());
+        // The solver worker only publishes moves; the model and the disks are only
+        // changed on the FX thread, when the playback engine drains the buffer
+        solverService = new SolverService(this);
+        playbackEngine = solverService.getPlaybackEngine();
 
-        Tower leftTower = model.getLeftTower();
-        Tower middleTower = model.getMiddleTower();
-        Tower rightTower = model.getRightTower();
+        // The speed can be changed while playing
+        speedSlider.valueProperty().addListener((observable, oldValue, newValue) -> updateSpeed(newValue.doubleValue()));
+        updateSpeed(speedSlider.getValue());
 
-        // This thread is called every one second and it updates
-        // the time duration of the game in the timerLabel.
-        Timeline timer = new Timeline(new KeyFrame(Duration.seconds(1), event -> {
-            AutomaticModeController.time++;
-            timerLabel.setText("" + formatDuration(AutomaticModeController.time));
-        }));
-
-        // Inner class that provides a task which can be used by the background thread
-        // that updates the UI
-        class TowersOfHanoiTask extends Task<Void> {
-            @Override
-            protected Void call() throws Exception {
-                TowerOfHanoi(model.getNrOfDisks(), leftTower, middleTower, rightTower);
-                timer.stop();
-                return null;
+        startButton.setOnMousePressed(event -> {
+            // Start solving, unless the solver is already running
+            if (!solverService.isStarted()) {
+                startSolver();
             }
-        }
+        });
 
-        startButton.setOnMousePressed(event -> {
-            // Create the thread where the puzzle will be
-            // solved automatically
-            TowersOfHanoiTask task = new TowersOfHanoiTask();
-            Thread backgroundThread = new Thread(task);
-
-            // Start the thread
-            backgroundThread.setDaemon(true);
-            backgroundThread.start();
-
-            // Start the timer
-            timer.setCycleCount(Timeline.INDEFINITE);
-            timer.play();
+        pauseButton.setOnMousePressed(event -> {
+            if (solverService.isPaused()) {
+                solverService.resume();
+                clock.start();
+                timer.play();
+                pauseButton.setText("Pause");
+            } else if (solverService.isStarted()) {
+                solverService.pause();
+                clock.pause();
+                timer.pause();
+                pauseButton.setText("Resume");
+            }
         });
 
-        exitGameButton.setOnMousePressed(event -> {
-            Stage stage;
-            Button button = (Button) event.getSource();
-            stage = (Stage) button.getScene().getWindow();
+        stepButton.setOnMousePressed(event -> {
+            // Stepping pauses the playback
+            if (!solverService.isStarted() && !startSolver()) {
+                return;
+            }
+            solverService.step();
+            clock.pause();
+            timer.pause();
+            pauseButton.setText("Resume");
+        });
 
-            // Reset the time and stop the timer
-            AutomaticModeController.time = 0;
-            timer.stop();
+        restartButton.setOnMousePressed(event -> {
+            // Cancel the current run and solve again from the current state of the towers, if the
+            // solution can be played from it
+            if (canStartFromCurrentState()) {
+                solverService.cancel();
+                startSolver();
+            }
+        });
 
-            try {
-                FXMLLoader menuViewLoader = new FXMLLoader(getClass().getResource("/fxml/menuView.fxml"));
+        // Seeking is instant, also while the slider is dragged; the playback
+        // resumes once the slider is released
+        seekSlider.valueProperty().addListener((observable, oldValue, newValue) -> {
+            if (!updatingSeekSlider) {
+                seek(toUnsignedLong(newValue.doubleValue()));
+            }
+        });
+        seekSlider.valueChangingProperty().addListener((observable, wasChanging, changing) -> {
+            if (!changing && resumeAfterSeek) {
+                resumeAfterSeek = false;
+                startSolver();
+            }
+        });
 
-                Parent root = menuViewLoader.load();
+        jumpButton.setOnMousePressed(event -> {
+            // Validate the move number: it should be between 0 and the number of moves
+            try {
+                long moveIndex = Long.parseUnsignedLong(moveTextField.getText().trim());
+                if (Long.compareUnsigned(moveIndex, nrOfMoves) > 0) {
+                    throw new NumberFormatException();
+                }
+                seek(moveIndex);
+            } catch (NumberFormatException ex) {
+                System.out.println("Enter a move number between 0 and " + Long.toUnsignedString(nrOfMoves));
+            }
+        });
 
-                stage.setTitle("Towers of Hanoi");
-                stage.setScene(new Scene(root, 500, 260));
-                stage.centerOnScreen();
-                stage.show();
-            } catch (IOException ex) {
-                System.out.println("Load FXML exception: " + ex.getMessage());
-                ex.printStackTrace();
+        directionButton.setOnMousePressed(event -> {
+            // Change the direction and continue playing in the new direction
+            boolean playing = solverService.isStarted() && !solverService.isPaused();
+            backward = !backward;
+            directionButton.setText(backward ? "Play forward" : "Play backward");
+            if (playing) {
+                solverService.cancel();
+                startSolver();
             }
         });
+
+        exitGameButton.setOnMousePressed(event -> {
+            // Stop the solver and the playback and stop the timer; the solver
+            // service is kept for the next game
+            solverService.cancel();
+            HanoiMetrics.getInstance().sessionEnded();
+            clock.pause();
+            timer.stop();
+
+            SceneManager.getInstance().showMenu();
+        });
+    }
+
+    /**
+     * This function is used to initialize the DataModel of a new game; the view may have been used
+     * for a previous game, which is discarded. It adds the disks on the left tower as children of
+     * the leftVBox and the towers that are not part of the FXML. Pressing the start button starts
+     * the playback of the solution, at the speed chosen with the speed slider.
+     *
+     * @param model reference to the instance of the DataModel that is to be initialized
+     */
+    public void initModel(DataModel model) {
+        this.model = model;
+
+        // Restore the 3 towers of the FXML
+        solverService.cancel();
+        resetTowerColumns();
+        state = new PegState(model.getNrOfTowers(), model.getNrOfDisks(), 0);
+
+        if (model.getNrOfDisks() <= MAX_NODE_DISKS) {
+            // Add the disks to the left VBox, which lays them out from the top: smallest first
+            List<Disk> disksFromTop = new ArrayList<>(model.getLeftTower().getDisksOnTower());
+            Collections.reverse(disksFromTop);
+            leftVBox.getChildren().setAll(disksFromTop);
+
+            // The FXML only contains 3 towers; add the others
+            if (model.getNrOfTowers() > 3) {
+                addTowerColumns(model.getNrOfTowers());
+            }
+            rootPane.setCenter(null);
+            rootPane.setBottom(towerGrid);
+            renderer = new NodeTowerRenderer(model, state, middleVBox::getWidth);
+        } else {
+            // The towers are drawn on a canvas instead of the tower grid
+            leftVBox.getChildren().clear();
+            CanvasTowerRenderer canvasRenderer = new CanvasTowerRenderer(state, model.getNrOfDisks());
+            rootPane.setBottom(null);
+            rootPane.setCenter(canvasRenderer.getNode());
+            renderer = canvasRenderer;
+        }
+
+        // Only the classic three peg solution can be sought, and played backward
+        boolean seekable = isClassicSolution();
+        nrOfMoves = model.getVariant().moveCount(model.getNrOfDisks(), model.getNrOfTowers(), 0, model.getNrOfTowers() - 1);
+        position = 0;
+        backward = false;
+        resumeAfterSeek = false;
+        directionButton.setText("Play backward");
+        seekSlider.setDisable(!seekable);
+        moveTextField.setDisable(!seekable);
+        jumpButton.setDisable(!seekable);
+        directionButton.setDisable(!seekable);
+        updatingSeekSlider = true;
+        seekSlider.setMax(toDouble(nrOfMoves));
+        updatingSeekSlider = false;
+        updateSeekControls();
+        updateRestartControls();
+
+        HanoiMetrics.getInstance().sessionStarted();
+        HanoiMetrics.getInstance().setNrOfDisks(model.getNrOfDisks());
+
+        clock.reset();
+        timer.stop();
+        timerLabel.setText("" + formatDuration(0));
+        pauseButton.setText("Pause");
     }
 
     /**
-     * This function solves the Towers of Hanoi puzzle using an iterative approach
+     * Starts a solver run from the current state of the towers, and the timer.
      *
-     * Pseudocode:
+     * @return true if the run was started, false if the solution can't be played from the current state
+     */
+    private boolean startSolver() {
+        MoveSource moves = createMoveSource();
+        if (moves == null) {
+            System.out.println("Only the classic solution with 3 towers can be played from any state");
+            return false;
+        }
+
+        solverService.start(moves);
+        clock.start();
+        timer.play();
+        pauseButton.setText("Pause");
+        updateRestartControls();
+        return true;
+    }
+
+    /**
+     * @return true if the solution can be played from the current state of the towers: the classic
+     *         three peg solution from any of its states, the other solutions from the initial state only
+     */
+    private boolean canStartFromCurrentState() {
+        return isClassicSolution() || state.size(0) == model.getNrOfDisks();
+    }
+
+    /**
+     * Disables the restart button, and the step button unless a run can be stepped, once the
+     * solution can no longer be played from the current state.
+     */
+    private void updateRestartControls() {
+        boolean canStart = canStartFromCurrentState();
+        restartButton.setDisable(!canStart);
+        stepButton.setDisable(!canStart && !solverService.isStarted());
+    }
+
+    /**
+     * Creates the source of the moves that gather all the disks on the rightmost tower, starting
+     * from the current state of the towers. With 3 towers and the classic rules the moves are
+     * those of the classic solution from the current position, forward or backward; otherwise
+     * they are the moves of the Frame-Stewart solution or of the solution of the restricted
+     * variant, from the initial state only; these are taken from the solution cache if they fit
+     * in it, and loaded or solved on the worker thread.
      *
-     * 1. Calculate total no. of moves as pow(2, numDisks) - 1. numDisks is no. of disks.
-     * 2. If numDisks is even then interchange the destination pole with the auxiliary pole.
-     * 3. for i = 1 to number of moves calculate in step 1:
-     *    a. if i%3 == 1:
-     *       legal movement of top disk b/w source pole and destination pole.
-     *    b. if i%3 == 2:
-     *       legal movement of top disk b/w source pole and auxiliary pole.
-     *    c. if i%3 == 0:
-     *       legal movement of top disk b/w auxiliary pole and destination pole.
+     * @return the source of the moves, or null if the solver can't start from the current state
+     */
+    private MoveSource createMoveSource() {
+        int nrOfDisks = model.getNrOfDisks();
+        int nrOfTowers = model.getNrOfTowers();
+        int destination = nrOfTowers - 1;
+
+        if (isClassicSolution()) {
+            // The towers are always in the state of the classic solution after `position` moves
+            return new ClassicMoveCursor(nrOfDisks, 0, destination, position, backward);
+        }
+
+        if (!canStartFromCurrentState()) {
+            return null;
+        }
+
+        // The other solutions only follow the allowed moves; the ones that are too large for the
+        // cache are generated lazily
+        Variant variant = model.getVariant();
+        SolutionCache.Key key = new SolutionCache.Key(nrOfDisks, nrOfTowers, 0, destination, variant);
+        return solutions.fits(key) ? solutions.moveSource(key) : variant.createMoveSource(nrOfDisks, nrOfTowers, 0, destination);
+    }
+
+    /**
+     * @return true if the game is solved with the classic three peg solution, which can be sought
+     */
+    private boolean isClassicSolution() {
+        return model.getNrOfTowers() == 3 && model.getVariant() == Variant.CLASSIC;
+    }
+
+    /**
+     * Jumps to the state of the classic solution after the given number of moves, in O(disks),
+     * without making the moves in between, and redraws all the towers at once. The playback is
+     * interrupted and continues from the new position.
      *
-     * Source: https://cs.stackexchange.com/questions/96624/how-to-solve-tower-of-hanoi-iteratively
+     * @param moveIndex the number of moves of the solution that have been made (unsigned)
+     */
+    private void seek(long moveIndex) {
+        boolean playing = solverService.isStarted() && !solverService.isPaused();
+        solverService.cancel();
+
+        position = moveIndex;
+        MoveQuery.configurationAfter(0, 2, moveIndex, state);
+        renderer.invalidate();
+        render();
+
+        // Continue playing, once the seek slider is released
+        if (playing || resumeAfterSeek) {
+            resumeAfterSeek = seekSlider.isValueChanging();
+            if (!resumeAfterSeek) {
+                startSolver();
+            }
+        }
+    }
+
+    /**
+     * Shows the current position on the seek slider and the move label.
+     */
+    private void updateSeekControls() {
+        updatingSeekSlider = true;
+        seekSlider.setValue(toDouble(position));
+        updatingSeekSlider = false;
+        moveLabel.setText("Move " + Long.toUnsignedString(position) + " of " + Long.toUnsignedString(nrOfMoves));
+    }
+
+    /**
+     * @param value an unsigned long
+     * @return the closest double
+     */
+    private static double toDouble(long value) {
+        return value >= 0 ? value : (double) (value >>> 1) * 2;
+    }
+
+    /**
+     * @param value a double between 0 and 2^64
+     * @return the closest unsigned long
+     */
+    private static long toUnsignedLong(double value) {
+        final double TWO_TO_THE_63 = 9.223372036854775808E18;
+        if (value < TWO_TO_THE_63) {
+            return Math.round(value);
+        }
+        return Math.round(value - TWO_TO_THE_63) + Long.MIN_VALUE;
+    }
+
+    /**
+     * Removes the towers that were added for a previous game and restores the columns and the
+     * bases of the 3 towers of the FXML.
+     */
+    private void resetTowerColumns() {
+        towerGrid.getChildren().remove(nrOfFxmlColumns, towerGrid.getChildren().size());
+        towerGrid.getColumnConstraints().setAll(defaultColumns);
+        setBaseWidth(DEFAULT_BASE_WIDTH);
+    }
+
+    /**
+     * Adds the columns of the towers that are not part of the FXML and resizes all the columns,
+     * the bases of the towers and the disks so that every tower fits on the screen.
      *
-     * @param numDisks the total number of disks
-     * @param source the tower on which the disks are initially placed
-     * @param destination the tower on which the disks will be placed at the end of the game
-     * @param auxiliary this tower is used as an intermediate that aids in moving the disks to the destination
+     * @param nrOfTowers the total number of towers
      */
-    private void TowerOfHanoi(int numDisks, Tower source, Tower destination, Tower auxiliary) throws InterruptedException {
-        ObservableList<Disk> sourceDisks = source.getDisksOnTower();
-        ObservableList<Disk> destinationDisks = destination.getDisksOnTower();
-        ObservableList<Disk> auxiliaryDisks = auxiliary.getDisksOnTower();
+    private void addTowerColumns(int nrOfTowers) {
+        final double BASE_WIDTH = DEFAULT_BASE_WIDTH * 3 / nrOfTowers;     // The bases and the disks shrink with the number of towers
+
+        towerGrid.getColumnConstraints().clear();
+        for (int i = 0; i < nrOfTowers; i++) {
+            ColumnConstraints columnConstraints = new ColumnConstraints(10, 100, Double.MAX_VALUE);
+            columnConstraints.setHgrow(Priority.SOMETIMES);
+            columnConstraints.setPercentWidth(100.0 / nrOfTowers);
+            towerGrid.getColumnConstraints().add(columnConstraints);
+        }
 
-        Tower aux;          // Used to swap the destination and the auxiliary if there is an even number of disks
+        // Shrink the bases of the 3 towers from the FXML
+        setBaseWidth(BASE_WIDTH);
 
-        int nrOfMoves = (int) Math.pow(2, numDisks) - 1;
+        // Add the other towers, built like the ones in the FXML
+        for (int i = 3; i < nrOfTowers; i++) {
+            Rectangle rod = new Rectangle(15, 250);
+            StackPane stackPane = new StackPane(rod, new VBox());
+            Rectangle base = new Rectangle(BASE_WIDTH, 20, Color.FORESTGREEN);
+            base.setArcWidth(10);
+            base.setArcHeight(10);
 
-        // If there is an even number of disks, swap the destination and the auxiliary towers
-        if (nrOfMoves % 2 == 0) {
-            aux = destination;
-            destination = auxiliary;
-            auxiliary = aux;
+            VBox column = new VBox(stackPane, base);
+            column.setAlignment(Pos.CENTER);
+            towerGrid.add(column, i, 0);
         }
 
-        for (int i = 1; i <= nrOfMoves; i++) {
-            if (i % 3 == 1) {
-                if (!sourceDisks.isEmpty() && !destinationDisks.isEmpty()) {
-                    // If neither of the towers is empty, perform the legal movement
-                    if (sourceDisks.get(0).getSize() < destinationDisks.get(0).getSize()) {
-                        move(source, destination);
-                    } else {
-                        move(destination, source);
-                    }
-                } else {
-                    // If either of the towers is empty, move the disk to that tower
-                    if (sourceDisks.isEmpty()) {
-                        move(destination, source);
-                    } else {
-                        move(source, destination);
-                    }
-                }
-                // Wait for one second so that the disk movement can be seen
-                Thread.sleep(1000);
-            }
-            if (i % 3 == 2) {
-                if (!sourceDisks.isEmpty() && !auxiliaryDisks.isEmpty()) {
-                    // If neither of the towers is empty, perform the legal movement
-                    if (sourceDisks.get(0).getSize() < auxiliaryDisks.get(0).getSize()) {
-                        move(source, auxiliary);
-                    } else {
-                        move(auxiliary, source);
-                    }
-                } else {
-                    // If either of the towers is empty, move the disk to that tower
-                    if (sourceDisks.isEmpty()) {
-                        move(auxiliary, source);
-                    } else {
-                        move(source, auxiliary);
-                    }
-                }
-                // Wait for one second so that the disk movement can be seen
-                Thread.sleep(1000);
-            }
-            if (i % 3 == 0) {
-                if (!auxiliaryDisks.isEmpty() && !destinationDisks.isEmpty()) {
-                    // If neither of the towers is empty, perform the legal movement
-                    if (auxiliaryDisks.get(0).getSize() < destinationDisks.get(0).getSize()) {
-                        move(auxiliary, destination);
-                    } else {
-                        move(destination, auxiliary);
-                    }
-                } else {
-                    // If either of the towers is empty, move the disk to that tower
-                    if (auxiliaryDisks.isEmpty()) {
-                        move(destination, auxiliary);
-                    } else {
-                        move(auxiliary, destination);
+        for (Disk disk : model.getLeftTower().getDisksOnTower()) {
+            disk.setScaleX(3.0 / nrOfTowers);
+        }
+    }
+
+    /**
+     * Sets the width of the bases of all the towers in the grid.
+     *
+     * @param width the width of a base
+     */
+    private void setBaseWidth(double width) {
+        for (Node column : towerGrid.getChildren()) {
+            if (column instanceof VBox) {
+                for (Node child : ((VBox) column).getChildren()) {
+                    if (child instanceof Rectangle) {
+                        ((Rectangle) child).setWidth(width);
                     }
                 }
-                // Wait for one second so that the disk movement can be seen
-                Thread.sleep(1000);
             }
         }
     }
 
     /**
-     * This function moves the top disk on the source tower to the destination tower by translating
-     * the disk to hardcoded coordinates on the destination tower, taking into consideration the number
-     * of disks that are already present on the destination, using the 'currentOffset' member variable of
-     * the Tower class
+     * Sets the playback speed from the position of the speed slider: the slider is logarithmic,
+     * from 10^0 = 1 move per second up to 10^6 moves per second, and its maximum position plays
+     * the moves as fast as possible.
      *
-     * @param source the Tower from which the top disk is being moved
-     * @param destination the Tower where the top disk will be placed
+     * @param sliderValue the value of the speed slider
      */
-    private void move(Tower source, Tower destination) {
-        double translateDiskOnX = 0;        // The amount by which the disk will be translated on the X axis
-        double translateDiskOnY = 0;        // The amount by which the disk will be translated on the Y axis
-        Disk topDisk = source.getDisksOnTower().get(0);     // The disk on top of the source tower
-        double topDiskWidth = topDisk.getWidth();
-        Tower leftTower = model.getLeftTower();
-        Tower middleTower = model.getMiddleTower();
-        Tower rightTower = model.getRightTower();
-        ObservableList<Disk> disksOnLeftTower = leftTower.getDisksOnTower();
-        ObservableList<Disk> disksOnMiddleTower = middleTower.getDisksOnTower();
-        ObservableList<Disk> disksOnRightTower = rightTower.getDisksOnTower();
-
-        if (source == leftTower) {
-            if (destination == middleTower) {
-                // Set the translate on the X and Y axis
-                translateDiskOnX = (((middleVBox.getWidth() - topDiskWidth) / 2) * 2) + topDiskWidth;
-                translateDiskOnY = topDisk.getDiskOffset() - middleTower.getCurrentOffset() - 20;
-
-                // Add the current disk to the middle tower and remove it from the left tower
-                disksOnMiddleTower.add(0, topDisk);
-                disksOnLeftTower.remove(topDisk);
-
-                // Set the offsets of the 2 towers that are involved
-                middleTower.setCurrentOffset(disksOnMiddleTower.size() * 20);
-                leftTower.setCurrentOffset(disksOnLeftTower.size() * 20);
-            } else if (destination == rightTower) {
-                // Set the translate on the X and Y axis
-                translateDiskOnX = 2 * ((((middleVBox.getWidth() - topDiskWidth) / 2) * 2) + topDiskWidth);
-                translateDiskOnY = topDisk.getDiskOffset() - rightTower.getCurrentOffset() - 20;
-
-                // Add the current disk to the right tower and remove it from the left tower
-                disksOnRightTower.add(0, topDisk);
-                disksOnLeftTower.remove(topDisk);
-
-                // Set the offsets of the 2 towers that are involved
-                rightTower.setCurrentOffset(disksOnRightTower.size() * 20);
-                leftTower.setCurrentOffset(disksOnLeftTower.size() * 20);
-            }
-        } else if (source == middleTower) {
-            if (destination == rightTower) {
-                // Set the translate on the X and Y axis
-                translateDiskOnX = 2 * ((((middleVBox.getWidth() - topDiskWidth) / 2) * 2) + topDiskWidth);
-                translateDiskOnY = topDisk.getDiskOffset() - rightTower.getCurrentOffset() - 20;
-
-                // Add the current disk to the right tower and remove it from the middle tower
-                disksOnRightTower.add(0, topDisk);
-                disksOnMiddleTower.remove(topDisk);
-
-                // Set the offsets of the 2 towers that are involved
-                rightTower.setCurrentOffset(disksOnRightTower.size() * 20);
-                middleTower.setCurrentOffset(disksOnMiddleTower.size() * 20);
-            } else if (destination == leftTower) {
-                // Set the translate on the X and Y axis
-                translateDiskOnX = 0;
-                translateDiskOnY = topDisk.getDiskOffset() - leftTower.getCurrentOffset() - 20;
-
-                // Add the current disk to the left tower and remove it from the middle tower
-                disksOnLeftTower.add(0, topDisk);
-                disksOnMiddleTower.remove(topDisk);
-
-                // Set the offsets of the 2 towers that are involved
-                leftTower.setCurrentOffset(disksOnLeftTower.size() * 20);
-                middleTower.setCurrentOffset(disksOnMiddleTower.size() * 20);
-            }
-        } else if (source == rightTower) {
-            if (destination == middleTower) {
-                // Set the translate on the X and Y axis
-                translateDiskOnX = (((middleVBox.getWidth() - topDiskWidth) / 2) * 2) + topDiskWidth;
-                translateDiskOnY = topDisk.getDiskOffset() - middleTower.getCurrentOffset() - 20;
-
-                // Add the current disk to the middle tower and remove it from the right tower
-                disksOnMiddleTower.add(0, topDisk);
-                disksOnRightTower.remove(topDisk);
-
-                // Set the offsets of the 2 towers that are involved
-                middleTower.setCurrentOffset(disksOnMiddleTower.size() * 20);
-                rightTower.setCurrentOffset(disksOnRightTower.size() * 20);
-            } else if (destination == leftTower) {
-                // Set the translate on the X and Y axis
-                translateDiskOnX = 0;
-                translateDiskOnY = topDisk.getDiskOffset() - leftTower.getCurrentOffset() - 20;
-
-                // Add the current disk to the left tower and remove it from the right tower
-                disksOnLeftTower.add(0, topDisk);
-                disksOnRightTower.remove(topDisk);
-
-                // Set the offsets of the 2 towers that are involved
-                leftTower.setCurrentOffset(disksOnLeftTower.size() * 20);
-                rightTower.setCurrentOffset(disksOnRightTower.size() * 20);
-            }
+    private void updateSpeed(double sliderValue) {
+        if (sliderValue >= speedSlider.getMax()) {
+            playbackEngine.setMovesPerSecond(PlaybackEngine.MAX_SPEED);
+            speedLabel.setText("Speed: max");
+        } else {
+            double movesPerSecond = Math.pow(10, sliderValue);
+            playbackEngine.setMovesPerSecond(movesPerSecond);
+            speedLabel.setText(String.format("Speed: %.0f moves/s", movesPerSecond));
+        }
+    }
+
+    /**
+     * Moves the top disk of the source tower to the destination tower. The disks are drawn at
+     * their new position the next time the towers are rendered.
+     */
+    @Override
+    public void applyMove(int disk, int from, int to) {
+        if (!state.canMove(from, to)) {
+            throw new IllegalStateException("The solver produced an illegal move: disk " + disk + " from " + from + " to " + to);
         }
+        state.move(from, to);
+        renderer.applyMove(disk, from, to);
+        position += backward ? -1 : 1;
+    }
+
+    /**
+     * Redraws the towers that were changed since the last render.
+     */
+    @Override
+    public void render() {
+        renderer.render();
+        updateSeekControls();
+        updateRestartControls();
+    }
+
+    @Override
+    public void finished() {
+        clock.pause();
+        timer.stop();
+        timerLabel.setText("" + formatDuration(clock.getElapsedSeconds()));
+    }
+
+    /**
+     * Stops the solver of the view for good; called when the application exits.
+     */
+    public void shutdown() {
+        timer.stop();
+        solverService.shutdown();
+    }
 
-        topDisk.setTranslateX(translateDiskOnX);
-        topDisk.setTranslateY(translateDiskOnY);
+    /**
+     * Stops the timer once the solver has failed; the towers keep the moves played so far.
+     */
+    @Override
+    public void failed(RuntimeException ex) {
+        System.out.println("The solver failed: " + ex.getMessage());
+        clock.pause();
+        timer.stop();
+        pauseButton.setText("Pause");
+        updateRestartControls();
     }
 
     /**
@@ -343,4 +588,4 @@ public class AutomaticModeController {
                 (seconds % 3600) / 60,
                 seconds % 60);
     }
-}
\ No newline at end of file
+}
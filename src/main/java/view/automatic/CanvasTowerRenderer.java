@@ -0,0 +1,128 @@
+package view.automatic;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import solver.PegState;
+
+/**
+ * Draws the towers on a Canvas from a PegState, so there are no nodes per disk and the cost of a
+ * frame doesn't depend on the number of moves played in it: only the columns of the pegs that
+ * were changed since the last frame are cleared and redrawn, each with one rectangle per disk.
+ * The whole canvas is redrawn when it is resized.
+ */
+public class CanvasTowerRenderer implements TowerRenderer {
+    private static final double MAX_DISK_HEIGHT = 20.0;
+    private static final double BASE_HEIGHT = 20.0;
+    private static final double ROD_WIDTH = 15.0;
+    private static final double MARGIN = 10.0;              // Space around the towers
+
+    private final PegState state;
+    private final int nrOfDisks;
+    private final int nrOfPegs;
+    private final Pane pane;
+    private final Canvas canvas = new Canvas();
+    private final GraphicsContext graphics;
+    private final boolean[] dirtyPegs;
+    private boolean allDirty = true;                        // Set when the whole canvas has to be redrawn
+
+    /**
+     * @param state the state of the game; it is only read by the renderer
+     * @param nrOfDisks the number of disks of the game
+     */
+    public CanvasTowerRenderer(PegState state, int nrOfDisks) {
+        this.state = state;
+        this.nrOfDisks = nrOfDisks;
+        this.nrOfPegs = state.getNrOfPegs();
+        this.dirtyPegs = new boolean[nrOfPegs];
+        this.graphics = canvas.getGraphicsContext2D();
+
+        // The canvas follows the size of the pane it is shown in
+        this.pane = new Pane(canvas);
+        canvas.widthProperty().bind(pane.widthProperty());
+        canvas.heightProperty().bind(pane.heightProperty());
+        canvas.widthProperty().addListener(observable -> redrawAll());
+        canvas.heightProperty().addListener(observable -> redrawAll());
+    }
+
+    /**
+     * @return the node that shows the towers
+     */
+    public Pane getNode() {
+        return pane;
+    }
+
+    @Override
+    public void applyMove(int disk, int from, int to) {
+        dirtyPegs[from] = true;
+        dirtyPegs[to] = true;
+    }
+
+    @Override
+    public void invalidate() {
+        allDirty = true;
+    }
+
+    @Override
+    public void render() {
+        if (allDirty) {
+            graphics.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        }
+        for (int peg = 0; peg < nrOfPegs; peg++) {
+            if (allDirty || dirtyPegs[peg]) {
+                drawPeg(peg);
+                dirtyPegs[peg] = false;
+            }
+        }
+        allDirty = false;
+    }
+
+    private void redrawAll() {
+        allDirty = true;
+        render();
+    }
+
+    /**
+     * Clears the column of the peg and draws the rod, the base and the disks on the peg. The disks
+     * are as high as possible while all of them still fit on a rod, and their width grows linearly
+     * from the smallest to the largest disk.
+     *
+     * @param peg the index of the peg, from left to right
+     */
+    private void drawPeg(int peg) {
+        double columnWidth = canvas.getWidth() / nrOfPegs;
+        double left = peg * columnWidth;
+        double centerX = left + columnWidth / 2;
+        double baseY = canvas.getHeight() - MARGIN - BASE_HEIGHT;
+        double diskHeight = Math.min(MAX_DISK_HEIGHT, Math.max(1, (baseY - 2 * MARGIN) / Math.max(nrOfDisks, 1)));
+        double maxDiskWidth = columnWidth - 2 * MARGIN;
+        double minDiskWidth = Math.min(ROD_WIDTH + 10, maxDiskWidth);
+
+        graphics.clearRect(left, 0, columnWidth, canvas.getHeight());
+
+        // The rod is a bit higher than the tower of all the disks
+        double rodHeight = nrOfDisks * diskHeight + MARGIN;
+        graphics.setFill(Color.BLACK);
+        graphics.fillRect(centerX - ROD_WIDTH / 2, baseY - rodHeight, ROD_WIDTH, rodHeight);
+        graphics.setFill(Color.FORESTGREEN);
+        graphics.fillRoundRect(left + MARGIN, baseY, maxDiskWidth, BASE_HEIGHT, 10, 10);
+
+        // The disks, from the largest at the bottom to the smallest at the top
+        graphics.setFill(Color.GRAY);
+        graphics.setStroke(Color.DIMGRAY);
+        long disks = state.getPeg(peg);
+        double y = baseY;
+        while (disks != 0) {
+            int disk = 63 - Long.numberOfLeadingZeros(disks);
+            disks &= ~(1L << disk);
+
+            double width = minDiskWidth + (maxDiskWidth - minDiskWidth) * (disk + 1) / nrOfDisks;
+            y -= diskHeight;
+            graphics.fillRoundRect(centerX - width / 2, y, width, diskHeight, diskHeight / 2, diskHeight / 2);
+            if (diskHeight >= 4) {
+                graphics.strokeRoundRect(centerX - width / 2, y, width, diskHeight, diskHeight / 2, diskHeight / 2);
+            }
+        }
+    }
+}
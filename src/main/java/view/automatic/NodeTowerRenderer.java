@@ -0,0 +1,94 @@
+package view.automatic;
+
+import javafx.collections.ObservableList;
+import model.DataModel;
+import model.Disk;
+import model.Tower;
+import solver.PegState;
+
+import java.util.Arrays;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Renders the towers with the disks of the model, one Rectangle node per disk: every move is made
+ * in the model and the disks of the towers it changed are translated to their new position on the
+ * next render. Only suited for small numbers of disks.
+ */
+public class NodeTowerRenderer implements TowerRenderer {
+    private final DataModel model;
+    private final PegState state;                   // The state of the game, which the model follows
+    private final DoubleSupplier columnWidth;       // The width of the column of a tower
+    private final boolean[] dirtyTowers;            // Flags for the towers that were changed since the last render
+
+    /**
+     * @param model the model, whose disks are children of the left VBox
+     * @param state the state of the game; it is only read by the renderer
+     * @param columnWidth supplies the width of the column of a tower
+     */
+    public NodeTowerRenderer(DataModel model, PegState state, DoubleSupplier columnWidth) {
+        this.model = model;
+        this.state = state;
+        this.columnWidth = columnWidth;
+        this.dirtyTowers = new boolean[model.getNrOfTowers()];
+
+        // Every move marks the two towers involved
+        model.addDiskMoveListener((disk, from, to) -> {
+            dirtyTowers[from] = true;
+            dirtyTowers[to] = true;
+        });
+    }
+
+    @Override
+    public void applyMove(int disk, int from, int to) {
+        if (!model.moveTop(from, to)) {
+            throw new IllegalStateException("The model rejected the move of disk " + disk + " from " + from + " to " + to);
+        }
+    }
+
+    /**
+     * Places the disks of the model according to the state of the game, without making any move.
+     */
+    @Override
+    public void invalidate() {
+        int[] towerOfDisk = new int[model.getNrOfDisks()];
+        state.getConfiguration(towerOfDisk);
+        model.setConfiguration(towerOfDisk);
+        Arrays.fill(dirtyTowers, true);
+    }
+
+    /**
+     * Translates the disks of the towers that were changed since the last render to their
+     * position on the tower.
+     */
+    @Override
+    public void render() {
+        for (int index = 0; index < dirtyTowers.length; index++) {
+            if (dirtyTowers[index]) {
+                layoutTower(index);
+                dirtyTowers[index] = false;
+            }
+        }
+    }
+
+    /**
+     * Translates every disk on the tower to hardcoded coordinates on that tower: the disks are
+     * children of the left VBox, so they are moved by the width of a tower column on the X axis
+     * and by their position on the tower on the Y axis.
+     *
+     * @param towerIndex the index of the tower, from left to right
+     */
+    private void layoutTower(int towerIndex) {
+        Tower tower = model.getTower(towerIndex);
+        ObservableList<Disk> disksOnTower = tower.getDisksOnTower();
+        int nrOfDisksOnTower = disksOnTower.size();
+        double translateX = towerIndex * columnWidth.getAsDouble();
+
+        // The disks are stored from the bottom to the top of the tower
+        for (int positionFromBottom = 0; positionFromBottom < nrOfDisksOnTower; positionFromBottom++) {
+            Disk disk = disksOnTower.get(positionFromBottom);
+
+            disk.setTranslateX(translateX);
+            disk.setTranslateY(disk.getDiskOffset() - (positionFromBottom + 1) * 20);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package view.automatic;
+
+import javafx.animation.AnimationTimer;
+import metrics.HanoiMetrics;
+import solver.Move;
+import solver.MoveSource;
+
+/**
+ * Plays moves back on the JavaFX pulse. On every frame the engine works out how many moves are
+ * due at the current speed, applies all of them to the model and asks the view to render the
+ * resulting state once, so the playback speed only depends on the frame budget and not on how
+ * long a thread sleeps between moves.
+ */
+public class PlaybackEngine extends AnimationTimer {
+    public static final double MAX_SPEED = Double.POSITIVE_INFINITY;    // Play as fast as the frame budget allows
+    private static final long FRAME_BUDGET_NANOS = 8_000_000;         // Time spent applying moves per frame at MAX_SPEED
+    private static final int MOVES_BETWEEN_CLOCK_CHECKS = 1024;
+
+    /**
+     * The view that is driven by the engine. All the methods are called on the FX thread.
+     */
+    public interface Target {
+        /**
+         * Applies a move to the model, without rendering it.
+         */
+        void applyMove(int disk, int from, int to);
+
+        /**
+         * Renders the current state of the model, once per frame in which moves were applied.
+         */
+        void render();
+
+        /**
+         * Called once, after the last move has been rendered.
+         */
+        void finished();
+
+        /**
+         * Called once if the moves could not be generated; the playback has been stopped.
+         *
+         * @param ex the failure of the solver
+         */
+        void failed(RuntimeException ex);
+    }
+
+    private MoveSource moves;
+    private final Target target;
+    private final HanoiMetrics metrics = HanoiMetrics.getInstance();
+    private double movesPerSecond = 1;      // The playback speed
+    private double pendingMoves;            // Moves that are due but have not been applied yet (fractional)
+    private long lastFrame = -1;            // The time of the previous frame, -1 before the first frame
+    private long movesApplied;
+    private boolean running;
+
+    public PlaybackEngine(MoveSource moves, Target target) {
+        this.moves = moves;
+        this.target = target;
+    }
+
+    /**
+     * Changes the playback speed; it can be called at any time, also while playing.
+     *
+     * @param movesPerSecond the number of moves per second, or MAX_SPEED
+     */
+    public void setMovesPerSecond(double movesPerSecond) {
+        if (!(movesPerSecond > 0)) {
+            throw new IllegalArgumentException("The speed must be positive");
+        }
+        this.movesPerSecond = movesPerSecond;
+    }
+
+    /**
+     * Replaces the source of the moves, e.g. when the solver is restarted. The engine should be
+     * stopped while the source is replaced.
+     *
+     * @param moves the new source of the moves
+     */
+    public void setMoves(MoveSource moves) {
+        this.moves = moves;
+        this.pendingMoves = 0;
+    }
+
+    public double getMovesPerSecond() {
+        return movesPerSecond;
+    }
+
+    public long getMovesApplied() {
+        return movesApplied;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+
+        // The time spent while stopped doesn't count towards the next moves
+        lastFrame = -1;
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        super.stop();
+    }
+
+    /**
+     * Applies and renders a single move, if one is available, e.g. while the playback is paused.
+     *
+     * @return true if a move was applied
+     */
+    public boolean step() {
+        if (!applyNextMove()) {
+            return false;
+        }
+        metrics.recordMove();
+        target.render();
+        if (moves.isExhausted()) {
+            stop();
+            target.finished();
+        }
+        return true;
+    }
+
+    @Override
+    public void handle(long now) {
+        if (lastFrame < 0) {
+            // The first move is shown as soon as the playback starts
+            pendingMoves = Math.max(pendingMoves, 1);
+        } else {
+            metrics.recordFrame(now - lastFrame);
+            if (movesPerSecond != MAX_SPEED) {
+                pendingMoves += (now - lastFrame) * movesPerSecond / 1e9;
+            }
+        }
+        lastFrame = now;
+
+        int applied = movesPerSecond == MAX_SPEED ? applyWithinBudget() : applyDueMoves();
+
+        if (applied > 0) {
+            metrics.recordMoves(applied);
+            target.render();
+        }
+        if (moves.isExhausted()) {
+            stop();
+            target.finished();
+        }
+    }
+
+    /**
+     * Applies the moves that are due at the current speed.
+     *
+     * @return the number of moves applied
+     */
+    private int applyDueMoves() {
+        int applied = 0;
+        while (pendingMoves >= 1 && applyNextMove()) {
+            pendingMoves--;
+            applied++;
+        }
+        if (moves.isExhausted()) {
+            pendingMoves = 0;
+        }
+        return applied;
+    }
+
+    /**
+     * Applies as many moves as possible until the frame budget is used up.
+     *
+     * @return the number of moves applied
+     */
+    private int applyWithinBudget() {
+        long deadline = System.nanoTime() + FRAME_BUDGET_NANOS;
+        int applied = 0;
+        while (applyNextMove()) {
+            applied++;
+            if (applied % MOVES_BETWEEN_CLOCK_CHECKS == 0 && System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+        pendingMoves = 0;
+        return applied;
+    }
+
+    /**
+     * @return true if a move was available and applied
+     */
+    private boolean applyNextMove() {
+        int move = moves.poll();
+        if (move == MoveSource.NO_MOVE) {
+            return false;
+        }
+        target.applyMove(Move.disk(move), Move.from(move), Move.to(move));
+        movesApplied++;
+        return true;
+    }
+}
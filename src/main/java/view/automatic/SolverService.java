@@ -0,0 +1,159 @@
+package view.automatic;
+
+import javafx.application.Platform;
+import metrics.HanoiMetrics;
+import solver.MoveRingBuffer;
+import solver.MoveSource;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Owns the solver of an automatic game session: a single reusable worker thread that publishes
+ * the moves into a ring buffer, and the playback engine that applies them on the FX thread.
+ * At most one solver run is active at a time; starting a new run cancels the previous one.
+ *
+ * All the methods must be called on the FX thread.
+ */
+public class SolverService {
+    private static final int BUFFER_CAPACITY = 1 << 16;
+
+    private final ExecutorService worker;
+    private final PlaybackEngine playbackEngine;
+    private final PlaybackEngine.Target target;
+    private Future<?> producer;                     // The current solver run, null if none was started
+    private MoveRingBuffer buffer;                  // The buffer of the current run
+    private boolean paused;
+    private boolean shutDown;
+
+    /**
+     * @param target the view driven by the playback engine
+     */
+    public SolverService(PlaybackEngine.Target target) {
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "towers-of-hanoi-solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.target = target;
+        this.playbackEngine = new PlaybackEngine(null, target);
+    }
+
+    public PlaybackEngine getPlaybackEngine() {
+        return playbackEngine;
+    }
+
+    /**
+     * Cancels the current run, if any, and starts playing the moves of the given source. The moves
+     * are generated on the worker thread.
+     *
+     * @param moves the moves to be played; they are read on the worker thread only
+     */
+    public void start(MoveSource moves) {
+        if (shutDown) {
+            throw new IllegalStateException("The solver service has been shut down");
+        }
+        cancel();
+
+        // Every run gets its own buffer, so a cancelled producer that hasn't
+        // stopped yet can never publish into the buffer of the next run
+        MoveRingBuffer buffer = new MoveRingBuffer(BUFFER_CAPACITY);
+        this.buffer = buffer;
+        producer = worker.submit(() -> {
+            try {
+                int move;
+                while ((move = moves.poll()) != MoveSource.NO_MOVE) {
+                    buffer.put(move);
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                }
+                buffer.close();
+            } catch (CancellationException ex) {
+                // The run was cancelled while waiting for room in the buffer
+            } catch (RuntimeException ex) {
+                // The solver failed: end the run, unless a later one has replaced it, and tell the view.
+                // The buffer is left open, so the playback can't mistake the failure for the end of the
+                // solution; cancelling the run stops it
+                Platform.runLater(() -> {
+                    if (this.buffer == buffer && producer != null) {
+                        cancel();
+                        target.failed(ex);
+                    }
+                });
+            }
+        });
+
+        playbackEngine.setMoves(buffer);
+        HanoiMetrics.getInstance().setQueueDepth(buffer::size);
+        paused = false;
+        playbackEngine.start();
+    }
+
+    /**
+     * @return true if a run was started and has not been cancelled
+     */
+    public boolean isStarted() {
+        return producer != null;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Pauses the playback; the worker stops as soon as the buffer is full.
+     */
+    public void pause() {
+        if (producer != null) {
+            paused = true;
+            playbackEngine.stop();
+        }
+    }
+
+    public void resume() {
+        if (producer != null && paused) {
+            paused = false;
+            playbackEngine.start();
+        }
+    }
+
+    /**
+     * Pauses the playback and applies a single move.
+     *
+     * @return true if a move was available and applied
+     */
+    public boolean step() {
+        if (producer == null) {
+            return false;
+        }
+        pause();
+        return playbackEngine.step();
+    }
+
+    /**
+     * Stops the playback and interrupts the worker; the state of the model is kept, so a new run
+     * can be started from it.
+     */
+    public void cancel() {
+        playbackEngine.stop();
+        if (producer != null) {
+            producer.cancel(true);
+            producer = null;
+            buffer = null;
+            HanoiMetrics.getInstance().setQueueDepth(null);
+        }
+        paused = false;
+    }
+
+    /**
+     * Cancels the current run and terminates the worker thread. The service can't be used afterwards.
+     */
+    public void shutdown() {
+        cancel();
+        shutDown = true;
+        worker.shutdownNow();
+    }
+}
@@ -0,0 +1,25 @@
+package view.automatic;
+
+/**
+ * A rendering backend of the automatic mode. The moves are applied to the renderer as they are
+ * played back and the renderer only redraws the towers that they changed, once per frame. Both
+ * methods are called on the FX thread.
+ */
+public interface TowerRenderer {
+    /**
+     * Records a move, without redrawing anything. The move is legal: it has already been checked
+     * against the state of the game.
+     */
+    void applyMove(int disk, int from, int to);
+
+    /**
+     * Records that the whole state of the game has been overwritten, e.g. by seeking to another
+     * move, so every tower is redrawn on the next render.
+     */
+    void invalidate();
+
+    /**
+     * Redraws the towers that were changed since the last render.
+     */
+    void render();
+}
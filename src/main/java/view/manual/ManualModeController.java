@@ -4,33 +4,59 @@ import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
 import javafx.scene.Cursor;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
-import javafx.stage.Stage;
 import javafx.util.Duration;
+import journal.GameJournal;
+import journal.SavedGame;
+import metrics.HanoiMetrics;
+import metrics.MoveTelemetry;
+import metrics.SessionClock;
+import metrics.SessionLog;
+import metrics.SessionSummary;
 import model.DataModel;
 import model.Disk;
 import model.Tower;
-import view.automatic.AutomaticModeController;
+import solver.HanoiOracle;
+import solver.Move;
+import solver.MoveHistory;
+import solver.PegState;
+import solver.StateSpaceExplorer;
+import solver.Variant;
+import view.SceneManager;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 public class ManualModeController {
     private DataModel model;
 
+    @FXML
+    BorderPane rootPane;
+
     @FXML
     Button exitGameButton;
 
     @FXML
     Label timerLabel;
 
+    @FXML
+    Label hintLabel;
+
+    @FXML
+    Label efficiencyLabel;
+
     @FXML
     VBox leftVBox;
 
@@ -45,75 +71,169 @@ public class ManualModeController {
     private Bounds middleVBoxBounds;
     private Bounds rightVBoxBounds;
 
-    // Used for keeping track of the game duration
+    // Refreshes the timerLabel once per second
     private Timeline timer;
 
-    /**
-     * Used to initialize the DataModel.
-     * It adds the disks on the left tower as children of the leftVBox and adds
-     * event handlers for the disks and for the 3 VBoxes corresponding to the
-     * 3 towers.
-     *
-     * @param model reference to the instance of the DataModel that is to be initialized
-     */
-    public void initModel(DataModel model) {
-        if (this.model != null) {
-            throw new IllegalStateException("Model can only be initialized once.");
-        }
+    // Measures the duration of the game
+    private final SessionClock clock = new SessionClock();
 
-        this.model = model;
+    // The think time and drag duration of the moves
+    private MoveTelemetry telemetry;
+
+    private long startMillis;               // The start of the game, in milliseconds since the epoch
+    private boolean summaryWritten;         // Set once the summary of the game has been written
+
+    // The moves of the game, for undo and redo
+    private MoveHistory history;
+    private boolean dragging;               // Set while a disk is being dragged
 
-        // Add the disks to the left VBox
-        leftVBox.getChildren().addAll(model.getLeftTower().getDisksOnTower());
+    // The tower of every disk, refreshed after every drop to compute the hint
+    private int[] towerOfDisk;
 
-        // Add the event handlers for the disks and the vBoxes
-        addEventHandlersForDisks(model);
+    // Finds the hints of the restricted variants, null for the classic game
+    private StateSpaceExplorer explorer;
+    private long optimalMoves;              // The fewest moves that finish the game from the initial state
+
+    // Keeps the moves of the game, so that it can be resumed if the application dies
+    private final GameJournal journal = GameJournal.getDefault();
+    private boolean journaling;             // Cleared once the game is over, or if the journal can't be written
+
+    private static final String[] TOWER_NAMES = {"left", "middle", "right"};
+    private static final KeyCombination UNDO = new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN);
+    private static final KeyCombination REDO = new KeyCodeCombination(KeyCode.Y, KeyCombination.SHORTCUT_DOWN);
+    private static final KeyCombination REDO_ALTERNATIVE = new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN,
+            KeyCombination.SHIFT_DOWN);
+
+    /**
+     * Called once, when the view is loaded: adds the event handlers for the 3 VBoxes corresponding
+     * to the 3 towers and for the exit button, and creates the timer. The view is reused for every
+     * manual game; the game itself is set up by initModel.
+     */
+    @FXML
+    public void initialize() {
         addEventHandlersForVBox(leftVBox);
         addEventHandlersForVBox(middleVBox);
         addEventHandlersForVBox(rightVBox);
 
-        // This thread is called every one second and it updates
+        // This thread is called every one second and it shows
         // the time duration of the game in the timerLabel.
-        timer = new Timeline(new KeyFrame(Duration.seconds(1), event -> {
-            AutomaticModeController.time++;
-            timerLabel.setText("" + formatDuration(AutomaticModeController.time));
-        }));
-
-        // Start the timer
+        timer = new Timeline(new KeyFrame(Duration.seconds(1), event ->
+                timerLabel.setText("" + formatDuration(clock.getElapsedSeconds()))));
         timer.setCycleCount(Timeline.INDEFINITE);
-        timer.play();
 
-        exitGameButton.setOnMousePressed(event -> {
-            Stage stage;
-            Button button = (Button) event.getSource();
-            stage = (Stage) button.getScene().getWindow();
-
-            try {
-                FXMLLoader menuViewLoader = new FXMLLoader(getClass().getResource("/fxml/menuView.fxml"));
-
-                Parent root = menuViewLoader.load();
-
-                stage.setTitle("Towers of Hanoi");
-                stage.setScene(new Scene(root, 500, 260));
-                stage.centerOnScreen();
-                stage.show();
-            } catch (IOException ex) {
-                System.out.println("Load FXML exception: " + ex.getMessage());
-                ex.printStackTrace();
+        // The disks are translated by the width of a tower column, which is only known once the
+        // view has been laid out
+        middleVBox.widthProperty().addListener((observable, oldWidth, newWidth) -> placeAllDisks());
+
+        // Ctrl+Z undoes the last move, Ctrl+Y or Ctrl+Shift+Z makes it again
+        rootPane.addEventHandler(KeyEvent.KEY_PRESSED, event -> {
+            if (UNDO.match(event)) {
+                undoOrRedo(false);
+                event.consume();
+            } else if (REDO.match(event) || REDO_ALTERNATIVE.match(event)) {
+                undoOrRedo(true);
+                event.consume();
             }
         });
+
+        exitGameButton.setOnMousePressed(event -> {
+            HanoiMetrics.getInstance().sessionEnded();
+            timer.stop();
+            clock.pause();
+            writeSummary();
+            discardJournal();
+
+            SceneManager.getInstance().showMenu();
+        });
     }
 
     /**
-     * Add event handlers for all the disks that are present at startup, by iterating
-     * through the disks on the left tower and calling the function that adds event
-     * handlers for a single disk.
+     * Used to initialize the DataModel of a new game; the view may have been used for a previous
+     * game, which is discarded. It adds the disks on the left tower as children of the leftVBox,
+     * adds the event handlers for the disks and restarts the timer.
      *
-     * @param model for getting the disks on the left tower
+     * @param model reference to the instance of the DataModel that is to be initialized
      */
-    private void addEventHandlersForDisks(DataModel model) {
-        ObservableList<Disk> diskList = model.getLeftTower().getDisksOnTower();
+    public void initModel(DataModel model) {
+        initModel(model, null);
+    }
+
+    /**
+     * Used to initialize the DataModel of a new or a resumed game. The disks of a resumed game
+     * may be on any tower: all the disks are children of the leftVBox, and are translated to
+     * their towers. The game is journaled from its current state (see GameJournal).
+     *
+     * @param model reference to the instance of the DataModel that is to be initialized, with the
+     *              disks placed as they were when the game was interrupted if it is resumed
+     * @param savedGame the game that is resumed, or null for a new game
+     */
+    public void initModel(DataModel model, SavedGame savedGame) {
+        this.model = model;
+        dragging = false;
 
+        // Remove the disks of the previous game and add the new ones to the left VBox, from the
+        // smallest to the largest, as they are stacked on a tower
+        List<Disk> disks = new ArrayList<>();
+        for (int i = 0; i < model.getNrOfTowers(); i++) {
+            disks.addAll(model.getTower(i).getDisksOnTower());
+        }
+        disks.sort(Comparator.comparingInt(Disk::getSize));
+        leftVBox.getChildren().setAll(disks);
+        leftVBox.setMouseTransparent(false);
+        middleVBox.setMouseTransparent(false);
+        rightVBox.setMouseTransparent(false);
+
+        // Add the event handlers for the disks
+        addEventHandlersForDisks(disks);
+        placeAllDisks();
+
+        int nrOfDisks = model.getNrOfDisks();
+        towerOfDisk = new int[nrOfDisks];
+        model.getConfiguration(towerOfDisk);
+        PegState initialState = new PegState(model.getNrOfTowers());
+        initialState.setConfiguration(towerOfDisk, nrOfDisks);
+        history = new MoveHistory(initialState);
+        model.addDiskMoveListener(this::placeMovedDisk);
+
+        HanoiMetrics.getInstance().sessionStarted();
+        HanoiMetrics.getInstance().setNrOfDisks(model.getNrOfDisks());
+
+        // The restricted variants have no closed form for the hint; with at most 8 disks, the
+        // 3^8 configurations are searched after every move instead
+        Variant variant = model.getVariant();
+        explorer = variant == Variant.CLASSIC ? null : new StateSpaceExplorer(nrOfDisks, variant);
+        optimalMoves = Math.min(variant.moveCount(nrOfDisks, 3, 0, 1), variant.moveCount(nrOfDisks, 3, 0, 2));
+
+        updateHint();
+
+        // Restart the clock and the timer; a resumed game continues from its saved duration
+        if (savedGame == null) {
+            clock.reset();
+            startMillis = System.currentTimeMillis();
+        } else {
+            clock.setElapsedNanos(savedGame.getElapsedNanos());
+            startMillis = savedGame.getStartMillis();
+        }
+        telemetry = new MoveTelemetry(clock);
+        summaryWritten = false;
+        clock.start();
+        timerLabel.setText("" + formatDuration(clock.getElapsedSeconds()));
+        timer.playFromStart();
+
+        journal.begin(initialState, variant, model.getNrOfMoves(), clock.getElapsedNanos(), startMillis);
+        journaling = true;
+
+        // A game may have been saved right after its last move
+        checkGameFinished();
+    }
+
+    /**
+     * Add event handlers for all the disks that are present at startup, by iterating
+     * through the disks and calling the function that adds event handlers for a single disk.
+     *
+     * @param diskList the disks of the game
+     */
+    private void addEventHandlersForDisks(List<Disk> diskList) {
         for (Disk disk : diskList) {
             addEventHandlersForDisk(disk);
         }
@@ -162,6 +282,8 @@ public class ManualModeController {
                 }
 
                 model.setCurrentDisk(disk);
+                telemetry.diskPickedUp();
+                dragging = true;
 
                 // Set the initial position of the disk
                 disk.setOrgSceneX(event.getSceneX());
@@ -206,6 +328,8 @@ public class ManualModeController {
             if (disk.isDraggable()) {
                 disk.setMouseTransparent(false);
                 leftVBox.setMouseTransparent(false);
+                telemetry.diskDropped();
+                dragging = false;
 
                 disk.setCursor(Cursor.DEFAULT);
             }
@@ -216,257 +340,64 @@ public class ManualModeController {
      * Add event handlers for the vBox that is given as an argument. Only the event handler for the
      * mouseDragReleased is being treated in this function. This event handler contains the logic of
      * what happens when the disk is being dropped to the destination tower. As the disk is being dragged,
-     * its image is being translated along, but when it is dropped inside one of the VBoxes corresponding to
-     * the 3 towers, its position is instantly being changed from the source to the destination by hardcoding
-     * the coordinates of where it should be placed.
+     * its image is being translated along; when it is dropped inside one of the VBoxes corresponding to
+     * the 3 towers the move is made in the model, which places the disk on the destination tower (see
+     * placeMovedDisk). If the drop is not allowed, the disk is put back on top of its tower.
      *
      * @param vBox the VBox for which the handlers will be added
      */
     private void addEventHandlersForVBox(VBox vBox) {
         vBox.setOnMouseDragReleased(event -> {
-            double translateDiskOnX = 0;    // The amount by which the disk will be translated on the X axis
-            double translateDiskOnY = 0;    // The amount by which the disk will be translated on the Y axis
-            double currentDiskWidth = model.getCurrentDisk().getWidth();
             Tower leftTower = model.getLeftTower();
             Tower middleTower = model.getMiddleTower();
             Tower rightTower = model.getRightTower();
-            ObservableList<Disk> disksOnLeftTower = leftTower.getDisksOnTower();
-            ObservableList<Disk> disksOnMiddleTower = middleTower.getDisksOnTower();
-            ObservableList<Disk> disksOnRightTower = rightTower.getDisksOnTower();
-
+            Disk currentDisk = model.getCurrentDisk();
+            int source = -1;            // The index of the tower the disk is dragged from
+            int destination = -1;       // The index of the tower the disk is dropped on, -1 if it isn't dropped on another tower
 
             VBox sourceVBox = (VBox) event.getSource();
 
-            // Handle the case when the current disk is dragged from the left tower
             if (leftTower.isSource()) {
+                // Handle the case when the current disk is dragged from the left tower
+                source = 0;
                 if (sourceVBox.equals(middleVBox)) {
-                    // If trying to drop from the left tower onto the middle tower and
-                    // if the top disk on the middle tower has a greater size than
-                    // the one being dropped
-                    if (isDroppingAllowed(model.getMiddleTower().getDisksOnTower())) {
-                        // Set the translate on the X and Y axis
-                        translateDiskOnX = (((middleVBox.getWidth() - currentDiskWidth) / 2) * 2) + currentDiskWidth;
-                        translateDiskOnY = model.getCurrentDisk().getDiskOffset() - middleTower.getCurrentOffset() - 20;
-
-                        // If there are disks on the middle tower, make them undraggable
-                        if (!disksOnMiddleTower.isEmpty()) {
-                            for (Disk disk : disksOnMiddleTower) {
-                                disk.setDraggable(false);
-                            }
-                        }
-
-                        // Add the current disk to the middle tower and remove it from the left tower
-                        disksOnMiddleTower.add(0, model.getCurrentDisk());
-                        disksOnLeftTower.remove(model.getCurrentDisk());
-
-                        // If there is a top disk on the left tower, make it draggable
-                        if (!disksOnLeftTower.isEmpty()) {
-                            disksOnLeftTower.get(0).setDraggable(true);
-                        }
-
-                        // Set the offsets of the 2 towers that are involved
-                        middleTower.setCurrentOffset(disksOnMiddleTower.size() * 20);
-                        leftTower.setCurrentOffset(disksOnLeftTower.size() * 20);
-                    } else {
-                        // Reset the position back to the left tower
-                        translateDiskOnX = 0;
-                        translateDiskOnY = 0;
-                    }
+                    destination = 1;
                 } else if (sourceVBox.equals(rightVBox)) {
-                    // If trying to drop from the left tower onto the right tower and
-                    // if the top disk on the right tower has a greater size than
-                    // the one being dropped
-                    if (isDroppingAllowed(model.getRightTower().getDisksOnTower())) {
-                        // Set the translate on the X and Y axis
-                        translateDiskOnX = 2 * ((((middleVBox.getWidth() - currentDiskWidth) / 2) * 2) + currentDiskWidth);
-                        translateDiskOnY = model.getCurrentDisk().getDiskOffset() - rightTower.getCurrentOffset() - 20;
-
-                        // If there are disks on the right tower, make them undraggable
-                        if (!disksOnRightTower.isEmpty()) {
-                            for (Disk disk : disksOnRightTower) {
-                                disk.setDraggable(false);
-                            }
-                        }
-
-                        // Add the current disk to the right tower and remove it from the left tower
-                        disksOnRightTower.add(0, model.getCurrentDisk());
-                        disksOnLeftTower.remove(model.getCurrentDisk());
-
-                        // If there is a top disk on the left tower, make it draggable
-                        if (!disksOnLeftTower.isEmpty()) {
-                            disksOnLeftTower.get(0).setDraggable(true);
-                        }
-
-                        // Set the offsets of the 2 towers that are involved
-                        rightTower.setCurrentOffset(disksOnRightTower.size() * 20);
-                        leftTower.setCurrentOffset(disksOnLeftTower.size() * 20);
-                    } else {
-                        // Reset the position back to the left tower
-                        translateDiskOnX = 0;
-                        translateDiskOnY = 0;
-                    }
-                } else {
-                    // Reset the position back to the left tower
-                    translateDiskOnX = 0;
-                    translateDiskOnY = 0;
+                    destination = 2;
                 }
-            }
-
-            // Handle the case when the current disk is dragged from the middle tower
-            if (middleTower.isSource()) {
+            } else if (middleTower.isSource()) {
+                // Handle the case when the current disk is dragged from the middle tower; dropping
+                // it anywhere outside of the left or right towers puts it back
+                source = 1;
                 if (sourceVBox.equals(rightVBox)) {
-                    // If trying to drop from the middle tower onto the right tower and
-                    // if the top disk on the right tower has a greater size than
-                    // the one being dropped
-                    if (isDroppingAllowed(disksOnRightTower)) {
-                        // Set the translate on the X and Y axis
-                        translateDiskOnX = 2 * ((((middleVBox.getWidth() - currentDiskWidth) / 2) * 2) + currentDiskWidth);
-                        translateDiskOnY = model.getCurrentDisk().getDiskOffset() - rightTower.getCurrentOffset() - 20;
-
-                        // If there are disks on the right tower, make them undraggable
-                        if (!disksOnRightTower.isEmpty()) {
-                            for (Disk disk : disksOnRightTower) {
-                                disk.setDraggable(false);
-                            }
-                        }
-
-                        // Add the current disk to the right tower and remove it from the middle tower
-                        disksOnRightTower.add(0, model.getCurrentDisk());
-                        disksOnMiddleTower.remove(model.getCurrentDisk());
-
-                        // If there is a top disk on the middle tower, make it draggable
-                        if (!disksOnMiddleTower.isEmpty()) {
-                            disksOnMiddleTower.get(0).setDraggable(true);
-                        }
-
-                        // Set the offsets of the 2 towers that are involved
-                        rightTower.setCurrentOffset(disksOnRightTower.size() * 20);
-                        middleTower.setCurrentOffset(disksOnMiddleTower.size() * 20);
-                    } else {
-                        // Reset the position back to the middle tower
-                        translateDiskOnX = (((middleVBox.getWidth() - currentDiskWidth) / 2) * 2) + currentDiskWidth;
-                        translateDiskOnY = model.getCurrentDisk().getDiskOffset() - middleTower.getCurrentOffset();
-                    }
-                } else if ((event.getSceneX() > middleVBoxBounds.getMinX() && event.getSceneX() < middleVBoxBounds.getMaxX()) ||
-                        event.getSceneY() < middleVBoxBounds.getMinY()) {
-                    // If trying to drop from the middle tower to anywhere outside of the left or right towers
-                    translateDiskOnX = (((middleVBox.getWidth() - currentDiskWidth) / 2) * 2) + currentDiskWidth;
-                    translateDiskOnY = model.getCurrentDisk().getDiskOffset() - middleTower.getCurrentOffset();
-                } else {
-                    // If trying to drop from the middle tower onto the left tower and
-                    // if the top disk on the left tower has a greater size than
-                    // the one being dropped
-                    if (isDroppingAllowed(disksOnLeftTower)) {
-                        // Set the translate on the X and Y axis
-                        translateDiskOnX = 0;
-                        translateDiskOnY = model.getCurrentDisk().getDiskOffset() - leftTower.getCurrentOffset() - 20;
-
-                        // If there are disks on the left tower, make them undraggable
-                        if (!disksOnLeftTower.isEmpty()) {
-                            for (Disk disk : disksOnLeftTower) {
-                                disk.setDraggable(false);
-                            }
-                        }
-
-                        // Add the current disk to the left tower and remove it from the middle tower
-                        disksOnLeftTower.add(0, model.getCurrentDisk());
-                        disksOnMiddleTower.remove(model.getCurrentDisk());
-
-                        // If there is a top disk on the middle tower, make it draggable
-                        if (!disksOnMiddleTower.isEmpty()) {
-                            disksOnMiddleTower.get(0).setDraggable(true);
-                        }
-
-                        // Set the offsets of the 2 towers that are involved
-                        leftTower.setCurrentOffset(disksOnLeftTower.size() * 20);
-                        middleTower.setCurrentOffset(disksOnMiddleTower.size() * 20);
-                    } else {
-                        // Reset the position back to the middle tower
-                        translateDiskOnX = (((middleVBox.getWidth() - currentDiskWidth) / 2) * 2) + currentDiskWidth;
-                        translateDiskOnY = model.getCurrentDisk().getDiskOffset() - middleTower.getCurrentOffset();
-                    }
+                    destination = 2;
+                } else if (!((event.getSceneX() > middleVBoxBounds.getMinX() && event.getSceneX() < middleVBoxBounds.getMaxX()) ||
+                        event.getSceneY() < middleVBoxBounds.getMinY())) {
+                    destination = 0;
                 }
-            }
-
-            // Handle the case when the current disk is dragged from the right tower
-            if (rightTower.isSource()) {
+            } else if (rightTower.isSource()) {
+                // Handle the case when the current disk is dragged from the right tower; dropping
+                // it anywhere outside of the left or middle towers puts it back
+                source = 2;
                 if (sourceVBox.equals(middleVBox)) {
-                    // If trying to drop from the right tower onto the middle tower and
-                    // if the top disk on the middle tower has a greater size than
-                    // the one being dropped
-                    if (isDroppingAllowed(disksOnMiddleTower)) {
-                        // Set the translate on the X and Y axis
-                        translateDiskOnX = (((middleVBox.getWidth() - currentDiskWidth) / 2) * 2) + currentDiskWidth;
-                        translateDiskOnY = model.getCurrentDisk().getDiskOffset() - middleTower.getCurrentOffset() - 20;
-
-                        // If there are disks on the middle tower, make them undraggable
-                        if (!disksOnMiddleTower.isEmpty()) {
-                            for (Disk disk : disksOnMiddleTower) {
-                                disk.setDraggable(false);
-                            }
-                        }
-
-                        // Add the current disk to the middle tower and remove it from the right tower
-                        disksOnMiddleTower.add(0, model.getCurrentDisk());
-                        disksOnRightTower.remove(model.getCurrentDisk());
-
-                        // If there is a top disk on the right tower, make it draggable
-                        if (!disksOnRightTower.isEmpty()) {
-                            disksOnRightTower.get(0).setDraggable(true);
-                        }
-
-                        // Set the offsets of the 2 towers that are involved
-                        middleTower.setCurrentOffset(disksOnMiddleTower.size() * 20);
-                        rightTower.setCurrentOffset(disksOnRightTower.size() * 20);
-                    } else {
-                        // Reset the position back to the right tower
-                        translateDiskOnX = 2 * ((((middleVBox.getWidth() - currentDiskWidth) / 2) * 2) + currentDiskWidth);
-                        translateDiskOnY = model.getCurrentDisk().getDiskOffset() - rightTower.getCurrentOffset();
-                    }
-                } else if ((event.getSceneX() > rightVBoxBounds.getMinX() && event.getSceneX() < rightVBoxBounds.getMaxX()) ||
-                        event.getSceneY() < rightVBoxBounds.getMinY()) {
-                    // If trying to drop from the right tower to anywhere outside of the left or middle towers
-                    translateDiskOnX = 2 * ((((middleVBox.getWidth() - currentDiskWidth) / 2) * 2) + currentDiskWidth);
-                    translateDiskOnY = model.getCurrentDisk().getDiskOffset() - rightTower.getCurrentOffset();
-                } else {
-                    // If trying to drop from the right tower onto the left tower and
-                    // if the top disk on the left tower has a greater size than
-                    // the one being dropped
-                    if (isDroppingAllowed(disksOnLeftTower)) {
-                        // Set the translate on the X and Y axis
-                        translateDiskOnX = 0;
-                        translateDiskOnY = model.getCurrentDisk().getDiskOffset() - leftTower.getCurrentOffset() - 20;
-
-                        // If there are disks on the left tower, make them undraggable
-                        if (!disksOnLeftTower.isEmpty()) {
-                            for (Disk disk : disksOnLeftTower) {
-									disk.setDraggable(false);
-                            }
-                        }
-
-                        // Add the current disk to the left tower and remove it from the right tower
-                        disksOnLeftTower.add(0, model.getCurrentDisk());
-                        disksOnRightTower.remove(model.getCurrentDisk());
-
-                        // If there is a top disk on the right tower, make it draggable
-                        if (!disksOnRightTower.isEmpty()) {
-                            disksOnRightTower.get(0).setDraggable(true);
-                        }
-
-                        // Set the offsets of the 2 towers that are involved
-                        leftTower.setCurrentOffset(disksOnLeftTower.size() * 20);
-                        rightTower.setCurrentOffset(disksOnRightTower.size() * 20);
-                    } else {
-                        // Reset the position back to the right tower
-                        translateDiskOnX = 2 * ((((middleVBox.getWidth() - currentDiskWidth) / 2) * 2) + currentDiskWidth);
-                        translateDiskOnY = model.getCurrentDisk().getDiskOffset() - rightTower.getCurrentOffset();
-                    }
+                    destination = 1;
+                } else if (!((event.getSceneX() > rightVBoxBounds.getMinX() && event.getSceneX() < rightVBoxBounds.getMaxX()) ||
+                        event.getSceneY() < rightVBoxBounds.getMinY())) {
+                    destination = 0;
                 }
             }
 
-            // Translate the current disk according to the calculated offsets
-            model.getCurrentDisk().setTranslateX(translateDiskOnX);
-            model.getCurrentDisk().setTranslateY(translateDiskOnY);
+            // Make the move if the top disk on the destination tower has a greater size than
+            // the one being dropped and the variant allows it; otherwise reset the position back
+            // to the source tower
+            if (source >= 0 && destination >= 0 && model.isMoveAllowed(source, destination)
+                    && model.moveTop(source, destination)) {
+                history.record(source, destination);
+                appendToJournal(source, destination);
+            } else if (source >= 0) {
+                Tower sourceTower = model.getTower(source);
+                placeDisk(currentDisk, source, sourceTower.size() - 1);
+            }
 
             // Reset the source flags
             leftTower.setSource(false);
@@ -474,42 +405,183 @@ public class ManualModeController {
             rightTower.setSource(false);
 
             // Set the vBoxes to transparent, so that the disks can be clicked again
-            model.getCurrentDisk().setMouseTransparent(false);
+            currentDisk.setMouseTransparent(false);
             middleVBox.setMouseTransparent(true);
             leftVBox.setMouseTransparent(true);
             rightVBox.setMouseTransparent(true);
 
-            // If the game is finished stop the timer
-            if (isGameFinished()) {
-                timer.stop();
-                AutomaticModeController.time = 0;
-            }
+            updateHint();
+            checkGameFinished();
         });
     }
 
     /**
-     * This function checks if the user is allowed to drop the current disk on top
-     * of the disks that are already present on the target tower. This is achieved by comparing the
-     * sizes of the disks.
+     * If the game is finished, stops the timer and keeps the summary of the game.
+     */
+    private void checkGameFinished() {
+        if (model.isGameFinished()) {
+            timer.stop();
+            clock.pause();
+            timerLabel.setText("" + formatDuration(clock.getElapsedSeconds()));
+            writeSummary();
+            discardJournal();
+        }
+    }
+
+    /**
+     * Undoes the last move, or makes the last undone move again. The move is made on the model
+     * like any other move, so the disk is placed by placeMovedDisk; nothing happens while a disk
+     * is being dragged or once the game is finished.
+     *
+     * @param redo true to redo, false to undo
+     */
+    private void undoOrRedo(boolean redo) {
+        if (dragging || model.isGameFinished() || !(redo ? history.canRedo() : history.canUndo())) {
+            return;
+        }
+
+        int move = redo ? history.redo() : history.undo();
+        if (!model.moveTop(Move.from(move), Move.to(move))) {
+            throw new IllegalStateException("The history is out of sync with the model");
+        }
+        appendToJournal(Move.from(move), Move.to(move));
+        updateHint();
+        checkGameFinished();
+    }
+
+    /**
+     * Appends the summary of the game to the session log, once per game. A game that is left
+     * before it is finished is summarized as unfinished. Failing to write the log doesn't affect
+     * the game.
+     */
+    private void writeSummary() {
+        if (summaryWritten) {
+            return;
+        }
+        summaryWritten = true;
+
+        SessionSummary summary = SessionSummary.of(model.getNrOfDisks(), model.getNrOfTowers(), model.isGameFinished(),
+                startMillis, clock, telemetry, model.getNrOfMoves(), optimalMoves);
+        try {
+            SessionLog.getDefault().append(summary);
+        } catch (IOException ex) {
+            System.out.println("Could not write the session summary: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Appends a move to the journal of the game. Failing to write the journal doesn't affect the
+     * game, but it is no longer journaled.
      *
-     * @param disksOnTower a list of the disks that are currently present on the target tower
-     * @return true, if the size of the disk to be dropped is smaller than either one of the
-     *         disks on the tower, false otherwise
+     * @param from the index of the tower the disk was taken from
+     * @param to the index of the tower the disk was placed on
      */
-    private boolean isDroppingAllowed(ObservableList<Disk> disksOnTower) {
-        // If there is no disk on the tower, then the current disk can be added
-        if (disksOnTower == null || disksOnTower.isEmpty()) {
-            return true;
+    private void appendToJournal(int from, int to) {
+        if (!journaling) {
+            return;
+        }
+        try {
+            journal.append(from, to, clock.getElapsedNanos());
+        } catch (IOException ex) {
+            System.out.println("Could not write the game journal: " + ex.getMessage());
+            journaling = false;
         }
+    }
+
+    /**
+     * Deletes the journal of a game that is over, finished or left, so it isn't offered to be resumed.
+     */
+    private void discardJournal() {
+        journaling = false;
+        journal.discard();
+    }
 
-        // Check if any of the disks on the tower has a lesser size than the disk being dropped
-        for (Disk disk : disksOnTower) {
-            if (model.getCurrentDisk().getSize() > disk.getSize()) {
-                return false;
+    /**
+     * Places a disk that has just been moved in the model on top of its new tower. This is
+     * called by the model once per move.
+     *
+     * @param disk the disk that was moved
+     * @param from the index of the tower the disk was taken from
+     * @param to the index of the tower the disk was placed on
+     */
+    private void placeMovedDisk(Disk disk, int from, int to) {
+        placeDisk(disk, to, model.getTower(to).size() - 1);
+        HanoiMetrics.getInstance().recordMove();
+    }
+
+    /**
+     * Places every disk on its tower, e.g. once the width of the tower columns is known. Nothing
+     * happens while a disk is being dragged.
+     */
+    private void placeAllDisks() {
+        if (model == null || dragging) {
+            return;
+        }
+        for (int i = 0; i < model.getNrOfTowers(); i++) {
+            ObservableList<Disk> disksOnTower = model.getTower(i).getDisksOnTower();
+            for (int j = 0; j < disksOnTower.size(); j++) {
+                placeDisk(disksOnTower.get(j), i, j);
             }
         }
+    }
+
+    /**
+     * Translates a disk to hardcoded coordinates on a tower: the disks are children of the left
+     * VBox, so they are moved by the width of a tower column on the X axis and by their position
+     * on the tower on the Y axis.
+     *
+     * @param disk the disk to be placed
+     * @param towerIndex the index of the tower: 0 for the left, 1 for the middle and 2 for the right tower
+     * @param positionFromBottom the position of the disk on the tower, 0 being the bottom
+     */
+    private void placeDisk(Disk disk, int towerIndex, int positionFromBottom) {
+        disk.setTranslateX(towerIndex * middleVBox.getWidth());
+        disk.setTranslateY(disk.getDiskOffset() - (positionFromBottom + 1) * 20);
+    }
+
+    /**
+     * Updates the hint and the efficiency score. The hint is the first move of the shortest way
+     * to finish the game from the current configuration, on whichever of the middle and right
+     * towers is closer, following the rules of the variant. The efficiency compares the optimal
+     * number of moves of the whole game with the moves made so far plus the fewest moves still
+     * needed.
+     */
+    private void updateHint() {
+        int nrOfDisks = model.getNrOfDisks();
+        model.getConfiguration(towerOfDisk);
+
+        long remaining;
+        int move;
+        if (explorer == null) {
+            long toMiddle = HanoiOracle.distanceToPerfect(towerOfDisk, nrOfDisks, 1);
+            long toRight = HanoiOracle.distanceToPerfect(towerOfDisk, nrOfDisks, 2);
+            remaining = Math.min(toMiddle, toRight);
+            move = remaining == 0 ? -1 : HanoiOracle.nextMoveToPerfect(towerOfDisk, nrOfDisks, toMiddle < toRight ? 1 : 2);
+        } else {
+            long current = StateSpaceExplorer.encode(towerOfDisk, nrOfDisks);
+            int[] toMiddle = explorer.shortestPath(current, perfectState(nrOfDisks, 1));
+            int[] toRight = explorer.shortestPath(current, perfectState(nrOfDisks, 2));
+            int[] path = toMiddle.length < toRight.length ? toMiddle : toRight;
+            remaining = path.length;
+            move = remaining == 0 ? -1 : path[0];
+        }
+
+        if (remaining == 0) {
+            hintLabel.setText("Solved!");
+        } else {
+            hintLabel.setText("Hint: move the top disk of the " + TOWER_NAMES[Move.from(move)] + " tower to the "
+                    + TOWER_NAMES[Move.to(move)] + " tower (" + remaining + " moves left)");
+        }
+
+        double efficiency = 100.0 * optimalMoves / (model.getNrOfMoves() + remaining);
+        efficiencyLabel.setText(String.format("Moves: %d, efficiency: %.0f%%", model.getNrOfMoves(), efficiency));
+    }
 
-        return true;
+    /**
+     * @return the code of the configuration with all the disks on the given tower
+     */
+    private static long perfectState(int nrOfDisks, int tower) {
+        return tower * (StateSpaceExplorer.stateCount(nrOfDisks) - 1) / 2;
     }
 
     /**
@@ -527,37 +599,4 @@ public class ManualModeController {
                 (seconds % 3600) / 60,
                 seconds % 60);
     }
-
-    /**
-     * The game is finished if the left tower is
-     * empty and if only one of the disks in
-     * the game is draggable.
-     *
-     * @return true if the game is finished
-     *         false otherwise
-     */
-    private boolean isGameFinished() {
-        Tower leftTower = model.getLeftTower();
-        Tower middleTower = model.getMiddleTower();
-        Tower rightTower = model.getRightTower();
-        ObservableList<Disk> disksOnLeftTower = leftTower.getDisksOnTower();
-        ObservableList<Disk> disksOnMiddleTower = middleTower.getDisksOnTower();
-        ObservableList<Disk> disksOnRightTower = rightTower.getDisksOnTower();
-        int count = 0;
-
-        if (disksOnLeftTower.isEmpty()) {
-            for (Disk disk : disksOnMiddleTower) {
-                if (disk.isDraggable()) {
-                    count++;
-                }
-            }
-            for (Disk disk : disksOnRightTower) {
-                if (disk.isDraggable()) {
-                    count++;
-                }
-            }
-        }
-
-        return count == 1;
-    }
 }
\ No newline at end of file
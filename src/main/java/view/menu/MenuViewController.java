@@ -2,54 +2,93 @@ package view.menu;
 
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
-import javafx.stage.Stage;
+import journal.GameJournal;
+import journal.SavedGame;
 import model.DataModel;
 import org.apache.commons.lang3.StringUtils;
+import solver.PegState;
+import solver.Variant;
+import view.SceneManager;
 import view.automatic.AutomaticModeController;
-import view.manual.ManualModeController;
 
 import java.io.IOException;
 
 public class MenuViewController {
+    private static final int MAX_MANUAL_DISKS = 8;
+
     @FXML
     private ChoiceBox<String> gameModeChoiceBox;
 
+    @FXML
+    private Label nrOfDisksLabel;
+
     @FXML
     private TextField nrOfDisksTextField;
 
+    @FXML
+    private TextField nrOfPegsTextField;
+
+    @FXML
+    private ChoiceBox<String> variantChoiceBox;
+
+    @FXML
+    private Button resumeButton;
+
     /**
-     * Validates the user input (number of disks) and
-     * loads the corresponding UI: either the one for
+     * Called once, when the view is loaded: keeps the range of the number of disks shown for
+     * the automatic mode in line with the chosen variant.
+     */
+    @FXML
+    public void initialize() {
+        variantChoiceBox.valueProperty().addListener((observable, oldValue, newValue) -> updateDisksLabel());
+        updateDisksLabel();
+    }
+
+    private void updateDisksLabel() {
+        Variant variant = Variant.fromDisplayName(variantChoiceBox.getValue());
+        nrOfDisksLabel.setText("Number of disks (2-" + MAX_MANUAL_DISKS + ", or up to "
+                + Math.min(PegState.MAX_DISKS, variant.getMaxDisks()) + " in automatic):");
+    }
+
+    /**
+     * Enables the resume button if a manual game was interrupted before it was finished.
+     */
+    public void refresh() {
+        resumeButton.setDisable(!GameJournal.getDefault().hasSavedGame());
+    }
+
+    /**
+     * Validates the user input (number of disks and pegs) and
+     * shows the corresponding UI: either the one for
      * the manual mode, or the one for the automatic
      * mode.
      *
      */
     public void startGame(ActionEvent event) {
-        Stage stage;
-        Parent root = null;
-        DataModel model = new DataModel();
-
-        Button button = (Button) event.getSource();
-        stage = (Stage) button.getScene().getWindow();
+        DataModel model;
 
         // Get the mode and the number of disks from
         // the user
         String gameMode = gameModeChoiceBox.getSelectionModel().getSelectedItem();
         String nrOfDisksText = nrOfDisksTextField.getText();
+        String nrOfPegsText = nrOfPegsTextField.getText();
+        Variant variant = Variant.fromDisplayName(variantChoiceBox.getSelectionModel().getSelectedItem());
         int nrOfDisks;
+        int nrOfPegs;
 
-        // Validate the number of disks input: it should be a
-        // numeric value between 2 and 8
-        if (StringUtils.isNumeric(nrOfDisksText)) {
+        // Validate the number of disks input: it should be a numeric value
+        // between 2 and 8 for the manual mode; the automatic mode draws
+        // larger numbers of disks on a canvas, up to 64 (fewer for the
+        // restricted variants, whose solutions are longer)
+        int maxDisks = gameMode.equals("Manual") ? MAX_MANUAL_DISKS : Math.min(PegState.MAX_DISKS, variant.getMaxDisks());
+        if (StringUtils.isNumeric(nrOfDisksText) && nrOfDisksText.length() <= 9) {
             nrOfDisks = Integer.parseInt(nrOfDisksText);
-            if (nrOfDisks < 2 || nrOfDisks > 8) {
-                System.out.println("Enter a number between 2 and 8");
+            if (nrOfDisks < 2 || nrOfDisks > maxDisks) {
+                System.out.println("Enter a number between 2 and " + maxDisks);
                 return;
             }
         } else {
@@ -57,31 +96,72 @@ public class MenuViewController {
             return;
         }
 
-        model.createDiskList(nrOfDisks);
-
-        try {
-            if (gameMode.equals("Manual")) {
-                // Load the UI for the manual game mode
-                FXMLLoader manualModeLoader = new FXMLLoader(getClass().getResource("/fxml/manualMode.fxml"));
-                root = manualModeLoader.load();
-                ManualModeController manualModeController = manualModeLoader.getController();
-                manualModeController.initModel(model);
-            } else if (gameMode.equals("Automatic")) {
-                // Load the UI for the automatic game mode
-                FXMLLoader automaticModeLoader = new FXMLLoader(getClass().getResource("/fxml/automaticMode.fxml"));
-                root = automaticModeLoader.load();
-                AutomaticModeController automaticModeController = automaticModeLoader.getController();
-                automaticModeController.initModel(model);
+        // Validate the number of pegs input: the manual mode is played
+        // with 3 pegs, the automatic mode supports between 3 and 10
+        if (StringUtils.isNumeric(nrOfPegsText)) {
+            nrOfPegs = Integer.parseInt(nrOfPegsText);
+            if (gameMode.equals("Manual") && nrOfPegs != 3) {
+                System.out.println("The manual mode is played with 3 pegs");
+                return;
+            }
+            if (nrOfPegs < 3 || nrOfPegs > 10) {
+                System.out.println("Enter a number of pegs between 3 and 10");
+                return;
             }
+        } else {
+            System.out.println("Enter a number of pegs");
+            return;
+        }
+
+        // The restricted variants are only defined for 3 pegs
+        if (!variant.supportsPegs(nrOfPegs)) {
+            System.out.println("The " + variant.getDisplayName() + " variant is played with 3 pegs");
+            return;
+        }
+
+        model = new DataModel(nrOfPegs);
+        model.setVariant(variant);
+        if (nrOfDisks <= AutomaticModeController.MAX_NODE_DISKS) {
+            model.createDiskList(nrOfDisks);
+        } else {
+            // The canvas only needs the number of disks, not the disk nodes
+            model.setNrOfDisks(nrOfDisks);
+        }
 
-            Scene scene = new Scene(root, 1200, 600);
-            stage.setScene(scene);
-            stage.centerOnScreen();
-            stage.show();
+        // The views of the game modes are loaded once and reused
+        if (gameMode.equals("Manual")) {
+            SceneManager.getInstance().showManualMode(model);
+        } else if (gameMode.equals("Automatic")) {
+            SceneManager.getInstance().showAutomaticMode(model);
+        }
+    }
 
+    /**
+     * Resumes the manual game that was interrupted, rebuilt from its journal (see GameJournal),
+     * with the disks, the number of moves and the duration it had after the last saved move.
+     */
+    public void resumeGame(ActionEvent event) {
+        SavedGame savedGame;
+        try {
+            savedGame = GameJournal.getDefault().recover();
         } catch (IOException ex) {
-            System.out.println("Load FXML exception: " + ex.getMessage());
-            ex.printStackTrace();
+            System.out.println("Could not read the saved game: " + ex.getMessage());
+            return;
+        }
+        if (savedGame == null || savedGame.getNrOfPegs() != 3 || savedGame.getNrOfDisks() > MAX_MANUAL_DISKS) {
+            System.out.println("The saved game can't be resumed");
+            GameJournal.getDefault().discard();
+            refresh();
+            return;
         }
+
+        int[] towerOfDisk = new int[savedGame.getNrOfDisks()];
+        savedGame.getState().getConfiguration(towerOfDisk);
+        DataModel model = new DataModel(savedGame.getNrOfPegs());
+        model.setVariant(savedGame.getVariant());
+        model.createDiskList(savedGame.getNrOfDisks());
+        model.resume(towerOfDisk, savedGame.getNrOfMoves());
+
+        SceneManager.getInstance().resumeManualMode(model, savedGame);
     }
 }
@@ -0,0 +1,146 @@
+package cli;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import solver.MoveLog;
+import solver.MoveLogWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the batch mode with valid and invalid arguments and checks the exit codes, the messages
+ * printed for invalid arguments and the output written to a file.
+ */
+class HanoiCliTest {
+    @TempDir
+    Path directory;
+
+    private final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private PrintStream systemErr;
+    private PrintStream systemOut;
+
+    @BeforeEach
+    void captureOutput() {
+        systemErr = System.err;
+        systemOut = System.out;
+        System.setErr(new PrintStream(errors, true));
+        System.setOut(new PrintStream(output, true));
+    }
+
+    @AfterEach
+    void restoreOutput() {
+        System.setErr(systemErr);
+        System.setOut(systemOut);
+    }
+
+    @Test
+    void missingOrInvalidNumberOfDisks() {
+        assertEquals(HanoiCli.EXIT_USAGE, HanoiCli.run(new String[0]));
+        assertTrue(errors().startsWith("The number of disks is required"), errors());
+
+        errors.reset();
+        assertEquals(HanoiCli.EXIT_USAGE, HanoiCli.run(new String[] { "--disks", "-3" }));
+        assertTrue(errors().startsWith("The number of disks must be between 1 and "), errors());
+
+        for (String disks : new String[] { "0", "5-3", "1-1000", "three", "3-" }) {
+            errors.reset();
+            assertEquals(HanoiCli.EXIT_USAGE, HanoiCli.run(new String[] { "--disks", disks }), disks);
+            assertFalse(errors().startsWith("The number of disks is required"), disks);
+        }
+    }
+
+    @Test
+    void invalidOptions() {
+        assertEquals(HanoiCli.EXIT_USAGE, HanoiCli.run(new String[] { "--disks", "3", "--unknown" }));
+        assertEquals(HanoiCli.EXIT_USAGE, HanoiCli.run(new String[] { "--disks" }));
+        assertEquals(HanoiCli.EXIT_USAGE, HanoiCli.run(new String[] { "--disks", "3", "--pegs", "2" }));
+        assertEquals(HanoiCli.EXIT_USAGE, HanoiCli.run(new String[] { "--disks", "3", "--from", "1", "--to", "1" }));
+        assertEquals(HanoiCli.EXIT_USAGE, HanoiCli.run(new String[] { "--disks", "3", "--to", "3" }));
+        assertEquals(HanoiCli.EXIT_USAGE, HanoiCli.run(new String[] { "--disks", "3", "--pegs", "4", "--variant", "cyclic" }));
+    }
+
+    @Test
+    void rangeOfDisks() throws IOException {
+        Path file = directory.resolve("counts.txt");
+        assertEquals(HanoiCli.EXIT_OK, HanoiCli.run(new String[] { "--disks", "2-4", "--count", "--out", file.toString() }));
+        assertEquals(Arrays.asList("2 disks: 3 moves", "3 disks: 7 moves", "4 disks: 15 moves"), Files.readAllLines(file));
+
+        assertEquals(HanoiCli.EXIT_OK, HanoiCli.run(new String[] { "--disks", "3-3", "--out", file.toString() }));
+        List<String> moves = Files.readAllLines(file);
+        assertEquals(7, moves.size());
+        assertEquals("0 0 2", moves.get(0));
+        assertEquals("2 0 2", moves.get(3));
+    }
+
+    @Test
+    void binaryLogNeedsAFileAndASingleNumberOfDisks() throws IOException {
+        Path file = directory.resolve("moves.log");
+        assertEquals(HanoiCli.EXIT_USAGE, HanoiCli.run(new String[] { "--disks", "3", "--binary" }));
+        assertEquals(HanoiCli.EXIT_USAGE, HanoiCli.run(new String[] { "--disks", "3-4", "--binary", "--out", file.toString() }));
+        assertEquals(HanoiCli.EXIT_USAGE, HanoiCli.run(new String[] { "--disks", "3", "--count", "--binary", "--out", file.toString() }));
+        assertFalse(Files.exists(file));
+
+        assertEquals(HanoiCli.EXIT_OK, HanoiCli.run(new String[] { "--disks", "3", "--binary", "--out", file.toString() }));
+        assertEquals(HanoiCli.EXIT_OK, HanoiCli.run(new String[] { "--validate", file.toString() }));
+    }
+
+    @Test
+    void validateRejectsOtherOptions() throws IOException {
+        Path file = directory.resolve("moves.log");
+        assertEquals(HanoiCli.EXIT_OK, HanoiCli.run(new String[] { "--disks", "3", "--binary", "--out", file.toString() }));
+
+        assertEquals(HanoiCli.EXIT_OK, HanoiCli.run(new String[] { "--validate", file.toString(), "--variant", "classic" }));
+        assertEquals(HanoiCli.EXIT_USAGE, HanoiCli.run(new String[] { "--validate", file.toString(), "--disks", "3" }));
+        assertEquals(HanoiCli.EXIT_USAGE, HanoiCli.run(new String[] { "--validate", file.toString(), "--count" }));
+        assertEquals(HanoiCli.EXIT_USAGE, HanoiCli.run(new String[] { "--validate", file.toString(), "--variant", "cyclic", "--pegs", "4" }));
+    }
+
+    @Test
+    void invalidLogs() throws IOException {
+        // A single move doesn't solve the puzzle
+        Path unsolved = directory.resolve("unsolved.log");
+        try (MoveLogWriter writer = new MoveLogWriter(unsolved, MoveLog.ENCODING_PAIR, 3, 3, 0, 2)) {
+            writer.append(0, 2);
+        }
+        assertEquals(HanoiCli.EXIT_INVALID, HanoiCli.run(new String[] { "--validate", unsolved.toString() }));
+
+        // The second move puts the middle disk on the smallest one
+        Path illegal = directory.resolve("illegal.log");
+        try (MoveLogWriter writer = new MoveLogWriter(illegal, MoveLog.ENCODING_DIRECTED, 3, 3, 0, 2)) {
+            writer.append(0, 2);
+            writer.append(0, 2);
+        }
+        output.reset();
+        assertEquals(HanoiCli.EXIT_INVALID, HanoiCli.run(new String[] { "--validate", illegal.toString() }));
+        assertTrue(output().startsWith("illegal move at position 1 "), output());
+
+        // The adjacent variant doesn't allow the moves of the classic solution
+        Path classic = directory.resolve("classic.log");
+        assertEquals(HanoiCli.EXIT_OK, HanoiCli.run(new String[] { "--disks", "3", "--binary", "--out", classic.toString() }));
+        assertEquals(HanoiCli.EXIT_INVALID, HanoiCli.run(new String[] { "--validate", classic.toString(), "--variant", "adjacent" }));
+
+        assertEquals(HanoiCli.EXIT_FAILURE, HanoiCli.run(new String[] { "--validate", directory.resolve("missing.log").toString() }));
+    }
+
+    private String output() {
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private String errors() {
+        return new String(errors.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
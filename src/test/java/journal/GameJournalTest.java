@@ -0,0 +1,269 @@
+package journal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import solver.Move;
+import solver.PegState;
+import solver.Variant;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recovers games from journals that were left as a crash would leave them: never closed, cut off
+ * at any byte, followed by garbage, or out of step with the snapshot.
+ */
+class GameJournalTest {
+    private static final int NR_OF_DISKS = 8;
+    private static final long START_MILLIS = 1_234_567L;
+
+    @TempDir
+    Path directory;
+
+    private GameJournal journal;
+    private Random random;
+    private List<PegState> states;          // The state after every move, starting with the initial state
+
+    @BeforeEach
+    void setUp() {
+        journal = new GameJournal(directory);
+        random = new Random(3);
+        states = new ArrayList<>();
+    }
+
+    @Test
+    void noSavedGame() throws IOException {
+        assertFalse(journal.hasSavedGame());
+        assertNull(journal.recover());
+    }
+
+    @Test
+    void recoversLongGameThatWasNeverClosed() throws IOException {
+        int nrOfMoves = 3 * GameJournal.SNAPSHOT_INTERVAL + 100;
+        play(nrOfMoves);
+
+        SavedGame game = journal.recover();
+        assertNotNull(game);
+        assertEquals(nrOfMoves, game.getNrOfMoves());
+        assertEquals(states.get(nrOfMoves), game.getState());
+        assertEquals(Variant.CLASSIC, game.getVariant());
+        assertEquals(START_MILLIS, game.getStartMillis());
+        assertTrue(game.getElapsedNanos() <= elapsedNanos(nrOfMoves));
+    }
+
+    @Test
+    void recoversThePrefixOfATruncatedJournal() throws IOException {
+        int nrOfMoves = 200;
+        play(nrOfMoves);
+        journal.close();
+        byte[] full = Files.readAllBytes(journalPath());
+
+        // Every cut keeps the moves that were written completely, and never more
+        long previous = 0;
+        for (int length = 0; length <= full.length; length++) {
+            Files.write(journalPath(), Arrays.copyOf(full, length));
+            SavedGame game = journal.recover();
+            int moves = (int) game.getNrOfMoves();
+            assertEquals(states.get(moves), game.getState(), "length " + length);
+            assertTrue(moves >= previous, "length " + length);
+            previous = moves;
+        }
+        assertEquals(nrOfMoves, previous);
+    }
+
+    @Test
+    void ignoresAPartialTimeMark() throws IOException {
+        int nrOfMoves = 50;
+        play(nrOfMoves);
+        journal.close();
+
+        append(new byte[] {0, 1, 2, 3});
+        SavedGame game = journal.recover();
+        assertEquals(nrOfMoves, game.getNrOfMoves());
+        assertEquals(states.get(nrOfMoves), game.getState());
+    }
+
+    @Test
+    void stopsAtTheFirstIllegalMove() throws IOException {
+        int nrOfMoves = 50;
+        play(nrOfMoves);
+        journal.close();
+
+        // The moves after an illegal move are not applied, even if they are legal themselves
+        PegState last = states.get(nrOfMoves);
+        int[] legal = legalMove(last, Variant.CLASSIC);
+        for (byte illegal : new byte[] {illegalMove(last), (byte) 0xFF}) {
+            byte[] bytes = Files.readAllBytes(journalPath());
+            append(new byte[] {illegal, Move.packPegs(legal[0], legal[1])});
+
+            SavedGame game = journal.recover();
+            assertEquals(nrOfMoves, game.getNrOfMoves());
+            assertEquals(last, game.getState());
+            Files.write(journalPath(), bytes);
+        }
+    }
+
+    @Test
+    void ignoresAJournalOfAnotherGeneration() throws IOException {
+        int nrOfMoves = GameJournal.SNAPSHOT_INTERVAL + 10;
+        play(nrOfMoves);
+        journal.close();
+
+        // A crash between the new snapshot and the restart of the journal leaves the previous one
+        byte[] bytes = Files.readAllBytes(journalPath());
+        bytes[8] ^= 1;
+        Files.write(journalPath(), bytes);
+
+        SavedGame game = journal.recover();
+        assertEquals(GameJournal.SNAPSHOT_INTERVAL, game.getNrOfMoves());
+        assertEquals(states.get(GameJournal.SNAPSHOT_INTERVAL), game.getState());
+    }
+
+    @Test
+    void rejectsACorruptedSnapshot() throws IOException {
+        play(10);
+        journal.close();
+        Path snapshot = directory.resolve("game.snapshot");
+        byte[] bytes = Files.readAllBytes(snapshot);
+
+        for (int i = 0; i < bytes.length; i++) {
+            byte[] corrupted = bytes.clone();
+            corrupted[i] ^= 0x10;
+            Files.write(snapshot, corrupted);
+            assertNull(journal.recover(), "byte " + i);
+        }
+
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 1));
+        assertNull(journal.recover());
+    }
+
+    @Test
+    void resumedGameKeepsItsMovesAndTime() throws IOException {
+        play(30);
+        SavedGame saved = journal.recover();
+
+        // The resumed game is journaled from the recovered state
+        GameJournal resumed = new GameJournal(directory);
+        resumed.begin(saved.getState(), Variant.ADJACENT, saved.getNrOfMoves(), 5_000_000_000L, saved.getStartMillis());
+        PegState state = new PegState(3);
+        state.copyFrom(saved.getState());
+        int[] move = legalMove(state, Variant.ADJACENT);
+        resumed.append(move[0], move[1], 6_000_000_000L);
+        state.move(move[0], move[1]);
+
+        SavedGame game = new GameJournal(directory).recover();
+        assertEquals(31, game.getNrOfMoves());
+        assertEquals(state, game.getState());
+        assertEquals(Variant.ADJACENT, game.getVariant());
+        assertEquals(START_MILLIS, game.getStartMillis());
+        assertTrue(game.getElapsedNanos() >= 5_000_000_000L);
+        resumed.close();
+    }
+
+    @Test
+    void discardDeletesTheGame() throws IOException {
+        play(10);
+        assertTrue(journal.hasSavedGame());
+        journal.discard();
+        assertFalse(journal.hasSavedGame());
+        assertNull(journal.recover());
+    }
+
+    @Test
+    void failedWriteIsReportedByTheNextAppend() throws IOException {
+        // The directory of the journal is a file, so the snapshot can't be written
+        Path file = directory.resolve("file");
+        Files.write(file, new byte[0]);
+        GameJournal broken = new GameJournal(file);
+        broken.begin(new PegState(3, NR_OF_DISKS, 0), Variant.CLASSIC, 0, 0, START_MILLIS);
+
+        // Recovering waits for the snapshot to be written in the background
+        assertNull(broken.recover());
+        assertThrows(IOException.class, () -> broken.append(0, 1, 0));
+        assertThrows(IOException.class, broken::close);
+
+        // The next game doesn't inherit the failure
+        Files.delete(file);
+        PegState state = new PegState(3, NR_OF_DISKS, 0);
+        broken.begin(state, Variant.CLASSIC, 0, 0, START_MILLIS);
+        broken.append(0, 1, 0);
+        broken.close();
+        state.move(0, 1);
+        assertEquals(state, broken.recover().getState());
+    }
+
+    /**
+     * Starts a game and journals random legal moves, keeping the state after every move.
+     */
+    private void play(int nrOfMoves) throws IOException {
+        PegState state = new PegState(3, NR_OF_DISKS, 0);
+        journal.begin(state, Variant.CLASSIC, 0, 0, START_MILLIS);
+        states.add(copy(state));
+        for (int i = 1; i <= nrOfMoves; i++) {
+            int[] move = legalMove(state, Variant.CLASSIC);
+            state.move(move[0], move[1]);
+            journal.append(move[0], move[1], elapsedNanos(i));
+            states.add(copy(state));
+        }
+    }
+
+    private int[] legalMove(PegState state, Variant variant) {
+        while (true) {
+            int from = random.nextInt(3);
+            int to = random.nextInt(3);
+            if (from != to && variant.isAllowed(from, to) && state.canMove(from, to)) {
+                return new int[] {from, to};
+            }
+        }
+    }
+
+    /**
+     * @return a move of two different pegs that is not legal in the state
+     */
+    private static byte illegalMove(PegState state) {
+        for (int from = 0; from < 3; from++) {
+            for (int to = 0; to < 3; to++) {
+                if (from != to && !state.canMove(from, to)) {
+                    return Move.packPegs(from, to);
+                }
+            }
+        }
+        throw new IllegalStateException("Every move is legal in " + state);
+    }
+
+    private static long elapsedNanos(int moveIndex) {
+        return moveIndex * 1_000_000L;
+    }
+
+    private static PegState copy(PegState state) {
+        PegState copy = new PegState(state.getNrOfPegs());
+        copy.copyFrom(state);
+        return copy;
+    }
+
+    private Path journalPath() {
+        return directory.resolve("game.journal");
+    }
+
+    private void append(byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(journalPath(), StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(bytes));
+        }
+    }
+}
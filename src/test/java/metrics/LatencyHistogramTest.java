@@ -0,0 +1,103 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the bucket edges of the histogram, the relative error it promises and the percentiles
+ * computed from the buckets.
+ */
+class LatencyHistogramTest {
+    @Test
+    void bucketEdges() {
+        // Below 16 every value has a bucket of its own
+        for (int value = 0; value < 16; value++) {
+            assertEquals(value, LatencyHistogram.bucketOf(value));
+            assertEquals(value, LatencyHistogram.upperBoundOf(value));
+        }
+
+        // From 16 to 31 the buckets are still one value wide, from 32 on they are two values wide
+        assertEquals(16, LatencyHistogram.bucketOf(16));
+        assertEquals(16, LatencyHistogram.upperBoundOf(16));
+        assertEquals(31, LatencyHistogram.bucketOf(31));
+        assertEquals(31, LatencyHistogram.upperBoundOf(31));
+        assertEquals(32, LatencyHistogram.bucketOf(32));
+        assertEquals(32, LatencyHistogram.bucketOf(33));
+        assertEquals(33, LatencyHistogram.upperBoundOf(32));
+        assertEquals(33, LatencyHistogram.bucketOf(34));
+
+        int last = LatencyHistogram.bucketOf(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundOf(last));
+        assertEquals(last, LatencyHistogram.bucketOf(Long.MAX_VALUE - (1L << 58) + 1));
+        assertEquals(last - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE - (1L << 58)));
+    }
+
+    @Test
+    void bucketsAreContiguous() {
+        // Every bucket starts right after the previous one ends
+        int last = LatencyHistogram.bucketOf(Long.MAX_VALUE);
+        for (int bucket = 1; bucket <= last; bucket++) {
+            long firstValue = LatencyHistogram.upperBoundOf(bucket - 1) + 1;
+            assertEquals(bucket, LatencyHistogram.bucketOf(firstValue), "first value of bucket " + bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(LatencyHistogram.upperBoundOf(bucket)), "last value of bucket " + bucket);
+        }
+    }
+
+    @Test
+    void relativeErrorIsAtMostOneSixteenth() {
+        Random random = new Random(16);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong() >>> 1 + random.nextInt(63);
+            long upperBound = LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(value));
+            assertTrue(upperBound >= value, "value " + value);
+            assertTrue(upperBound - value <= value / 16, "value " + value + ", upper bound " + upperBound);
+        }
+    }
+
+    @Test
+    void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(0));
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(0, histogram.getValueAtPercentile(100));
+
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(upperBoundOfValue(50), histogram.getValueAtPercentile(50));
+        assertEquals(upperBoundOfValue(99), histogram.getValueAtPercentile(99));
+        assertEquals(upperBoundOfValue(100), histogram.getValueAtPercentile(100));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(-1));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101));
+    }
+
+    @Test
+    void addAndReset() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(-5);
+        first.record(Long.MAX_VALUE);
+        second.record(1000);
+
+        first.add(second);
+        assertEquals(3, first.getCount());
+        assertEquals(0, first.getValueAtPercentile(0));
+        assertEquals(upperBoundOfValue(1000), first.getValueAtPercentile(50));
+        assertEquals(Long.MAX_VALUE, first.getValueAtPercentile(100));
+
+        first.reset();
+        assertEquals(0, first.getCount());
+        assertEquals(0, first.getValueAtPercentile(100));
+    }
+
+    private static long upperBoundOfValue(long value) {
+        return LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(value));
+    }
+}
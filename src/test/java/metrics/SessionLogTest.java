@@ -0,0 +1,121 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Reads logs that were left as a crash would leave them: with a record cut off at any byte, or
+ * damaged, followed by the records of later runs.
+ */
+class SessionLogTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsTheRecordsThatWereAppended() throws IOException {
+        SessionLog log = new SessionLog(directory.resolve("sessions.bin"));
+        for (int i = 0; i < 3; i++) {
+            log.append(summary(i));
+        }
+
+        List<SessionSummary> summaries = read(log);
+        assertEquals(3, summaries.size());
+        for (int i = 0; i < 3; i++) {
+            assertSummary(summary(i), summaries.get(i));
+        }
+    }
+
+    @Test
+    void skipsARecordThatWasPartlyWritten() throws IOException {
+        for (int length = 1; length < SessionSummary.SIZE; length++) {
+            SessionLog log = new SessionLog(directory.resolve("partial-" + length + ".bin"));
+            log.append(summary(0));
+            Files.write(log.getPath(), bytes(summary(1), length), StandardOpenOption.APPEND);
+            log.append(summary(2));
+
+            List<SessionSummary> summaries = read(log);
+            assertEquals(2, summaries.size(), "cut after " + length + " bytes");
+            assertSummary(summary(0), summaries.get(0));
+            assertSummary(summary(2), summaries.get(1));
+        }
+    }
+
+    @Test
+    void skipsADamagedRecord() throws IOException {
+        for (int offset = 0; offset < SessionSummary.SIZE; offset++) {
+            SessionLog log = new SessionLog(directory.resolve("damaged-" + offset + ".bin"));
+            byte[] damaged = bytes(summary(1), SessionSummary.SIZE);
+            damaged[offset] ^= 0x10;
+            log.append(summary(0));
+            Files.write(log.getPath(), damaged, StandardOpenOption.APPEND);
+            log.append(summary(2));
+
+            List<SessionSummary> summaries = read(log);
+            assertEquals(2, summaries.size(), "byte " + offset + " damaged");
+            assertSummary(summary(0), summaries.get(0));
+            assertSummary(summary(2), summaries.get(1));
+        }
+    }
+
+    @Test
+    void readsPastTheBufferOfTheReader() throws IOException {
+        // More records than the reader buffers at once, after a partial record that shifts them
+        SessionLog log = new SessionLog(directory.resolve("sessions.bin"));
+        Files.createDirectories(directory);
+        Files.write(log.getPath(), bytes(summary(0), 17));
+        int nrOfRecords = 3000;
+        for (int i = 1; i <= nrOfRecords; i++) {
+            log.append(summary(i));
+        }
+
+        List<SessionSummary> summaries = read(log);
+        assertEquals(nrOfRecords, summaries.size());
+        for (int i = 1; i <= nrOfRecords; i++) {
+            assertSummary(summary(i), summaries.get(i - 1));
+        }
+    }
+
+    private static SessionSummary summary(int i) {
+        return new SessionSummary(3 + i % 6, 3, i % 2 == 0, 1_000_000L + i, 5_000_000_000L + i, 10 + i, 7,
+                100 + i, 200 + i, 300 + i, 400 + i);
+    }
+
+    private static byte[] bytes(SessionSummary summary, int length) {
+        ByteBuffer record = ByteBuffer.allocate(SessionSummary.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        summary.write(record);
+        byte[] bytes = new byte[length];
+        System.arraycopy(record.array(), 0, bytes, 0, length);
+        return bytes;
+    }
+
+    private static List<SessionSummary> read(SessionLog log) throws IOException {
+        List<SessionSummary> summaries = new ArrayList<>();
+        log.forEach(summaries::add);
+        return summaries;
+    }
+
+    private static void assertSummary(SessionSummary expected, SessionSummary actual) {
+        assertEquals(expected.getNrOfDisks(), actual.getNrOfDisks());
+        assertEquals(expected.getNrOfTowers(), actual.getNrOfTowers());
+        assertEquals(expected.isFinished(), actual.isFinished());
+        assertEquals(expected.getStartMillis(), actual.getStartMillis());
+        assertEquals(expected.getDurationNanos(), actual.getDurationNanos());
+        assertEquals(expected.getNrOfMoves(), actual.getNrOfMoves());
+        assertEquals(expected.getOptimalMoves(), actual.getOptimalMoves());
+        assertEquals(expected.getThinkTimeP50(), actual.getThinkTimeP50());
+        assertEquals(expected.getThinkTimeP99(), actual.getThinkTimeP99());
+        assertEquals(expected.getDragTimeP50(), actual.getDragTimeP50());
+        assertEquals(expected.getDragTimeP99(), actual.getDragTimeP99());
+    }
+}
@@ -0,0 +1,185 @@
+package model;
+
+import javafx.collections.FXCollections;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the bitmask of every tower stays in sync with its list of disks, that only the top
+ * disk of a tower is draggable, and that moveTop, setConfiguration and the finished flag follow
+ * the rules of the game. The disks are plain shapes, so the JavaFX toolkit is not started.
+ */
+class DataModelTest {
+    @Test
+    void towerKeepsItsBitmaskAndListInSync() {
+        Tower tower = new Tower();
+        assertTrue(tower.isEmpty());
+        assertEquals(0, tower.top());
+        assertNull(tower.getTopDisk());
+        assertThrows(IllegalStateException.class, tower::pop);
+
+        Disk five = disk(5);
+        Disk three = disk(3);
+        Disk one = disk(1);
+        tower.push(five);
+        tower.push(three);
+        assertThrows(IllegalStateException.class, () -> tower.push(disk(4)));
+        tower.push(one);
+        assertTower(tower, five, three, one);
+        assertEquals(0b10101, tower.getDisks());
+        assertFalse(tower.canAccept(2));
+        assertEquals(60, tower.getCurrentOffset());
+
+        assertSame(one, tower.pop());
+        assertTower(tower, five, three);
+        assertTrue(tower.canAccept(2));
+        assertEquals(40, tower.getCurrentOffset());
+
+        tower.setDisksOnTower(FXCollections.observableArrayList(disk(4), disk(2)));
+        assertEquals(0b1010, tower.getDisks());
+        assertEquals(2, tower.top());
+        assertEquals(40, tower.getCurrentOffset());
+    }
+
+    @Test
+    void onlyTheTopDiskIsDraggable() {
+        DataModel model = new DataModel();
+        model.createDiskList(4);
+        assertDraggable(model);
+
+        int[][] moves = { { 0, 1 }, { 0, 2 }, { 1, 2 }, { 0, 1 }, { 2, 0 }, { 2, 1 }, { 0, 1 } };
+        for (int[] move : moves) {
+            assertTrue(model.moveTop(move[0], move[1]));
+            assertDraggable(model);
+        }
+    }
+
+    @Test
+    void moveTopOnlyMakesLegalMoves() {
+        DataModel model = new DataModel();
+        model.createDiskList(3);
+        List<String> notified = new ArrayList<>();
+        model.addDiskMoveListener((disk, from, to) -> notified.add(disk.getSize() + " " + from + " " + to));
+
+        assertFalse(model.moveTop(1, 2));               // The middle tower is empty
+        assertFalse(model.moveTop(0, 0));
+        assertTrue(model.moveTop(0, 2));
+        assertFalse(model.moveTop(0, 2));               // Disk 2 can't go on disk 1
+        assertThrows(IllegalArgumentException.class, () -> model.moveTop(0, 3));
+        assertTrue(model.moveTop(0, 1));
+
+        assertEquals(2, model.getNrOfMoves());
+        assertEquals(List.of("1 0 2", "2 0 1"), notified);
+        int[] towerOfDisk = new int[3];
+        model.getConfiguration(towerOfDisk);
+        assertArrayEquals(new int[] { 2, 1, 0 }, towerOfDisk);
+    }
+
+    @Test
+    void gameIsFinishedWhenTheDisksAreGatheredAwayFromTheLeftTower() {
+        DataModel model = new DataModel();
+        model.createDiskList(2);
+        assertTrue(model.moveTop(0, 1));
+        assertTrue(model.moveTop(0, 2));
+        assertFalse(model.isGameFinished());
+        assertTrue(model.moveTop(1, 2));
+        assertTrue(model.isGameFinished());
+
+        // Moving the disks back to the left tower doesn't finish the game
+        assertTrue(model.moveTop(2, 1));
+        assertFalse(model.isGameFinished());
+        assertTrue(model.moveTop(2, 0));
+        assertTrue(model.moveTop(1, 0));
+        assertFalse(model.isGameFinished());
+
+        model.createDiskList(2);
+        assertFalse(model.isGameFinished());
+        assertEquals(0, model.getNrOfMoves());
+    }
+
+    @Test
+    void setConfigurationPlacesTheDisksWithoutMoving() {
+        DataModel model = new DataModel(4);
+        model.createDiskList(5);
+        List<String> notified = new ArrayList<>();
+        model.addDiskMoveListener((disk, from, to) -> notified.add(disk.getSize() + " " + from + " " + to));
+
+        int[] configuration = { 3, 0, 3, 1, 0 };
+        model.setConfiguration(configuration);
+        int[] towerOfDisk = new int[5];
+        model.getConfiguration(towerOfDisk);
+        assertArrayEquals(configuration, towerOfDisk);
+        assertEquals(0b10010, model.getTower(0).getDisks());
+        assertEquals(0b01000, model.getTower(1).getDisks());
+        assertTrue(model.getTower(2).isEmpty());
+        assertEquals(0b00101, model.getTower(3).getDisks());
+        assertDraggable(model);
+        assertFalse(model.isGameFinished());
+        assertEquals(0, model.getNrOfMoves());
+        assertTrue(notified.isEmpty());
+
+        // Moves continue from the configuration
+        assertTrue(model.moveTop(3, 2));
+        assertFalse(model.moveTop(1, 0));               // Disk 4 can't go on disk 2
+        assertTrue(model.moveTop(0, 3));
+        assertDraggable(model);
+
+        model.setConfiguration(new int[] { 3, 3, 3, 3, 3 });
+        assertTrue(model.isGameFinished());
+        assertDraggable(model);
+        model.resume(new int[] { 0, 0, 0, 0, 0 }, 7);
+        assertFalse(model.isGameFinished());
+        assertEquals(7, model.getNrOfMoves());
+    }
+
+    private static Disk disk(int size) {
+        Disk disk = new Disk();
+        disk.setSize(size);
+        return disk;
+    }
+
+    /**
+     * Checks that the tower holds the given disks, from bottom to top, and that only the top one is draggable.
+     */
+    private static void assertTower(Tower tower, Disk... disks) {
+        assertEquals(List.of(disks), tower.getDisksOnTower());
+        assertEquals(disks.length, tower.size());
+        assertSame(disks[disks.length - 1], tower.getTopDisk());
+        assertEquals(disks[disks.length - 1].getSize(), tower.top());
+        for (int i = 0; i < disks.length; i++) {
+            assertEquals(i == disks.length - 1, disks[i].isDraggable(), "disk " + disks[i].getSize());
+        }
+    }
+
+    /**
+     * Checks every tower of the model: its bitmask matches its list, the list goes from the
+     * largest to the smallest disk, and only the top disk is draggable.
+     */
+    private static void assertDraggable(DataModel model) {
+        for (int i = 0; i < model.getNrOfTowers(); i++) {
+            Tower tower = model.getTower(i);
+            List<Disk> disks = tower.getDisksOnTower();
+            long bitmask = 0;
+            for (int j = 0; j < disks.size(); j++) {
+                Disk disk = disks.get(j);
+                bitmask |= 1L << (disk.getSize() - 1);
+                if (j > 0) {
+                    assertTrue(disk.getSize() < disks.get(j - 1).getSize(), "tower " + i);
+                }
+                assertEquals(j == disks.size() - 1, disk.isDraggable(), "disk " + disk.getSize() + " on tower " + i);
+            }
+            assertEquals(bitmask, tower.getDisks(), "tower " + i);
+            assertEquals(disks.size(), tower.size(), "tower " + i);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+import solver.Move;
+import solver.MoveSource;
+import solver.PegState;
+import solver.Variant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends moves to the sessions of a manager from many threads at once, and to sessions that were
+ * closed, evicted or whose executor was shut down: every future has to complete.
+ */
+class GameSessionManagerTest {
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final int NR_OF_DISKS = 10;
+
+    @Test
+    void movesOfASessionAreAppliedInOrder() throws Exception {
+        try (GameSessionManager manager = new GameSessionManager(Executors.newFixedThreadPool(4), 1, TimeUnit.HOURS)) {
+            long[] ids = new long[8];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = manager.createSession(NR_OF_DISKS, 3);
+            }
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            List<Thread> threads = new ArrayList<>();
+
+            // Every player sends a whole solution without waiting: a move applied out of order would be illegal
+            for (long id : ids) {
+                threads.add(new Thread(() -> {
+                    try {
+                        List<CompletableFuture<MoveResult>> results = new ArrayList<>();
+                        MoveSource moves = Variant.CLASSIC.createMoveSource(NR_OF_DISKS, 3, 0, 2);
+                        while (!moves.isExhausted()) {
+                            int move = moves.poll();
+                            results.add(manager.move(id, Move.from(move), Move.to(move)));
+                        }
+                        for (int i = 0; i < results.size() - 1; i++) {
+                            assertEquals(MoveResult.APPLIED, get(results.get(i)), "move " + (i + 1) + " of session " + id);
+                        }
+                        assertEquals(MoveResult.SOLVED, get(results.get(results.size() - 1)));
+                    } catch (Throwable ex) {
+                        failure.compareAndSet(null, ex);
+                    }
+                }));
+            }
+
+            // Meanwhile, other threads see the number of moves of every session grow
+            for (int t = 0; t < 4; t++) {
+                threads.add(new Thread(() -> {
+                    try {
+                        long[] seen = new long[ids.length];
+                        for (int i = 0; i < 2000; i++) {
+                            int session = i % ids.length;
+                            long nrOfMoves = get(manager.getNrOfMoves(ids[session]));
+                            assertTrue(nrOfMoves >= seen[session], "session " + ids[session] + " went back");
+                            seen[session] = nrOfMoves;
+                        }
+                    } catch (Throwable ex) {
+                        failure.compareAndSet(null, ex);
+                    }
+                }));
+            }
+
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            if (failure.get() != null) {
+                throw new AssertionError(failure.get());
+            }
+
+            long solution = (1L << NR_OF_DISKS) - 1;
+            for (long id : ids) {
+                assertEquals(solution, get(manager.getNrOfMoves(id)));
+                assertTrue(get(manager.getState(id)).isComplete(2));
+            }
+            assertEquals(ids.length * solution, manager.getMovesApplied());
+        }
+    }
+
+    @Test
+    void movesToClosedSessionsAreRejected() throws Exception {
+        try (GameSessionManager manager = new GameSessionManager(1, TimeUnit.HOURS)) {
+            long id = manager.createSession(3, 3);
+            long other = manager.createSession(3, 3);
+            assertEquals(MoveResult.ILLEGAL, get(manager.move(id, 1, 2)));
+            assertEquals(MoveResult.APPLIED, get(manager.move(id, 0, 2)));
+
+            assertTrue(manager.closeSession(id));
+            assertFalse(manager.closeSession(id));
+            assertEquals(MoveResult.NO_SESSION, get(manager.move(id, 0, 1)));
+            assertNull(get(manager.getState(id)));
+            assertEquals(-1L, get(manager.getNrOfMoves(id)));
+            assertEquals(MoveResult.NO_SESSION, get(manager.move(12345, 0, 1)));
+
+            // The other sessions are not affected
+            assertEquals(MoveResult.APPLIED, get(manager.move(other, 0, 1)));
+            assertEquals(1, manager.getNrOfSessions());
+        }
+    }
+
+    @Test
+    void idleSessionsAreEvicted() throws Exception {
+        // The evictor runs every 500 ms as well: the busy session is checked before it could evict it
+        try (GameSessionManager manager = new GameSessionManager(1, TimeUnit.SECONDS)) {
+            long idle = manager.createSession(3, 3);
+            long busy = manager.createSession(3, 3);
+            Thread.sleep(600);
+            assertEquals(MoveResult.APPLIED, get(manager.move(busy, 0, 2)));
+            Thread.sleep(700);
+
+            manager.evictIdleSessions();
+            assertEquals(1, manager.getSessionsEvicted());
+            assertEquals(1, manager.getNrOfSessions());
+            assertEquals(MoveResult.NO_SESSION, get(manager.move(idle, 0, 2)));
+            assertNull(get(manager.getState(idle)));
+            assertFalse(manager.closeSession(idle));
+
+            PegState state = get(manager.getState(busy));
+            assertEquals(1L, get(manager.getNrOfMoves(busy)));
+            assertEquals(1L, state.getPeg(2));
+        }
+    }
+
+    @Test
+    void tasksRejectedByTheExecutorComplete() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (GameSessionManager manager = new GameSessionManager(executor, 1, TimeUnit.HOURS)) {
+            long id = manager.createSession(3, 3);
+            assertEquals(MoveResult.APPLIED, get(manager.move(id, 0, 2)));
+
+            // The run that applied the move may still be polling the queue until the executor terminates
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertEquals(MoveResult.NO_SESSION, get(manager.move(id, 0, 1)));
+            assertNull(get(manager.getState(id)));
+            assertEquals(-1L, get(manager.getNrOfMoves(id)));
+        }
+    }
+
+    @Test
+    void closingTheManagerCompletesEveryFuture() throws Exception {
+        GameSessionManager manager = new GameSessionManager(Executors.newFixedThreadPool(4), 1, TimeUnit.HOURS);
+        long[] ids = new long[16];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = manager.createSession(10, 3);
+        }
+
+        // Threads keep sending moves while the manager is closed under them
+        List<CompletableFuture<MoveResult>> results = new ArrayList<>();
+        List<Thread> senders = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread sender = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    CompletableFuture<MoveResult> result = manager.move(ids[i % ids.length], i % 3, (i + 1) % 3);
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                }
+            });
+            senders.add(sender);
+            sender.start();
+        }
+        Thread.sleep(20);
+        manager.close();
+        for (Thread sender : senders) {
+            sender.join();
+        }
+
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        for (CompletableFuture<MoveResult> result : results) {
+            assertTrue(result.isDone() && !result.isCompletedExceptionally());
+        }
+    }
+
+    private static <T> T get(CompletableFuture<T> future) throws InterruptedException, ExecutionException, TimeoutException {
+        return future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,91 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Compares the moves of the adjacent variant with a breadth-first search for a few disks, and
+ * checks the number of moves against 3^n - 1 and (3^n - 1) / 2 computed without overflow, up to
+ * the largest number of disks.
+ */
+class AdjacentMoveCursorTest {
+    private static final int MAX_SEARCHED_DISKS = 6;
+    private static final BigInteger THREE = BigInteger.valueOf(3);
+
+    @Test
+    void solutionsAreShortestLegalPaths() {
+        for (int nrOfDisks = 0; nrOfDisks <= MAX_SEARCHED_DISKS; nrOfDisks++) {
+            for (int source = 0; source < 3; source++) {
+                int[] distance = BruteForce.distances(BruteForce.perfect(nrOfDisks, source), nrOfDisks, Variant.ADJACENT);
+                for (int destination = 0; destination < 3; destination++) {
+                    if (source == destination) {
+                        continue;
+                    }
+                    String solution = nrOfDisks + " disks from " + source + " to " + destination;
+                    int[] pegOfDisk = BruteForce.pegs(BruteForce.perfect(nrOfDisks, source), nrOfDisks);
+                    long nrOfMoves = BruteForce.play(new AdjacentMoveCursor(nrOfDisks, source, destination), pegOfDisk, Variant.ADJACENT);
+
+                    assertEquals(BruteForce.perfect(nrOfDisks, destination), BruteForce.code(pegOfDisk, nrOfDisks), solution);
+                    assertEquals(distance[BruteForce.perfect(nrOfDisks, destination)], nrOfMoves, solution);
+                    assertEquals(AdjacentMoveCursor.moveCount(nrOfDisks, source, destination), nrOfMoves, solution);
+                }
+            }
+        }
+    }
+
+    @Test
+    void moveCountMatchesPowersOf3UpToMaxDisks() {
+        for (int nrOfDisks = 0; nrOfDisks <= AdjacentMoveCursor.MAX_DISKS; nrOfDisks++) {
+            for (int source = 0; source < 3; source++) {
+                for (int destination = 0; destination < 3; destination++) {
+                    if (source != destination) {
+                        assertEquals(expectedMoveCount(nrOfDisks, source, destination),
+                                Long.toUnsignedString(AdjacentMoveCursor.moveCount(nrOfDisks, source, destination)),
+                                nrOfDisks + " disks from " + source + " to " + destination);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void largestCursorsAreNotExhaustedEarly() {
+        for (int nrOfDisks = AdjacentMoveCursor.MAX_DISKS - 1; nrOfDisks <= AdjacentMoveCursor.MAX_DISKS; nrOfDisks++) {
+            for (int source = 0; source < 3; source++) {
+                for (int destination = 0; destination < 3; destination++) {
+                    if (source == destination) {
+                        continue;
+                    }
+                    String solution = nrOfDisks + " disks from " + source + " to " + destination;
+                    AdjacentMoveCursor cursor = new AdjacentMoveCursor(nrOfDisks, source, destination);
+                    assertEquals(expectedMoveCount(nrOfDisks, source, destination),
+                            Long.toUnsignedString(cursor.getNrOfMoves()), solution);
+                    assertEquals(cursor.getNrOfMoves(), Variant.ADJACENT.moveCount(nrOfDisks, 3, source, destination), solution);
+                    for (int i = 0; i < 1000; i++) {
+                        assertFalse(cursor.isExhausted(), solution);
+                        assertNotEquals(MoveSource.NO_MOVE, cursor.poll(), solution);
+                    }
+                    assertEquals(1000, cursor.getPosition(), solution);
+                    assertFalse(cursor.isExhausted(), solution);
+                }
+            }
+        }
+    }
+
+    @Test
+    void tooManyDisksAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> AdjacentMoveCursor.moveCount(AdjacentMoveCursor.MAX_DISKS + 1, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> new AdjacentMoveCursor(AdjacentMoveCursor.MAX_DISKS + 1, 0, 2));
+    }
+
+    private static String expectedMoveCount(int nrOfDisks, int source, int destination) {
+        BigInteger moves = THREE.pow(nrOfDisks).subtract(BigInteger.ONE);
+        return (source == 1 || destination == 1 ? moves.shiftRight(1) : moves).toString();
+    }
+}
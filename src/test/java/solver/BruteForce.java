@@ -0,0 +1,184 @@
+package solver;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * A plain breadth-first search over the three peg configurations, written independently of the
+ * solver so that its results can be compared with the closed forms and the parallel searches.
+ * A configuration is the base-3 number whose digit d is the peg of disk d, disk 0 being the
+ * smallest one; with more pegs, it is the base-p number.
+ */
+final class BruteForce {
+    private BruteForce() {
+    }
+
+    static int stateCount(int nrOfDisks) {
+        return stateCount(nrOfDisks, 3);
+    }
+
+    static int stateCount(int nrOfDisks, int nrOfPegs) {
+        int count = 1;
+        for (int disk = 0; disk < nrOfDisks; disk++) {
+            count *= nrOfPegs;
+        }
+        return count;
+    }
+
+    static int[] pegs(int code, int nrOfDisks) {
+        return pegs(code, nrOfDisks, 3);
+    }
+
+    static int[] pegs(int code, int nrOfDisks, int nrOfPegs) {
+        int[] pegOfDisk = new int[nrOfDisks];
+        for (int disk = 0; disk < nrOfDisks; disk++) {
+            pegOfDisk[disk] = code % nrOfPegs;
+            code /= nrOfPegs;
+        }
+        return pegOfDisk;
+    }
+
+    static int code(int[] pegOfDisk, int nrOfDisks) {
+        return code(pegOfDisk, nrOfDisks, 3);
+    }
+
+    static int code(int[] pegOfDisk, int nrOfDisks, int nrOfPegs) {
+        int code = 0;
+        for (int disk = nrOfDisks - 1; disk >= 0; disk--) {
+            code = nrOfPegs * code + pegOfDisk[disk];
+        }
+        return code;
+    }
+
+    /**
+     * @return the code of the configuration with all the disks on the given peg
+     */
+    static int perfect(int nrOfDisks, int peg) {
+        return perfect(nrOfDisks, 3, peg);
+    }
+
+    static int perfect(int nrOfDisks, int nrOfPegs, int peg) {
+        int[] pegOfDisk = new int[nrOfDisks];
+        Arrays.fill(pegOfDisk, peg);
+        return code(pegOfDisk, nrOfDisks, nrOfPegs);
+    }
+
+    /**
+     * @return the smallest disk on the peg, or nrOfDisks if the peg is empty
+     */
+    static int top(int[] pegOfDisk, int peg) {
+        for (int disk = 0; disk < pegOfDisk.length; disk++) {
+            if (pegOfDisk[disk] == peg) {
+                return disk;
+            }
+        }
+        return pegOfDisk.length;
+    }
+
+    /**
+     * @return true if the top disk of one peg may be moved onto another one under the variant
+     */
+    static boolean isLegal(int[] pegOfDisk, int from, int to, Variant variant) {
+        int disk = top(pegOfDisk, from);
+        return from != to && variant.isAllowed(from, to) && disk < pegOfDisk.length && disk < top(pegOfDisk, to);
+    }
+
+    /**
+     * Plays every move of the source on the configuration, which is updated in place.
+     *
+     * @return the number of moves played, or -1 if one of the moves is illegal under the variant
+     */
+    static long play(MoveSource moves, int[] pegOfDisk, Variant variant) {
+        long count = 0;
+        while (!moves.isExhausted()) {
+            int move = moves.poll();
+            if (move == MoveSource.NO_MOVE) {
+                return -1;
+            }
+            int disk = Move.disk(move);
+            if (disk >= pegOfDisk.length || pegOfDisk[disk] != Move.from(move) || top(pegOfDisk, Move.from(move)) != disk
+                    || !isLegal(pegOfDisk, Move.from(move), Move.to(move), variant)) {
+                return -1;
+            }
+            pegOfDisk[disk] = Move.to(move);
+            count++;
+        }
+        return moves.poll() == MoveSource.NO_MOVE ? count : -1;
+    }
+
+    /**
+     * @return the number of moves from the start to every configuration, -1 for the ones that
+     *         can't be reached
+     */
+    static int[] distances(int start, int nrOfDisks, Variant variant) {
+        int[] distance = new int[stateCount(nrOfDisks)];
+        Arrays.fill(distance, -1);
+        distance[start] = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            int[] pegOfDisk = pegs(current, nrOfDisks);
+            for (int from = 0; from < 3; from++) {
+                for (int to = 0; to < 3; to++) {
+                    if (isLegal(pegOfDisk, from, to, variant)) {
+                        int disk = top(pegOfDisk, from);
+                        pegOfDisk[disk] = to;
+                        int next = code(pegOfDisk, nrOfDisks);
+                        pegOfDisk[disk] = from;
+                        if (distance[next] < 0) {
+                            distance[next] = distance[current] + 1;
+                            queue.add(next);
+                        }
+                    }
+                }
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * @return the number of classic moves from the start to every configuration with the given
+     *         number of pegs
+     */
+    static int[] distances(int start, int nrOfDisks, int nrOfPegs) {
+        int[] distance = new int[stateCount(nrOfDisks, nrOfPegs)];
+        Arrays.fill(distance, -1);
+        distance[start] = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            int[] pegOfDisk = pegs(current, nrOfDisks, nrOfPegs);
+            for (int from = 0; from < nrOfPegs; from++) {
+                for (int to = 0; to < nrOfPegs; to++) {
+                    int disk = top(pegOfDisk, from);
+                    if (from != to && disk < nrOfDisks && disk < top(pegOfDisk, to)) {
+                        pegOfDisk[disk] = to;
+                        int next = code(pegOfDisk, nrOfDisks, nrOfPegs);
+                        pegOfDisk[disk] = from;
+                        if (distance[next] < 0) {
+                            distance[next] = distance[current] + 1;
+                            queue.add(next);
+                        }
+                    }
+                }
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * @return the number of configurations at every distance from the start
+     */
+    static long[] histogram(int[] distance) {
+        int max = Arrays.stream(distance).max().orElse(0);
+        long[] counts = new long[max + 1];
+        for (int d : distance) {
+            if (d >= 0) {
+                counts[d]++;
+            }
+        }
+        return counts;
+    }
+}
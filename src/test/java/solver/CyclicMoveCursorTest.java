@@ -0,0 +1,87 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the moves of the cyclic variant with a breadth-first search for a few disks, and
+ * checks the number of moves against the recurrences computed without overflow, up to the largest
+ * number of disks.
+ */
+class CyclicMoveCursorTest {
+    private static final int MAX_SEARCHED_DISKS = 6;
+
+    @Test
+    void solutionsAreShortestLegalPaths() {
+        for (int nrOfDisks = 0; nrOfDisks <= MAX_SEARCHED_DISKS; nrOfDisks++) {
+            for (int source = 0; source < 3; source++) {
+                int[] distance = BruteForce.distances(BruteForce.perfect(nrOfDisks, source), nrOfDisks, Variant.CYCLIC);
+                for (int destination = 0; destination < 3; destination++) {
+                    if (source == destination) {
+                        continue;
+                    }
+                    String solution = nrOfDisks + " disks from " + source + " to " + destination;
+                    int[] pegOfDisk = BruteForce.pegs(BruteForce.perfect(nrOfDisks, source), nrOfDisks);
+                    long nrOfMoves = BruteForce.play(new CyclicMoveCursor(nrOfDisks, source, destination), pegOfDisk, Variant.CYCLIC);
+
+                    assertEquals(BruteForce.perfect(nrOfDisks, destination), BruteForce.code(pegOfDisk, nrOfDisks), solution);
+                    assertEquals(distance[BruteForce.perfect(nrOfDisks, destination)], nrOfMoves, solution);
+                    assertEquals(CyclicMoveCursor.moveCount(nrOfDisks, source, destination), nrOfMoves, solution);
+                }
+            }
+        }
+    }
+
+    @Test
+    void moveCountMatchesRecurrencesUpToMaxDisks() {
+        BigInteger oneStep = BigInteger.ZERO;
+        BigInteger twoSteps = BigInteger.ZERO;
+        for (int nrOfDisks = 0; nrOfDisks <= CyclicMoveCursor.MAX_DISKS; nrOfDisks++) {
+            assertTrue(twoSteps.bitLength() <= Long.SIZE, nrOfDisks + " disks");
+            for (int source = 0; source < 3; source++) {
+                assertEquals(oneStep.toString(),
+                        Long.toUnsignedString(CyclicMoveCursor.moveCount(nrOfDisks, source, CyclicMoveCursor.next(source))));
+                assertEquals(twoSteps.toString(),
+                        Long.toUnsignedString(CyclicMoveCursor.moveCount(nrOfDisks, CyclicMoveCursor.next(source), source)));
+            }
+            BigInteger nextOneStep = twoSteps.shiftLeft(1).add(BigInteger.ONE);
+            twoSteps = twoSteps.shiftLeft(1).add(oneStep).add(BigInteger.TWO);
+            oneStep = nextOneStep;
+        }
+        assertTrue(twoSteps.bitLength() > Long.SIZE, "MAX_DISKS could be larger");
+    }
+
+    @Test
+    void largestCursorsAreNotExhaustedEarly() {
+        int nrOfDisks = CyclicMoveCursor.MAX_DISKS;
+        for (int source = 0; source < 3; source++) {
+            for (int destination = 0; destination < 3; destination++) {
+                if (source == destination) {
+                    continue;
+                }
+                String solution = nrOfDisks + " disks from " + source + " to " + destination;
+                CyclicMoveCursor cursor = new CyclicMoveCursor(nrOfDisks, source, destination);
+                assertEquals(cursor.getNrOfMoves(), Variant.CYCLIC.moveCount(nrOfDisks, 3, source, destination), solution);
+                for (int i = 0; i < 1000; i++) {
+                    assertFalse(cursor.isExhausted(), solution);
+                    assertNotEquals(MoveSource.NO_MOVE, cursor.poll(), solution);
+                }
+                assertEquals(1000, cursor.getPosition(), solution);
+                assertFalse(cursor.isExhausted(), solution);
+            }
+        }
+    }
+
+    @Test
+    void tooManyDisksAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CyclicMoveCursor.moveCount(CyclicMoveCursor.MAX_DISKS + 1, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> new CyclicMoveCursor(CyclicMoveCursor.MAX_DISKS + 1, 0, 2));
+    }
+}
@@ -0,0 +1,81 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plays the moves of the Frame-Stewart cursor on a PegState, and compares the move counts of the
+ * table with the shortest solutions found by a breadth-first search for a few disks.
+ */
+class FrameStewartTest {
+    private static final int MAX_PLAYED_DISKS = 24;
+    private static final int MAX_PLAYED_PEGS = 10;
+    private static final int MAX_SEARCHED_DISKS = 7;
+
+    @Test
+    void cursorMakesMoveCountLegalMovesToTheTarget() {
+        for (int nrOfPegs = 4; nrOfPegs <= MAX_PLAYED_PEGS; nrOfPegs++) {
+            int[][] pairs = {{0, nrOfPegs - 1}, {nrOfPegs - 1, 0}, {1, 2}};
+            for (int nrOfDisks = 0; nrOfDisks <= MAX_PLAYED_DISKS; nrOfDisks++) {
+                for (int[] pair : pairs) {
+                    String solution = nrOfDisks + " disks, " + nrOfPegs + " pegs from " + pair[0] + " to " + pair[1];
+                    PegState state = new PegState(nrOfPegs, nrOfDisks, pair[0]);
+                    FrameStewartCursor cursor = new FrameStewartCursor(nrOfDisks, nrOfPegs, pair[0], pair[1]);
+
+                    long nrOfMoves = 0;
+                    while (!cursor.isExhausted()) {
+                        int move = cursor.poll();
+                        assertTrue(move != MoveSource.NO_MOVE, solution);
+                        assertEquals(Move.disk(move), state.top(Move.from(move)), solution + ", move " + (nrOfMoves + 1));
+                        assertTrue(state.canMove(Move.from(move), Move.to(move)), solution + ", move " + (nrOfMoves + 1));
+                        state.move(Move.from(move), Move.to(move));
+                        nrOfMoves++;
+                    }
+                    assertEquals(MoveSource.NO_MOVE, cursor.poll(), solution);
+                    assertEquals(FrameStewart.moveCount(nrOfDisks, nrOfPegs), nrOfMoves, solution);
+                    assertTrue(state.isComplete(pair[1]), solution);
+                }
+            }
+        }
+    }
+
+    @Test
+    void moveCountsAreTheShortestWithFewDisks() {
+        for (int nrOfPegs = 3; nrOfPegs <= 5; nrOfPegs++) {
+            int maxDisks = nrOfPegs == 5 ? MAX_SEARCHED_DISKS - 1 : MAX_SEARCHED_DISKS;
+            for (int nrOfDisks = 0; nrOfDisks <= maxDisks; nrOfDisks++) {
+                int[] distance = BruteForce.distances(BruteForce.perfect(nrOfDisks, nrOfPegs, 0), nrOfDisks, nrOfPegs);
+                assertEquals(distance[BruteForce.perfect(nrOfDisks, nrOfPegs, nrOfPegs - 1)], FrameStewart.moveCount(nrOfDisks, nrOfPegs),
+                        nrOfDisks + " disks, " + nrOfPegs + " pegs");
+            }
+        }
+    }
+
+    @Test
+    void tableMatchesKnownValues() {
+        // The Frame-Stewart numbers of 4 pegs, 0 to 12 disks
+        long[] fourPegs = {0, 1, 3, 5, 9, 13, 17, 25, 33, 41, 49, 65, 81};
+        for (int nrOfDisks = 0; nrOfDisks < fourPegs.length; nrOfDisks++) {
+            assertEquals(fourPegs[nrOfDisks], FrameStewart.moveCount(nrOfDisks, 4), nrOfDisks + " disks");
+        }
+
+        for (int nrOfPegs = 3; nrOfPegs <= FrameStewart.MAX_PEGS; nrOfPegs++) {
+            for (int nrOfDisks = 1; nrOfDisks <= PegState.MAX_DISKS; nrOfDisks++) {
+                String context = nrOfDisks + " disks, " + nrOfPegs + " pegs";
+                if (nrOfDisks < nrOfPegs) {
+                    // Every disk but the largest one gets a peg of its own
+                    assertEquals(2 * nrOfDisks - 1, FrameStewart.moveCount(nrOfDisks, nrOfPegs), context);
+                }
+                if (nrOfPegs > 3) {
+                    assertTrue(Long.compareUnsigned(FrameStewart.moveCount(nrOfDisks, nrOfPegs),
+                            FrameStewart.moveCount(nrOfDisks, nrOfPegs - 1)) <= 0, context);
+                    int k = FrameStewart.split(nrOfDisks, nrOfPegs);
+                    assertTrue(k >= 1 && k < nrOfDisks || nrOfDisks == 1, context);
+                }
+            }
+        }
+        assertEquals(-1L, FrameStewart.moveCount(PegState.MAX_DISKS, 3));
+    }
+}
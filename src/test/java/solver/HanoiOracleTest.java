@@ -0,0 +1,84 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the closed forms of HanoiOracle with a breadth-first search over every configuration.
+ */
+class HanoiOracleTest {
+    private static final int MAX_DISKS = 6;
+
+    @Test
+    void distanceToPerfectMatchesSearch() {
+        for (int nrOfDisks = 1; nrOfDisks <= MAX_DISKS; nrOfDisks++) {
+            for (int target = 0; target < 3; target++) {
+                int[] distance = BruteForce.distances(BruteForce.perfect(nrOfDisks, target), nrOfDisks, Variant.CLASSIC);
+                for (int code = 0; code < distance.length; code++) {
+                    int[] pegOfDisk = BruteForce.pegs(code, nrOfDisks);
+                    assertEquals(distance[code], HanoiOracle.distanceToPerfect(pegOfDisk, nrOfDisks, target),
+                            "configuration " + code + " of " + nrOfDisks + " disks to peg " + target);
+                }
+            }
+        }
+    }
+
+    @Test
+    void nextMoveToPerfectIsOnAShortestPath() {
+        for (int nrOfDisks = 1; nrOfDisks <= MAX_DISKS; nrOfDisks++) {
+            for (int target = 0; target < 3; target++) {
+                int[] distance = BruteForce.distances(BruteForce.perfect(nrOfDisks, target), nrOfDisks, Variant.CLASSIC);
+                for (int code = 0; code < distance.length; code++) {
+                    int[] pegOfDisk = BruteForce.pegs(code, nrOfDisks);
+                    int move = HanoiOracle.nextMoveToPerfect(pegOfDisk, nrOfDisks, target);
+                    if (distance[code] == 0) {
+                        assertEquals(MoveSource.NO_MOVE, move);
+                    } else {
+                        assertEquals(distance[code] - 1, distance[apply(pegOfDisk, move)],
+                                "configuration " + code + ", " + Move.toString(move));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void distanceAndNextMoveMatchSearchBetweenAnyConfigurations() {
+        for (int nrOfDisks = 1; nrOfDisks <= 4; nrOfDisks++) {
+            int stateCount = BruteForce.stateCount(nrOfDisks);
+            for (int goal = 0; goal < stateCount; goal++) {
+                int[] to = BruteForce.pegs(goal, nrOfDisks);
+                int[] distance = BruteForce.distances(goal, nrOfDisks, Variant.CLASSIC);
+                for (int code = 0; code < stateCount; code++) {
+                    int[] from = BruteForce.pegs(code, nrOfDisks);
+                    assertEquals(distance[code], HanoiOracle.distance(from, to, nrOfDisks),
+                            "from " + code + " to " + goal + " with " + nrOfDisks + " disks");
+
+                    int move = HanoiOracle.nextMove(from, to, nrOfDisks);
+                    if (code == goal) {
+                        assertEquals(MoveSource.NO_MOVE, move);
+                    } else {
+                        assertEquals(distance[code] - 1, distance[apply(from, move)],
+                                "from " + code + " to " + goal + ", " + Move.toString(move));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the move is legal and returns the configuration it leads to.
+     */
+    private static int apply(int[] pegOfDisk, int move) {
+        int disk = Move.disk(move);
+        assertEquals(Move.from(move), pegOfDisk[disk], "the disk is not on the source peg");
+        assertTrue(BruteForce.isLegal(pegOfDisk, Move.from(move), Move.to(move), Variant.CLASSIC), "illegal move");
+        assertEquals(disk, BruteForce.top(pegOfDisk, Move.from(move)), "the disk is not on top");
+
+        int[] next = pegOfDisk.clone();
+        next[disk] = Move.to(move);
+        return BruteForce.code(next, next.length);
+    }
+}
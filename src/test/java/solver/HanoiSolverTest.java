@@ -0,0 +1,55 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays the moves of the solver on a second state, checking that every move is legal and that
+ * the solution takes 2^n - 1 moves, and checks the arguments the solver rejects.
+ */
+class HanoiSolverTest {
+    private static final int MAX_DISKS = 12;
+
+    @Test
+    void solutionsAreLegalAndOptimal() {
+        for (int nrOfDisks = 0; nrOfDisks <= MAX_DISKS; nrOfDisks++) {
+            for (int source = 0; source < 3; source++) {
+                for (int destination = 0; destination < 3; destination++) {
+                    if (source == destination) {
+                        continue;
+                    }
+                    String solution = nrOfDisks + " disks from " + source + " to " + destination;
+                    PegState replay = new PegState(3, nrOfDisks, source);
+                    long[] expectedIndex = {0};
+                    long nrOfMoves = HanoiSolver.solve(new PegState(3, nrOfDisks, source), source, destination,
+                            (moveIndex, disk, from, to) -> {
+                                String move = solution + ", move " + moveIndex;
+                                assertEquals(++expectedIndex[0], moveIndex, move);
+                                assertTrue(replay.canMove(from, to), move);
+                                assertEquals(replay.top(from), disk, move);
+                                replay.move(from, to);
+                            });
+
+                    assertEquals((1L << nrOfDisks) - 1, nrOfMoves, solution);
+                    assertEquals(HanoiSolver.moveCount(nrOfDisks), nrOfMoves, solution);
+                    assertTrue(replay.isComplete(destination), solution);
+                }
+            }
+        }
+        assertEquals(-1L, HanoiSolver.moveCount(PegState.MAX_DISKS));
+    }
+
+    @Test
+    void invalidPegsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> HanoiSolver.solve(new PegState(3, 3, 0), 0, 3, null));
+        assertThrows(IllegalArgumentException.class, () -> HanoiSolver.solve(new PegState(3, 3, 0), 0, -1, null));
+        assertThrows(IllegalArgumentException.class, () -> HanoiSolver.solve(new PegState(3, 3, 0), 3, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> HanoiSolver.solve(new PegState(3, 3, 0), -1, 2, null));
+        assertThrows(IllegalArgumentException.class, () -> HanoiSolver.solve(new PegState(3, 3, 0), 0, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> HanoiSolver.solve(new PegState(3, 3, 1), 0, 2, null));
+        assertThrows(IllegalArgumentException.class, () -> HanoiSolver.solve(new PegState(4, 3, 0), 0, 2, null));
+    }
+}
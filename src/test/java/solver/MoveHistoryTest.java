@@ -0,0 +1,89 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the history with a list of the moves that are expected to be undone and redone. The
+ * games are long enough for the byte array of the history to grow several times.
+ */
+class MoveHistoryTest {
+    private static final int NR_OF_DISKS = 8;
+
+    @Test
+    void recordingAfterAnUndoDropsTheUndoneMoves() {
+        Random random = new Random(19);
+        PegState initialState = new PegState(3, NR_OF_DISKS, 0);
+        PegState state = new PegState(3, NR_OF_DISKS, 0);
+        MoveHistory history = new MoveHistory(initialState);
+        List<Integer> expected = new ArrayList<>();
+
+        // Record past the capacities 256, 512 and 1024, go back across them and record again
+        record(history, state, expected, 1500, random);
+        undo(history, state, expected, 700);
+        assertEquals(800, history.getPosition());
+        assertEquals(1500, history.size());
+        assertTrue(history.canRedo());
+
+        record(history, state, expected, 300, random);
+        assertEquals(1100, history.getPosition());
+        assertEquals(1100, history.size());
+        assertFalse(history.canRedo());
+
+        // Undoing everything returns to the initial state, and redoing replays the new branch
+        undo(history, state, new ArrayList<>(expected), expected.size());
+        assertEquals(initialState, state);
+        assertFalse(history.canUndo());
+        for (int move : expected) {
+            assertEquals(move, history.redo());
+        }
+        assertFalse(history.canRedo());
+        assertThrows(IllegalStateException.class, history::redo);
+    }
+
+    @Test
+    void rejectsIllegalMoves() {
+        MoveHistory history = new MoveHistory(new PegState(3, NR_OF_DISKS, 0));
+        history.record(0, 1);
+        assertThrows(IllegalArgumentException.class, () -> history.record(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> history.record(2, 0));
+        assertEquals(1, history.size());
+    }
+
+    /**
+     * Records random legal moves, made on the given state as well.
+     */
+    private static void record(MoveHistory history, PegState state, List<Integer> expected, int count, Random random) {
+        for (int i = 0; i < count; i++) {
+            int from;
+            int to;
+            do {
+                from = random.nextInt(3);
+                to = random.nextInt(3);
+            } while (!state.canMove(from, to));
+            int disk = state.move(from, to);
+            history.record(from, to);
+            expected.add(Move.encode(disk, from, to));
+        }
+    }
+
+    /**
+     * Undoes the last moves of the expected list, checking that each undo takes the disk back.
+     */
+    private static void undo(MoveHistory history, PegState state, List<Integer> expected, int count) {
+        for (int i = 0; i < count; i++) {
+            int move = expected.remove(expected.size() - 1);
+            int undone = history.undo();
+            assertEquals(Move.encode(Move.disk(move), Move.to(move), Move.from(move)), undone);
+            state.move(Move.to(move), Move.from(move));
+        }
+    }
+}
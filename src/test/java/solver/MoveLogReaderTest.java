@@ -0,0 +1,117 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Opens move logs whose header was edited, as an untrusted log may be: every invalid field is
+ * reported as an IOException, before anything else reads it.
+ */
+class MoveLogReaderTest {
+    private static final int NR_OF_DISKS = 4;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsAValidLog() throws IOException {
+        Path log = write(MoveLog.ENCODING_PAIR);
+        try (MoveLogReader reader = new MoveLogReader(log)) {
+            assertEquals(NR_OF_DISKS, reader.getNrOfDisks());
+            assertEquals(15, reader.getNrOfMoves());
+            assertTrue(reader.replay().isComplete(2));
+        }
+    }
+
+    @Test
+    void rejectsInvalidHeaderFields() throws IOException {
+        Path pairLog = write(MoveLog.ENCODING_PAIR);
+        assertRejected(pairLog, 0, 0);          // Magic
+        assertRejected(pairLog, 4, 9);          // Version
+        assertRejected(pairLog, 5, 5);          // Encoding
+        assertRejected(pairLog, 5, MoveLog.ENCODING_DIRECTED);    // Encoding that doesn't match the bits per move
+        assertRejected(pairLog, 6, 3);          // Bits per move
+        assertRejected(pairLog, 7, 0);          // Disks
+        assertRejected(pairLog, 7, 65);
+        assertRejected(pairLog, 7, 100);
+        assertRejected(pairLog, 7, -56);
+        assertRejected(pairLog, 8, 2);          // Pegs
+        assertRejected(pairLog, 8, 4);
+        assertRejected(pairLog, 9, 7);          // Source
+        assertRejected(pairLog, 9, -1);
+        assertRejected(pairLog, 9, 2);          // Source equal to the target
+        assertRejected(pairLog, 10, 3);         // Target
+        assertRejected(pairLog, 16, 100);       // More moves than the file holds
+
+        Path directedLog = write(MoveLog.ENCODING_DIRECTED);
+        assertRejected(directedLog, 8, 17);
+        assertRejected(directedLog, 8, -3);
+        assertRejected(directedLog, 10, 5);
+    }
+
+    @Test
+    void rejectsATruncatedHeader() throws IOException {
+        Path log = write(MoveLog.ENCODING_PAIR);
+        Files.write(log, new byte[MoveLog.HEADER_SIZE - 1]);
+        assertThrows(IOException.class, () -> new MoveLogReader(log).close());
+    }
+
+    @Test
+    void replayRejectsMovesThatCantBeMade() throws IOException {
+        // The unused pair code
+        Path pairLog = write(MoveLog.ENCODING_PAIR);
+        byte[] bytes = Files.readAllBytes(pairLog);
+        bytes[MoveLog.HEADER_SIZE + 1] |= 0x0C;         // Move 6
+        Files.write(pairLog, bytes);
+        assertReplayRejected(pairLog, "move 6");
+
+        // A peg that doesn't exist, and a move from an empty peg
+        assertReplayRejected(writeDirected(new int[][] {{0, 2}, {0, 3}}), "move 2");
+        assertReplayRejected(writeDirected(new int[][] {{0, 2}, {1, 0}}), "move 2");
+        assertReplayRejected(writeDirected(new int[][] {{0, 2}, {0, 2}}), "move 2");
+    }
+
+    private static void assertReplayRejected(Path log, String move) throws IOException {
+        try (MoveLogReader reader = new MoveLogReader(log)) {
+            IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, reader::replay);
+            assertTrue(ex.getMessage().contains(move), ex.getMessage());
+        }
+    }
+
+    private Path writeDirected(int[][] moves) throws IOException {
+        Path path = directory.resolve("directed.hlog");
+        try (MoveLogWriter writer = new MoveLogWriter(path, MoveLog.ENCODING_DIRECTED, NR_OF_DISKS, 3, 0, 2)) {
+            for (int[] move : moves) {
+                writer.append(move[0], move[1]);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Copies the log with one byte of its header replaced and checks that it can't be opened.
+     */
+    private void assertRejected(Path log, int offset, int value) throws IOException {
+        byte[] bytes = Files.readAllBytes(log);
+        bytes[offset] = (byte) value;
+        Path corrupted = directory.resolve("corrupted.hlog");
+        Files.write(corrupted, bytes);
+        assertThrows(IOException.class, () -> new MoveLogReader(corrupted).close(), "byte " + offset + " = " + value);
+    }
+
+    private Path write(int encoding) throws IOException {
+        Path path = directory.resolve("moves-" + encoding + ".hlog");
+        try (MoveLogWriter writer = new MoveLogWriter(path, encoding, NR_OF_DISKS, 3, 0, 2)) {
+            HanoiSolver.solve(new PegState(3, NR_OF_DISKS, 0), 0, 2, writer);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,90 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Compares the closed forms of MoveQuery with every move and every intermediate configuration
+ * of the sequential solver.
+ */
+class MoveQueryTest {
+    private static final int MAX_DISKS = 10;
+
+    @Test
+    void movesAndConfigurationsMatchTheSolver() {
+        for (int nrOfDisks = 0; nrOfDisks <= MAX_DISKS; nrOfDisks++) {
+            for (int source = 0; source < 3; source++) {
+                for (int destination = 0; destination < 3; destination++) {
+                    if (source == destination) {
+                        continue;
+                    }
+                    int n = nrOfDisks;
+                    int s = source;
+                    int d = destination;
+                    String solution = nrOfDisks + " disks from " + source + " to " + destination;
+                    PegState state = new PegState(3, nrOfDisks, source);
+                    PegState query = new PegState(3, nrOfDisks, source);
+                    int[] expected = new int[nrOfDisks];
+                    int[] actual = new int[nrOfDisks];
+
+                    assertConfiguration(state, query, s, d, 0, expected, actual, solution);
+                    HanoiSolver.solve(state, source, destination, (moveIndex, disk, from, to) -> {
+                        String move = solution + ", move " + moveIndex;
+                        assertEquals(Move.encode(disk, from, to), MoveQuery.move(n, s, d, moveIndex), move);
+                        assertEquals(disk, MoveQuery.diskOfMove(moveIndex), move);
+                        assertConfiguration(state, query, s, d, moveIndex, expected, actual, move);
+                    });
+                }
+            }
+        }
+    }
+
+    @Test
+    void movesOfADiskAreCounted() {
+        for (int disk = 0; disk < MAX_DISKS; disk++) {
+            long moves = 0;
+            for (long moveIndex = 1; moveIndex <= HanoiSolver.moveCount(MAX_DISKS); moveIndex++) {
+                if (MoveQuery.diskOfMove(moveIndex) == disk) {
+                    assertEquals(moveIndex, MoveQuery.moveIndexOf(disk, moves), "disk " + disk);
+                    moves++;
+                }
+                assertEquals(moves, MoveQuery.movesOfDiskAfter(disk, moveIndex), "disk " + disk + " after " + moveIndex);
+            }
+        }
+    }
+
+    @Test
+    void movesOutsideOfTheSolutionAreRejected() {
+        for (int nrOfDisks = 0; nrOfDisks <= MAX_DISKS; nrOfDisks++) {
+            int n = nrOfDisks;
+            assertThrows(IllegalArgumentException.class, () -> MoveQuery.move(n, 0, 2, 0));
+            assertThrows(IllegalArgumentException.class, () -> MoveQuery.move(n, 0, 2, HanoiSolver.moveCount(n) + 1));
+            assertThrows(IllegalArgumentException.class, () -> MoveQuery.move(n, 0, 2, -1L));
+        }
+
+        // The middle move of the 2^64 - 1 moves of 64 disks moves the largest disk, the last one the smallest
+        assertEquals(Move.encode(63, 0, 2), MoveQuery.move(PegState.MAX_DISKS, 0, 2, 1L << 63));
+        assertEquals(Move.encode(0, 1, 2), MoveQuery.move(PegState.MAX_DISKS, 0, 2, -1L));
+        assertThrows(IllegalArgumentException.class, () -> MoveQuery.move(PegState.MAX_DISKS, 0, 2, 0));
+    }
+
+    /**
+     * Checks both forms of configurationAfter against the state of the solver.
+     */
+    private static void assertConfiguration(PegState state, PegState query, int source, int destination, long moveIndex,
+                                            int[] expected, int[] actual, String context) {
+        int nrOfDisks = state.getNrOfDisks();
+        state.getConfiguration(expected);
+        MoveQuery.configurationAfter(nrOfDisks, source, destination, moveIndex, actual);
+        assertArrayEquals(expected, actual, context);
+
+        MoveQuery.configurationAfter(source, destination, moveIndex, query);
+        assertEquals(state, query, context);
+        for (int disk = 0; disk < nrOfDisks; disk++) {
+            assertEquals(expected[disk], MoveQuery.pegOfDiskAfter(nrOfDisks, source, destination, disk, moveIndex), context);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a producer thread against the buffer. The buffer is much smaller than the number of moves,
+ * so the producer keeps waiting for room and the indices wrap around many times.
+ */
+class MoveRingBufferTest {
+    private static final int NR_OF_MOVES = 4_000_000;
+    private static final int CAPACITY = 64;
+
+    @Test
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    void consumerReceivesEveryMoveInOrder() throws InterruptedException {
+        MoveRingBuffer buffer = new MoveRingBuffer(CAPACITY);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < NR_OF_MOVES; i++) {
+                buffer.put(i);
+            }
+            buffer.close();
+        }, "ring-buffer-producer");
+        producer.setUncaughtExceptionHandler((thread, ex) -> failure.set(ex));
+        producer.start();
+
+        int expected = 0;
+        while (!buffer.isExhausted()) {
+            int move = buffer.poll();
+            if (move == MoveSource.NO_MOVE) {
+                Thread.onSpinWait();
+                continue;
+            }
+            assertEquals(expected, move);
+            expected++;
+
+            // Stall now and then, so that the producer also has to wait for a full buffer
+            if (expected % 500_000 == 0) {
+                Thread.sleep(5);
+            }
+        }
+        producer.join();
+
+        assertNull(failure.get());
+        assertEquals(NR_OF_MOVES, expected);
+        assertEquals(MoveSource.NO_MOVE, buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void interruptingABlockedPutCancelsIt() throws InterruptedException {
+        MoveRingBuffer buffer = new MoveRingBuffer(4);
+        for (int i = 0; i < buffer.capacity(); i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread producer = new Thread(() -> {
+            try {
+                buffer.put(4);
+            } catch (RuntimeException ex) {
+                failure.set(ex);
+            }
+        }, "ring-buffer-producer");
+        producer.start();
+
+        // Wait until the producer is parked in put, then interrupt it
+        while (producer.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+        producer.interrupt();
+        producer.join();
+
+        assertInstanceOf(CancellationException.class, failure.get());
+        assertEquals(buffer.capacity(), buffer.size());
+        for (int i = 0; i < buffer.capacity(); i++) {
+            assertEquals(i, buffer.poll());
+        }
+        assertEquals(MoveSource.NO_MOVE, buffer.poll());
+    }
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(1, new MoveRingBuffer(1).capacity());
+        assertEquals(64, new MoveRingBuffer(33).capacity());
+        assertEquals(64, new MoveRingBuffer(64).capacity());
+    }
+}
@@ -0,0 +1,185 @@
+package solver;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the parallel validation of move logs with a sequential replay. The chunks are kept
+ * small, so that the logs are split into many chunks validated by several workers.
+ */
+class MoveValidatorTest {
+    private static final int NR_OF_DISKS = 10;
+    private static final int CHUNK_SIZE = 16;
+    private static final int CORRUPTED_LOGS = 100;
+
+    private static ForkJoinPool pool;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void solutionsAreValid() throws IOException {
+        MoveValidator validator = new MoveValidator(pool, CHUNK_SIZE);
+        for (Variant variant : Variant.values()) {
+            for (int encoding : new int[] {MoveLog.ENCODING_PAIR, MoveLog.ENCODING_DIRECTED}) {
+                int[] moves = solution(variant, 3, 0, 2);
+                ValidationResult result = validate(validator, write(encoding, 3, 0, 2, moves), variant);
+                assertTrue(result.isValid(), variant + ": " + result);
+                assertEquals(moves.length, result.getNrOfMoves());
+            }
+        }
+
+        int[] moves = solution(Variant.CLASSIC, 4, 0, 3);
+        assertTrue(validate(validator, write(MoveLog.ENCODING_DIRECTED, 4, 0, 3, moves), Variant.CLASSIC).isValid());
+    }
+
+    @Test
+    void unfinishedSolutionIsLegalButMissesTheGoal() throws IOException {
+        int[] solution = solution(Variant.CLASSIC, 3, 0, 2);
+        int[] moves = new int[solution.length - 1];
+        System.arraycopy(solution, 0, moves, 0, moves.length);
+
+        Path log = write(MoveLog.ENCODING_PAIR, 3, 0, 2, moves);
+        ValidationResult result = validate(new MoveValidator(pool, CHUNK_SIZE), log, Variant.CLASSIC);
+        assertTrue(result.isLegal());
+        assertFalse(result.isGoalReached());
+    }
+
+    @Test
+    void restrictedVariantRejectsClassicSolution() throws IOException {
+        int[] moves = solution(Variant.CLASSIC, 3, 0, 2);
+        Path log = write(MoveLog.ENCODING_DIRECTED, 3, 0, 2, moves);
+        for (Variant variant : new Variant[] {Variant.ADJACENT, Variant.CYCLIC}) {
+            ValidationResult result = validate(new MoveValidator(pool, CHUNK_SIZE), log, variant);
+            assertEquals(referenceFirstIllegalMove(moves, 3, 0, variant), result.getFirstIllegalMove(), variant.toString());
+            assertFalse(result.isValid());
+        }
+    }
+
+    @Test
+    void corruptedLogsMatchSequentialReplay() throws IOException {
+        Random random = new Random(7);
+        MoveValidator validator = new MoveValidator(pool, CHUNK_SIZE);
+        for (int i = 0; i < CORRUPTED_LOGS; i++) {
+            Variant variant = Variant.values()[random.nextInt(Variant.values().length)];
+            int[] moves = solution(variant, 3, 0, 2);
+
+            // Replace a few moves by another pair of pegs
+            int nrOfCorruptions = 1 + random.nextInt(3);
+            for (int j = 0; j < nrOfCorruptions; j++) {
+                int position = random.nextInt(moves.length);
+                int from = random.nextInt(3);
+                int to = (from + 1 + random.nextInt(2)) % 3;
+                moves[position] = Move.encode(0, from, to);
+            }
+
+            ValidationResult result = validate(validator, write(MoveLog.ENCODING_DIRECTED, 3, 0, 2, moves), variant);
+            long expected = referenceFirstIllegalMove(moves, 3, 0, variant);
+            assertEquals(expected, result.getFirstIllegalMove(), "log " + i + " (" + variant + ")");
+            if (expected == ValidationResult.NO_ILLEGAL_MOVE) {
+                assertEquals(referenceState(moves, 3, 0).isComplete(2), result.isGoalReached(), "log " + i);
+            }
+        }
+    }
+
+    @Test
+    void unusedPairCodeIsIllegal() throws IOException {
+        MoveValidator validator = new MoveValidator(pool, CHUNK_SIZE);
+        for (Variant variant : Variant.values()) {
+            int[] moves = solution(variant, 3, 0, 2);
+            for (int position : new int[] {0, 1, CHUNK_SIZE, moves.length / 2, moves.length - 1}) {
+                Path log = write(MoveLog.ENCODING_PAIR, 3, 0, 2, moves);
+                writeRawCode(log, position, 3);
+                ValidationResult result = validate(validator, log, variant);
+                assertEquals(position, result.getFirstIllegalMove(), variant + ", code 3 at " + position);
+                assertFalse(result.isValid());
+            }
+        }
+    }
+
+    /**
+     * Overwrites the 2 bit code of a move in a PAIR log, the way a corrupted or forged log would.
+     */
+    private static void writeRawCode(Path log, long position, int code) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(log.toFile(), "rw")) {
+            long offset = MoveLog.HEADER_SIZE + position / 4;
+            int shift = (int) (position % 4) * 2;
+            file.seek(offset);
+            int bits = file.read();
+            file.seek(offset);
+            file.write(bits & ~(3 << shift) | code << shift);
+        }
+    }
+
+    private static ValidationResult validate(MoveValidator validator, Path path, Variant variant) throws IOException {
+        try (MoveLogReader reader = new MoveLogReader(path)) {
+            return validator.validate(reader, variant);
+        }
+    }
+
+    private static int[] solution(Variant variant, int nrOfPegs, int source, int target) {
+        MoveSource moves = variant.createMoveSource(NR_OF_DISKS, nrOfPegs, source, target);
+        int[] result = new int[(int) variant.moveCount(NR_OF_DISKS, nrOfPegs, source, target)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = moves.poll();
+        }
+        assertEquals(MoveSource.NO_MOVE, moves.poll());
+        return result;
+    }
+
+    private Path write(int encoding, int nrOfPegs, int source, int target, int[] moves) throws IOException {
+        Path path = directory.resolve("moves.hlog");
+        try (MoveLogWriter writer = new MoveLogWriter(path, encoding, NR_OF_DISKS, nrOfPegs, source, target)) {
+            for (int move : moves) {
+                writer.append(Move.from(move), Move.to(move));
+            }
+        }
+        return path;
+    }
+
+    /**
+     * @return the position of the first move that is illegal under the variant, or NO_ILLEGAL_MOVE
+     */
+    private static long referenceFirstIllegalMove(int[] moves, int nrOfPegs, int source, Variant variant) {
+        PegState state = new PegState(nrOfPegs, NR_OF_DISKS, source);
+        for (int i = 0; i < moves.length; i++) {
+            int from = Move.from(moves[i]);
+            int to = Move.to(moves[i]);
+            if (!variant.isAllowed(from, to) || !state.canMove(from, to)) {
+                return i;
+            }
+            state.move(from, to);
+        }
+        return ValidationResult.NO_ILLEGAL_MOVE;
+    }
+
+    private static PegState referenceState(int[] moves, int nrOfPegs, int source) {
+        PegState state = new PegState(nrOfPegs, NR_OF_DISKS, source);
+        for (int move : moves) {
+            state.move(Move.from(move), Move.to(move));
+        }
+        return state;
+    }
+}
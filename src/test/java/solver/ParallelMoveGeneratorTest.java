@@ -0,0 +1,137 @@
+package solver;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Compares the moves generated in parallel with the sequential solver. The chunks are kept small,
+ * so that the solutions are split into many chunks generated by several workers. The streams are
+ * split by their spliterator, so only the largest solutions are streamed by several workers.
+ */
+class ParallelMoveGeneratorTest {
+    private static final int MAX_DISKS = 16;
+    private static final int CHUNK_SIZE = 37;
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void statisticsMatchTheSequentialSolver() {
+        ParallelMoveGenerator generator = new ParallelMoveGenerator(pool, CHUNK_SIZE);
+        for (int nrOfDisks = 0; nrOfDisks <= MAX_DISKS; nrOfDisks++) {
+            for (int source = 0; source < 3; source++) {
+                for (int destination = 0; destination < 3; destination++) {
+                    if (source == destination) {
+                        continue;
+                    }
+                    MoveStatistics expected = new MoveStatistics(nrOfDisks);
+                    long nrOfMoves = HanoiSolver.solve(new PegState(3, nrOfDisks, source), source, destination,
+                            (moveIndex, disk, from, to) -> expected.add(moveIndex, Move.encode(disk, from, to)));
+                    MoveStatistics actual = generator.statistics(nrOfDisks, source, destination);
+
+                    String solution = nrOfDisks + " disks from " + source + " to " + destination;
+                    assertEquals(nrOfMoves, actual.getCount(), solution);
+                    assertEquals(expected.getCount(), actual.getCount(), solution);
+                    assertEquals(expected.getChecksum(), actual.getChecksum(), solution);
+                    assertEquals(HanoiSolver.checksum(nrOfDisks, source, destination), actual.getChecksum(), solution);
+                    for (int disk = 0; disk < nrOfDisks; disk++) {
+                        assertEquals(expected.getMovesOfDisk(disk), actual.getMovesOfDisk(disk), solution + ", disk " + disk);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void filledMovesAreInTheOrderOfTheSequentialSolver() {
+        ParallelMoveGenerator generator = new ParallelMoveGenerator(pool, CHUNK_SIZE);
+        for (int nrOfDisks = 1; nrOfDisks <= 12; nrOfDisks++) {
+            for (int source = 0; source < 3; source++) {
+                int destination = (source + 1 + nrOfDisks % 2) % 3;
+                int[] expected = new int[(int) HanoiSolver.moveCount(nrOfDisks)];
+                HanoiSolver.solve(new PegState(3, nrOfDisks, source), source, destination,
+                        (moveIndex, disk, from, to) -> expected[(int) moveIndex - 1] = Move.encode(disk, from, to));
+
+                String solution = nrOfDisks + " disks from " + source + " to " + destination;
+                int[] actual = new int[expected.length];
+                generator.fill(nrOfDisks, source, destination, 1, actual);
+                assertArrayEquals(expected, actual, solution);
+
+                // A range that starts and ends inside of the solution
+                int first = expected.length / 3 + 1;
+                int[] range = new int[expected.length / 2];
+                generator.fill(nrOfDisks, source, destination, first, range);
+                assertArrayEquals(Arrays.copyOfRange(expected, first - 1, first - 1 + range.length), range, solution);
+            }
+        }
+    }
+
+    @Test
+    void streamedMovesAreInTheOrderOfTheSequentialSolver() {
+        for (int nrOfDisks = 0; nrOfDisks <= MAX_DISKS; nrOfDisks++) {
+            for (int source = 0; source < 3; source++) {
+                for (int destination = 0; destination < 3; destination++) {
+                    if (source == destination) {
+                        continue;
+                    }
+                    int[] expected = solution(nrOfDisks, source, destination);
+                    String solution = nrOfDisks + " disks from " + source + " to " + destination;
+                    assertArrayEquals(expected, ParallelMoveGenerator.stream(nrOfDisks, source, destination).toArray(), solution);
+
+                    // A range that starts and ends inside of the solution
+                    int first = expected.length / 3 + 1;
+                    int last = first + expected.length / 2 - 1;
+                    assertArrayEquals(Arrays.copyOfRange(expected, first - 1, last),
+                            ParallelMoveGenerator.stream(nrOfDisks, source, destination, first, last).toArray(), solution);
+                }
+            }
+        }
+    }
+
+    @Test
+    void splitRangesAreDisjointAndCoverTheSolution() {
+        int nrOfDisks = MAX_DISKS;
+        int[] expected = solution(nrOfDisks, 0, 2);
+        MoveRangeSpliterator suffix = MoveRangeSpliterator.ofSolution(nrOfDisks, 0, 2);
+        assertEquals(expected.length, suffix.getExactSizeIfKnown());
+
+        Spliterator.OfInt prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        assertEquals(expected.length, prefix.estimateSize() + suffix.estimateSize());
+
+        int[] actual = new int[expected.length];
+        int[] length = new int[1];
+        prefix.forEachRemaining((int move) -> actual[length[0]++] = move);
+        while (suffix.tryAdvance((int move) -> actual[length[0]++] = move)) {
+            // Every move is written by the consumer
+        }
+        assertEquals(expected.length, length[0]);
+        assertArrayEquals(expected, actual);
+        assertEquals(0, suffix.estimateSize());
+    }
+
+    private static int[] solution(int nrOfDisks, int source, int destination) {
+        int[] moves = new int[(int) HanoiSolver.moveCount(nrOfDisks)];
+        HanoiSolver.solve(new PegState(3, nrOfDisks, source), source, destination,
+                (moveIndex, disk, from, to) -> moves[(int) moveIndex - 1] = Move.encode(disk, from, to));
+        return moves;
+    }
+}
@@ -0,0 +1,168 @@
+package solver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the eviction of the memory tier by its byte budget, the file tier shared by several
+ * caches, and the computation shared by concurrent requests for the same solution.
+ */
+class SolutionCacheTest {
+    private static final int ENTRY_OVERHEAD = 64;
+    private static final SolutionCache.Key TO_RIGHT = new SolutionCache.Key(8, 3, 0, 2, Variant.CLASSIC);
+    private static final SolutionCache.Key TO_MIDDLE = new SolutionCache.Key(8, 3, 0, 1, Variant.CLASSIC);
+    private static final SolutionCache.Key FROM_MIDDLE = new SolutionCache.Key(8, 3, 1, 2, Variant.CLASSIC);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rejectsABudgetSmallerThanAnEntry() {
+        assertThrows(IllegalArgumentException.class, () -> new SolutionCache(10));
+        assertThrows(IllegalArgumentException.class, () -> new SolutionCache(ENTRY_OVERHEAD));
+
+        SolutionCache cache = new SolutionCache(ENTRY_OVERHEAD + 100);
+        assertTrue(cache.fits(new SolutionCache.Key(6, 3, 0, 2, Variant.CLASSIC)));
+        assertFalse(cache.fits(new SolutionCache.Key(7, 3, 0, 2, Variant.CLASSIC)));
+        assertThrows(IllegalArgumentException.class, () -> cache.get(new SolutionCache.Key(7, 3, 0, 2, Variant.CLASSIC)));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedSolutionsOverTheBudget() {
+        // Room for two solutions of 255 moves, not three
+        SolutionCache cache = new SolutionCache(2 * (255 + ENTRY_OVERHEAD) + 100);
+        PackedMoves toRight = cache.get(TO_RIGHT);
+        cache.get(TO_MIDDLE);
+        assertSame(toRight, cache.get(TO_RIGHT));
+        assertEquals(0, cache.getEvictions());
+
+        // The solution to the middle peg is the least recently used one
+        cache.get(FROM_MIDDLE);
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.size());
+        assertEquals(2 * (255 + ENTRY_OVERHEAD), cache.getBytes());
+
+        long misses = cache.getMisses();
+        assertSame(toRight, cache.get(TO_RIGHT));
+        cache.get(TO_MIDDLE);
+        assertEquals(misses + 1, cache.getMisses());
+    }
+
+    @Test
+    void fileTierIsSharedByCaches() {
+        SolutionCache first = new SolutionCache(1 << 20, directory);
+        PackedMoves solved = first.get(TO_RIGHT);
+        assertEquals(1, first.getMisses());
+
+        SolutionCache second = new SolutionCache(1 << 20, directory);
+        PackedMoves loaded = second.get(TO_RIGHT);
+        assertEquals(0, second.getMisses());
+        assertEquals(1, second.getFileHits());
+        assertSameMoves(solved, loaded);
+
+        // The restricted variants are stored under their own name
+        SolutionCache.Key cyclic = new SolutionCache.Key(6, 3, 0, 2, Variant.CYCLIC);
+        first.get(cyclic);
+        assertSameMoves(first.get(cyclic), new SolutionCache(1 << 20, directory).get(cyclic));
+    }
+
+    @Test
+    void damagedFilesAreSolvedAgainAndReplaced() throws Exception {
+        int[] solution = new int[(int) TO_RIGHT.moveCount()];
+        MoveSource moves = Variant.CLASSIC.createMoveSource(8, 3, 0, 2);
+        for (int i = 0; i < solution.length; i++) {
+            solution[i] = moves.poll();
+        }
+
+        // A peg that doesn't exist, an illegal move and a legal log that misses the target,
+        // all with a valid header
+        int[][] damaged = {solution.clone(), solution.clone(), solution.clone()};
+        damaged[0][10] = Move.encode(0, Move.from(solution[10]), 3);
+        damaged[1][10] = solution[11];
+        damaged[2][solution.length - 1] = Move.encode(0, Move.from(solution[solution.length - 1]), 1);
+        for (int[] log : damaged) {
+            writeLog(directory.resolve(TO_RIGHT.fileName()), log);
+            SolutionCache cache = new SolutionCache(1 << 20, directory);
+            PackedMoves solved = cache.get(TO_RIGHT);
+            assertEquals(0, cache.getFileHits());
+            assertEquals(1, cache.getMisses());
+
+            SolutionCache next = new SolutionCache(1 << 20, directory);
+            assertSameMoves(solved, next.get(TO_RIGHT));
+            assertEquals(1, next.getFileHits());
+        }
+    }
+
+    @Test
+    void concurrentRequestsShareOneComputation() throws Exception {
+        int nrOfThreads = 8;
+        SolutionCache cache = new SolutionCache(64L << 20);
+        SolutionCache.Key key = new SolutionCache.Key(20, 3, 0, 2, Variant.CLASSIC);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(nrOfThreads);
+        try {
+            List<Future<PackedMoves>> results = new ArrayList<>();
+            for (int i = 0; i < nrOfThreads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(key);
+                }));
+            }
+            start.countDown();
+
+            PackedMoves moves = results.get(0).get();
+            for (Future<PackedMoves> result : results) {
+                assertSame(moves, result.get());
+            }
+            assertEquals(1, cache.getMisses());
+            assertEquals(nrOfThreads - 1, cache.getHits());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void moveSourceReplaysTheSolution() {
+        SolutionCache cache = new SolutionCache(1 << 20);
+        MoveSource cached = cache.moveSource(TO_RIGHT);
+        MoveSource solved = Variant.CLASSIC.createMoveSource(8, 3, 0, 2);
+        assertFalse(cached.isExhausted());
+        int move;
+        while ((move = solved.poll()) != MoveSource.NO_MOVE) {
+            assertEquals(move, cached.poll());
+        }
+        assertEquals(MoveSource.NO_MOVE, cached.poll());
+        assertTrue(cached.isExhausted());
+    }
+
+    private static void writeLog(Path path, int[] moves) throws IOException {
+        try (MoveLogWriter writer = new MoveLogWriter(path, MoveLog.ENCODING_DIRECTED, 8, 3, 0, 2)) {
+            for (int move : moves) {
+                writer.append(Move.from(move), Move.to(move));
+            }
+        }
+    }
+
+    private static void assertSameMoves(PackedMoves expected, PackedMoves actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.from(i), actual.from(i), "move " + i);
+            assertEquals(expected.to(i), actual.to(i), "move " + i);
+        }
+    }
+}
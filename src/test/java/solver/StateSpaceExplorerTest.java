@@ -0,0 +1,190 @@
+package solver;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the parallel search of StateSpaceExplorer with a plain breadth-first search, for every
+ * variant, and checks that the paths it walks back are legal and as short as the search says.
+ * The frontiers of a few disks are expanded by a single task, so the larger cases lower the
+ * sequential threshold to split every frontier between the workers of a pool.
+ */
+class StateSpaceExplorerTest {
+    private static final int MAX_DISKS = 6;
+    private static final int PATHS_PER_CASE = 40;
+    private static final int MIN_PARALLEL_DISKS = 9;
+    private static final int MAX_PARALLEL_DISKS = 10;
+    private static final int SEQUENTIAL_THRESHOLD = 8;
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void encodeAndDecodeAreInverse() {
+        int nrOfDisks = 5;
+        int[] pegOfDisk = new int[nrOfDisks];
+        for (int code = 0; code < BruteForce.stateCount(nrOfDisks); code++) {
+            StateSpaceExplorer.decode(code, nrOfDisks, pegOfDisk);
+            assertArrayEquals(BruteForce.pegs(code, nrOfDisks), pegOfDisk);
+            assertEquals(code, StateSpaceExplorer.encode(pegOfDisk, nrOfDisks));
+        }
+    }
+
+    @Test
+    void exploreMatchesSearch() throws IOException {
+        for (Variant variant : Variant.values()) {
+            for (int nrOfDisks = 1; nrOfDisks <= MAX_DISKS; nrOfDisks++) {
+                try (StateSpaceExplorer explorer = new StateSpaceExplorer(nrOfDisks, variant)) {
+                    for (int start : starts(nrOfDisks)) {
+                        int[] distance = BruteForce.distances(start, nrOfDisks, variant);
+                        ExplorationResult result = explorer.explore(start);
+
+                        String context = variant + ", " + nrOfDisks + " disks from " + start;
+                        assertArrayEquals(BruteForce.histogram(distance), result.getStatesAtDistance(), context);
+                        assertEquals(BruteForce.stateCount(nrOfDisks), result.getNrOfStates(), context);
+                        assertEquals(result.getEccentricity(), distance[(int) result.getFarthestState()], context);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void shortestPathIsLegalAndShortest() throws IOException {
+        Random random = new Random(42);
+        for (Variant variant : Variant.values()) {
+            for (int nrOfDisks = 1; nrOfDisks <= MAX_DISKS; nrOfDisks++) {
+                try (StateSpaceExplorer explorer = new StateSpaceExplorer(nrOfDisks, variant)) {
+                    int stateCount = BruteForce.stateCount(nrOfDisks);
+                    for (int i = 0; i < PATHS_PER_CASE; i++) {
+                        int from = random.nextInt(stateCount);
+                        int to = random.nextInt(stateCount);
+                        assertPath(explorer, variant, nrOfDisks, from, to);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void splitFrontiersMatchSearch() throws IOException {
+        Random random = new Random(9);
+        for (Variant variant : Variant.values()) {
+            for (int nrOfDisks = MIN_PARALLEL_DISKS; nrOfDisks <= MAX_PARALLEL_DISKS; nrOfDisks++) {
+                try (StateSpaceExplorer explorer = new StateSpaceExplorer(nrOfDisks, variant, pool, SEQUENTIAL_THRESHOLD)) {
+                    for (int start : starts(nrOfDisks)) {
+                        int[] distance = BruteForce.distances(start, nrOfDisks, variant);
+                        ExplorationResult result = explorer.explore(start);
+
+                        String context = variant + ", " + nrOfDisks + " disks from " + start;
+                        assertArrayEquals(BruteForce.histogram(distance), result.getStatesAtDistance(), context);
+                        assertEquals(result.getEccentricity(), distance[(int) result.getFarthestState()], context);
+                    }
+
+                    int stateCount = BruteForce.stateCount(nrOfDisks);
+                    for (int i = 0; i < 4; i++) {
+                        assertPath(explorer, variant, nrOfDisks, random.nextInt(stateCount), random.nextInt(stateCount));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void shortSearchesClearWhatTheyReached() throws IOException {
+        Random random = new Random(3);
+        int nrOfDisks = MAX_PARALLEL_DISKS;
+        int stateCount = BruteForce.stateCount(nrOfDisks);
+        for (Variant variant : Variant.values()) {
+            try (StateSpaceExplorer explorer = new StateSpaceExplorer(nrOfDisks, variant)) {
+                for (int i = 0; i < PATHS_PER_CASE; i++) {
+                    // Mostly short paths, which reach a few configurations, between full searches
+                    int from = random.nextInt(stateCount);
+                    int to = i % 10 == 0 ? random.nextInt(stateCount) : walk(random, from, nrOfDisks, variant, 1 + random.nextInt(6));
+                    assertPath(explorer, variant, nrOfDisks, from, to);
+                    if (i % 10 == 5) {
+                        int[] distance = BruteForce.distances(from, nrOfDisks, variant);
+                        assertArrayEquals(BruteForce.histogram(distance), explorer.explore(from).getStatesAtDistance());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void mappedTableGivesTheSameResults(@TempDir Path directory) throws IOException {
+        int nrOfDisks = 5;
+        for (Variant variant : Variant.values()) {
+            try (StateSpaceExplorer explorer = new StateSpaceExplorer(nrOfDisks, variant, directory.resolve(variant + ".table"))) {
+                int[] distance = BruteForce.distances(0, nrOfDisks, variant);
+                assertArrayEquals(BruteForce.histogram(distance), explorer.explore(0).getStatesAtDistance(), variant.toString());
+                assertPath(explorer, variant, nrOfDisks, 0, BruteForce.perfect(nrOfDisks, 2));
+            }
+        }
+    }
+
+    /**
+     * Replays the shortest path found by the explorer and compares its length with the search.
+     */
+    private static void assertPath(StateSpaceExplorer explorer, Variant variant, int nrOfDisks, int from, int to) {
+        String context = variant + ", " + nrOfDisks + " disks from " + from + " to " + to;
+        int[] path = explorer.shortestPath(from, to);
+        assertEquals(BruteForce.distances(from, nrOfDisks, variant)[to], path.length, context);
+
+        int[] pegOfDisk = BruteForce.pegs(from, nrOfDisks);
+        for (int move : path) {
+            assertTrue(BruteForce.isLegal(pegOfDisk, Move.from(move), Move.to(move), variant), context + ": " + Move.toString(move));
+            assertEquals(BruteForce.top(pegOfDisk, Move.from(move)), Move.disk(move), context + ": " + Move.toString(move));
+            pegOfDisk[Move.disk(move)] = Move.to(move);
+        }
+        assertEquals(to, BruteForce.code(pegOfDisk, nrOfDisks), context);
+    }
+
+    /**
+     * @return the configuration reached by a few random legal moves
+     */
+    private static int walk(Random random, int code, int nrOfDisks, Variant variant, int nrOfMoves) {
+        int[] pegOfDisk = BruteForce.pegs(code, nrOfDisks);
+        for (int i = 0; i < nrOfMoves; i++) {
+            int from;
+            int to;
+            do {
+                from = random.nextInt(3);
+                to = random.nextInt(3);
+            } while (!BruteForce.isLegal(pegOfDisk, from, to, variant));
+            pegOfDisk[BruteForce.top(pegOfDisk, from)] = to;
+        }
+        return BruteForce.code(pegOfDisk, nrOfDisks);
+    }
+
+    /**
+     * @return the perfect configurations and a few others to start the searches from
+     */
+    private static int[] starts(int nrOfDisks) {
+        int stateCount = BruteForce.stateCount(nrOfDisks);
+        return new int[] {
+                BruteForce.perfect(nrOfDisks, 0), BruteForce.perfect(nrOfDisks, 1), BruteForce.perfect(nrOfDisks, 2),
+                stateCount / 2, stateCount / 3 + 1
+        };
+    }
+}